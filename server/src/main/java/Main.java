@@ -1,8 +1,15 @@
 import chess.*;
+import server.Server;
 
 public class Main {
     public static void main(String[] args) {
         var piece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
         System.out.println("♕ 240 Chess Server: " + piece);
+
+        var port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        var server = new Server();
+        port = server.run(port);
+        System.out.printf("Listening on port %d with %s threads and %s storage%n", port, server.getExecutionMode(),
+                server.getStorage());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,17 @@
+package dataaccess;
+
+import model.AuthData;
+
+public interface AuthDAO {
+
+    void createAuth(AuthData auth) throws DataAccessException;
+
+    /**
+     * @return the auth data for the token, or null if there is none
+     */
+    AuthData getAuth(String authToken) throws DataAccessException;
+
+    void deleteAuth(String authToken) throws DataAccessException;
+
+    void clear() throws DataAccessException;
+}
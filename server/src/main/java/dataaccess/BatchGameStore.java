@@ -0,0 +1,43 @@
+package dataaccess;
+
+import chess.ChessMove;
+import model.GameData;
+
+import java.util.List;
+
+/**
+ * A game store that can take many games' changes in one write, for
+ * {@link WriteBehindGameDAO}
+ */
+interface BatchGameStore extends GameDAO {
+
+    /**
+     * A game as read, with the bookkeeping needed to write it back
+     */
+    record Stored(GameData game, int snapshotPly, int ply, long version) {
+    }
+
+    /**
+     * Changes to one game made elsewhere
+     *
+     * @param game          the game after the changes
+     * @param ply           the game's ply after the changes
+     * @param moves         the moves played since the last write, ending at {@code ply}
+     * @param boardReplaced whether the board changed other than by those moves
+     * @param listingChanged whether a seat, the name or the game's end changed, so
+     *                       game listings are out of date
+     */
+    record GameWrite(GameData game, int ply, List<ChessMove> moves, boolean boardReplaced, boolean listingChanged) {
+    }
+
+    /**
+     * @return the game with the ply it is at, or null if there is no such game
+     */
+    Stored readStored(int gameID) throws DataAccessException;
+
+    /**
+     * Writes all the changes, or none of them if it fails. The caller must be the only
+     * writer of these games, since versions are not checked.
+     */
+    void writeBatch(List<GameWrite> writes) throws DataAccessException;
+}
@@ -0,0 +1,239 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of JDBC connections.
+ * <p>
+ * Callers get a wrapper around a pooled connection; closing the wrapper hands the
+ * connection back instead of closing it, so the usual try-with-resources pattern keeps
+ * working unchanged. Connections past their maximum lifetime are retired, and
+ * connections that sat idle longer than the validation interval are checked with
+ * {@link Connection#isValid(int)} before being handed out.
+ */
+public class ConnectionPool {
+
+    /**
+     * Opens a new physical connection
+     */
+    interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    /**
+     * How the pool is sized and when connections are checked or retired
+     */
+    record Settings(int maxSize, long acquireTimeoutMillis, long maxLifetimeMillis,
+                    long validationIntervalMillis, int validationTimeoutSeconds) {
+    }
+
+    /**
+     * A snapshot of the pool's counters
+     *
+     * @param open            physical connections currently open
+     * @param idle            open connections waiting in the pool
+     * @param inUse           connections handed out and not yet returned
+     * @param created         physical connections opened since startup
+     * @param retired         physical connections closed since startup
+     * @param acquired        successful acquires since startup
+     * @param timeouts        acquires that gave up waiting
+     * @param totalWaitMillis time spent waiting in successful acquires
+     */
+    public record Stats(int open, int idle, int inUse, long created, long retired, long acquired, long timeouts,
+                        long totalWaitMillis) {
+    }
+
+    private static class PooledConnection {
+        final Connection physical;
+        final long createdAt;
+        long lastUsedAt;
+
+        PooledConnection(Connection physical, long now) {
+            this.physical = physical;
+            this.createdAt = now;
+            this.lastUsedAt = now;
+        }
+    }
+
+    private final ConnectionFactory factory;
+    private final Settings settings;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong retired = new AtomicLong();
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private volatile boolean closed;
+
+    ConnectionPool(ConnectionFactory factory, Settings settings) {
+        this.factory = factory;
+        this.settings = settings;
+        this.permits = new Semaphore(settings.maxSize(), true);
+    }
+
+    /**
+     * Gets a connection, waiting up to the acquire timeout if all of them are in use
+     *
+     * @return a connection that goes back to the pool when closed
+     * @throws DataAccessException if the pool is closed, the wait times out, or a new
+     *                             connection cannot be opened
+     */
+    Connection acquire() throws DataAccessException {
+        if (closed) {
+            throw new DataAccessException("connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(settings.acquireTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new DataAccessException("timed out waiting for a database connection");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("interrupted waiting for a database connection", ex);
+        }
+        totalWaitNanos.addAndGet(System.nanoTime() - start);
+
+        try {
+            PooledConnection pooled = takeIdle();
+            if (pooled == null) {
+                pooled = new PooledConnection(factory.create(), System.currentTimeMillis());
+                created.incrementAndGet();
+            }
+            acquired.incrementAndGet();
+            return wrap(pooled);
+        } catch (SQLException ex) {
+            permits.release();
+            throw new DataAccessException("failed to get connection", ex);
+        } catch (RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    Stats stats() {
+        int idleCount = idle.size();
+        int inUse = settings.maxSize() - permits.availablePermits();
+        return new Stats(idleCount + inUse, idleCount, inUse, created.get(), retired.get(), acquired.get(),
+                timeouts.get(), TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get()));
+    }
+
+    /**
+     * Closes every idle connection and refuses new acquires. Connections still in use
+     * are closed when they are returned.
+     */
+    void close() {
+        closed = true;
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            retire(pooled);
+        }
+    }
+
+    private PooledConnection takeIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            long now = System.currentTimeMillis();
+            if (now - pooled.createdAt >= settings.maxLifetimeMillis()) {
+                retire(pooled);
+            } else if (now - pooled.lastUsedAt >= settings.validationIntervalMillis() && !isValid(pooled)) {
+                retire(pooled);
+            } else {
+                return pooled;
+            }
+        }
+        return null;
+    }
+
+    private void release(PooledConnection pooled) {
+        try {
+            long now = System.currentTimeMillis();
+            if (closed || pooled.physical.isClosed() || now - pooled.createdAt >= settings.maxLifetimeMillis()) {
+                retire(pooled);
+                return;
+            }
+            if (!pooled.physical.getAutoCommit()) {
+                // don't let an unfinished transaction leak into the next borrower
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            pooled.lastUsedAt = now;
+            // most recently used first, so the busy set of connections stays warm
+            idle.offerFirst(pooled);
+        } catch (SQLException ex) {
+            retire(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.physical.isValid(settings.validationTimeoutSeconds());
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    private void retire(PooledConnection pooled) {
+        retired.incrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException ignored) {
+            // the connection is being thrown away either way
+        }
+    }
+
+    private Connection wrap(PooledConnection pooled) {
+        InvocationHandler handler = new InvocationHandler() {
+            private boolean returned;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close" -> {
+                        if (!returned) {
+                            returned = true;
+                            release(pooled);
+                        }
+                        return null;
+                    }
+                    case "isClosed" -> {
+                        return returned || pooled.physical.isClosed();
+                    }
+                    case "equals" -> {
+                        return proxy == args[0];
+                    }
+                    case "hashCode" -> {
+                        return System.identityHashCode(proxy);
+                    }
+                    case "toString" -> {
+                        return "Pooled" + pooled.physical;
+                    }
+                    default -> {
+                        if (returned) {
+                            throw new SQLException("connection has already been closed");
+                        }
+                        try {
+                            return method.invoke(pooled.physical, args);
+                        } catch (InvocationTargetException ex) {
+                            throw ex.getCause();
+                        }
+                    }
+                }
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, handler);
+    }
+}
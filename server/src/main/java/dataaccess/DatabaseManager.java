@@ -0,0 +1,106 @@
+package dataaccess;
+
+import java.sql.*;
+import java.util.Properties;
+
+public class DatabaseManager {
+    private static String databaseName;
+    private static String dbUsername;
+    private static String dbPassword;
+    private static String connectionUrl;
+    private static ConnectionPool.Settings poolSettings;
+    private static volatile ConnectionPool pool;
+
+    /*
+     * Load the database information for the db.properties file.
+     */
+    static {
+        loadPropertiesFromResources();
+    }
+
+    /**
+     * Creates the database if it does not already exist.
+     */
+    static public void createDatabase() throws DataAccessException {
+        var statement = "CREATE DATABASE IF NOT EXISTS " + databaseName;
+        try (var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
+             var preparedStatement = conn.prepareStatement(statement)) {
+            preparedStatement.executeUpdate();
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to create database", ex);
+        }
+    }
+
+    /**
+     * Gets a connection to the database from the pool, with the catalog set based upon
+     * the properties specified in db.properties. Connections to the database should
+     * be short-lived, and you must close the connection when you are done with it;
+     * closing it returns it to the pool. The easiest way to do that is with a
+     * try-with-resource block.
+     * <br/>
+     * <code>
+     * try (var conn = DatabaseManager.getConnection()) {
+     * // execute SQL statements.
+     * }
+     * </code>
+     */
+    static Connection getConnection() throws DataAccessException {
+        return pool.acquire();
+    }
+
+    /**
+     * @return a snapshot of the connection pool's size and usage counters
+     */
+    public static ConnectionPool.Stats poolStats() {
+        return pool.stats();
+    }
+
+    /**
+     * Closes all pooled connections. Call when the server stops. A fresh pool takes its
+     * place, so a server started later in the same process can still connect.
+     */
+    public static synchronized void closePool() {
+        ConnectionPool closing = pool;
+        pool = new ConnectionPool(DatabaseManager::openConnection, poolSettings);
+        closing.close();
+    }
+
+    private static Connection openConnection() throws SQLException {
+        //do not wrap the following line with a try-with-resources
+        var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
+        conn.setCatalog(databaseName);
+        return conn;
+    }
+
+    private static void loadPropertiesFromResources() {
+        try (var propStream = Thread.currentThread().getContextClassLoader().getResourceAsStream("db.properties")) {
+            if (propStream == null) {
+                throw new Exception("Unable to load db.properties");
+            }
+            Properties props = new Properties();
+            props.load(propStream);
+            loadProperties(props);
+        } catch (Exception ex) {
+            throw new RuntimeException("unable to process db.properties", ex);
+        }
+    }
+
+    private static void loadProperties(Properties props) {
+        databaseName = props.getProperty("db.name");
+        dbUsername = props.getProperty("db.user");
+        dbPassword = props.getProperty("db.password");
+
+        var host = props.getProperty("db.host");
+        var port = Integer.parseInt(props.getProperty("db.port"));
+        // lets JDBC batches go to the server as multi-row statements
+        connectionUrl = String.format("jdbc:mysql://%s:%d?rewriteBatchedStatements=true", host, port);
+
+        poolSettings = new ConnectionPool.Settings(
+                Integer.parseInt(props.getProperty("db.pool.maxSize", "10")),
+                Long.parseLong(props.getProperty("db.pool.acquireTimeoutMillis", "5000")),
+                Long.parseLong(props.getProperty("db.pool.maxLifetimeMillis", "1800000")),
+                Long.parseLong(props.getProperty("db.pool.validationIntervalMillis", "5000")),
+                Integer.parseInt(props.getProperty("db.pool.validationTimeoutSeconds", "2")));
+        pool = new ConnectionPool(DatabaseManager::openConnection, poolSettings);
+    }
+}
@@ -0,0 +1,106 @@
+package dataaccess;
+
+import chess.ChessMove;
+import model.GameData;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+public interface GameDAO {
+
+    /**
+     * Which games a lobby listing wants
+     *
+     * @param afterGameID only games with a higher ID than this, or 0 from the start
+     * @param limit       the most games to list
+     * @param openSeats   only games with a seat free
+     * @param player      only games this user has a seat in, or null for anyone's
+     * @param inProgress  only games with both seats taken that are not over
+     */
+    record ListQuery(int afterGameID, int limit, boolean openSeats, String player, boolean inProgress) {
+
+        public boolean matches(GameData game) {
+            if (game.gameID() <= afterGameID) {
+                return false;
+            }
+            if (openSeats && game.whiteUsername() != null && game.blackUsername() != null) {
+                return false;
+            }
+            if (player != null && !player.equals(game.whiteUsername()) && !player.equals(game.blackUsername())) {
+                return false;
+            }
+            return !inProgress || game.whiteUsername() != null && game.blackUsername() != null
+                    && !game.game().isGameOver();
+        }
+    }
+
+    /**
+     * Creates a game with no players and a fresh board
+     *
+     * @return the new game's ID
+     */
+    int createGame(String gameName) throws DataAccessException;
+
+    /**
+     * @return the game with that ID, or null if there is none
+     */
+    GameData getGame(int gameID) throws DataAccessException;
+
+    Collection<GameData> listGames() throws DataAccessException;
+
+    /**
+     * @return the games the query asks for, in ID order. Stores may leave out the
+     * boards, which a listing does not show.
+     */
+    default List<GameData> listGames(ListQuery query) throws DataAccessException {
+        return listGames().stream()
+                .filter(query::matches)
+                .sorted(Comparator.comparingInt(GameData::gameID))
+                .limit(query.limit())
+                .toList();
+    }
+
+    /**
+     * @return a number that goes up whenever a listing could change: a game is created,
+     * a seat is taken or given up, a game ends, or the games are cleared. It never goes
+     * back down, so a client that saw the same number has seen the same games.
+     */
+    long listingVersion() throws DataAccessException;
+
+    /**
+     * @return whether going from one version of a game to the other changes what a
+     * listing shows or which listings it is in
+     */
+    static boolean changesListing(GameData before, GameData after) {
+        return !Objects.equals(before.whiteUsername(), after.whiteUsername())
+                || !Objects.equals(before.blackUsername(), after.blackUsername())
+                || !Objects.equals(before.gameName(), after.gameName())
+                || before.game().isGameOver() != after.game().isGameOver();
+    }
+
+    /**
+     * Atomically replaces a game with {@code update} applied to its current value, so
+     * concurrent joins and moves on one game never overwrite each other.
+     * <p>
+     * The update may be called more than once if another writer gets in first, so it
+     * must not have side effects or modify the game it is given. Returning the same
+     * instance it was given means no change and skips the write.
+     *
+     * @return the game as stored after the update, or null if there is no such game
+     */
+    GameData updateGame(int gameID, UnaryOperator<GameData> update) throws DataAccessException;
+
+    /**
+     * Like {@link #updateGame}, for an update that plays {@code move} on the board and
+     * nothing else. Stores that only log moves use this to skip rewriting the board.
+     */
+    default GameData applyMove(int gameID, ChessMove move, UnaryOperator<GameData> update)
+            throws DataAccessException {
+        return updateGame(gameID, update);
+    }
+
+    void clear() throws DataAccessException;
+}
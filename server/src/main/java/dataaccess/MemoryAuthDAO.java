@@ -0,0 +1,30 @@
+package dataaccess;
+
+import model.AuthData;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+public class MemoryAuthDAO implements AuthDAO {
+
+    private final ConcurrentHashMap<String, AuthData> tokens = new ConcurrentHashMap<>();
+
+    @Override
+    public void createAuth(AuthData auth) {
+        tokens.put(auth.authToken(), auth);
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) {
+        return tokens.get(authToken);
+    }
+
+    @Override
+    public void deleteAuth(String authToken) {
+        tokens.remove(authToken);
+    }
+
+    @Override
+    public void clear() {
+        tokens.clear();
+    }
+}
@@ -0,0 +1,172 @@
+package dataaccess;
+
+import chess.ChessGame;
+import model.GameData;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.UnaryOperator;
+
+/**
+ * Keeps games in memory, indexed directly by their int ID.
+ * <p>
+ * IDs are handed out in sequence, so instead of a hash map of boxed Integers the games
+ * live in fixed-size chunks of an array, found by shifting and masking the ID. Reads
+ * take no locks, and {@link #updateGame} is a compare-and-set on the game's slot, so
+ * updates to different games never contend. Only allocating a new chunk locks.
+ */
+public class MemoryGameDAO implements GameDAO {
+
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private volatile AtomicReferenceArray<AtomicReferenceArray<GameData>> chunks = new AtomicReferenceArray<>(16);
+    private final AtomicInteger nextID = new AtomicInteger(1);
+    private final AtomicLong listingVersion = new AtomicLong();
+    private final Object growLock = new Object();
+
+    @Override
+    public int createGame(String gameName) {
+        int gameID = nextID.getAndIncrement();
+        chunkFor(gameID, true).set(gameID & CHUNK_MASK, new GameData(gameID, null, null, gameName, new ChessGame()));
+        listingVersion.incrementAndGet();
+        return gameID;
+    }
+
+    @Override
+    public GameData getGame(int gameID) {
+        var chunk = chunkFor(gameID, false);
+        return chunk == null ? null : chunk.get(gameID & CHUNK_MASK);
+    }
+
+    @Override
+    public Collection<GameData> listGames() {
+        var games = new ArrayList<GameData>();
+        var current = chunks;
+        for (int c = 0; c < current.length(); c++) {
+            var chunk = current.get(c);
+            if (chunk == null) {
+                continue;
+            }
+            for (int slot = 0; slot < CHUNK_SIZE; slot++) {
+                GameData game = chunk.get(slot);
+                if (game != null) {
+                    games.add(game);
+                }
+            }
+        }
+        return games;
+    }
+
+    /**
+     * Starts at the cursor's chunk and slot rather than walking every game before it
+     */
+    @Override
+    public List<GameData> listGames(ListQuery query) {
+        var games = new ArrayList<GameData>();
+        if (query.afterGameID() == Integer.MAX_VALUE) {
+            // nothing can come after it, and the next ID would wrap back to the start
+            return games;
+        }
+        var current = chunks;
+        int first = Math.max(1, query.afterGameID() + 1);
+        for (int c = first >>> CHUNK_BITS; c < current.length() && games.size() < query.limit(); c++) {
+            var chunk = current.get(c);
+            if (chunk == null) {
+                continue;
+            }
+            int slot = c == first >>> CHUNK_BITS ? first & CHUNK_MASK : 0;
+            for (; slot < CHUNK_SIZE && games.size() < query.limit(); slot++) {
+                GameData game = chunk.get(slot);
+                if (game != null && query.matches(game)) {
+                    games.add(game);
+                }
+            }
+        }
+        return games;
+    }
+
+    @Override
+    public long listingVersion() {
+        return listingVersion.get();
+    }
+
+    @Override
+    public GameData updateGame(int gameID, UnaryOperator<GameData> update) {
+        var chunk = chunkFor(gameID, false);
+        if (chunk == null) {
+            return null;
+        }
+        int slot = gameID & CHUNK_MASK;
+        while (true) {
+            GameData current = chunk.get(slot);
+            if (current == null) {
+                return null;
+            }
+            GameData updated = update.apply(current);
+            if (updated == current) {
+                return current;
+            }
+            if (updated.gameID() != gameID) {
+                throw new IllegalArgumentException("update changed the game ID");
+            }
+            if (chunk.compareAndSet(slot, current, updated)) {
+                if (GameDAO.changesListing(current, updated)) {
+                    listingVersion.incrementAndGet();
+                }
+                return updated;
+            }
+        }
+    }
+
+    /**
+     * Removes every game. IDs keep counting up, so an ID from before the clear never
+     * refers to a new game.
+     */
+    @Override
+    public void clear() {
+        synchronized (growLock) {
+            chunks = new AtomicReferenceArray<>(chunks.length());
+        }
+        listingVersion.incrementAndGet();
+    }
+
+    private AtomicReferenceArray<GameData> chunkFor(int gameID, boolean create) {
+        if (gameID <= 0) {
+            return null;
+        }
+        int index = gameID >>> CHUNK_BITS;
+        var current = chunks;
+        if (index < current.length()) {
+            var chunk = current.get(index);
+            if (chunk != null || !create) {
+                return chunk;
+            }
+        } else if (!create) {
+            return null;
+        }
+        synchronized (growLock) {
+            current = chunks;
+            if (index >= current.length()) {
+                var grown = new AtomicReferenceArray<AtomicReferenceArray<GameData>>(
+                        Math.max(index + 1, current.length() * 2));
+                for (int i = 0; i < current.length(); i++) {
+                    grown.set(i, current.get(i));
+                }
+                chunks = grown;
+                current = grown;
+            }
+            var chunk = current.get(index);
+            if (chunk == null) {
+                chunk = new AtomicReferenceArray<>(CHUNK_SIZE);
+                current.set(index, chunk);
+            }
+            return chunk;
+        }
+    }
+}
@@ -0,0 +1,441 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.notation.PackedMove;
+import com.google.gson.Gson;
+import model.GameData;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Stores games in MySQL.
+ * <p>
+ * Moves are appended to the move_log table as packed two-byte rows rather than
+ * rewriting the whole serialized game each time. The game row holds a snapshot of the
+ * board as of ply {@code snapshotPly}, refreshed every {@code snapshotInterval} plies
+ * and when a game ends, and loading a game replays the logged moves after it. The log
+ * itself is never trimmed, so it is also the game's full move history.
+ * <p>
+ * Every row carries a version number, and updates only write if the version is still
+ * the one they read, retrying otherwise. That keeps joins and moves correct across
+ * several servers sharing the database. Within one server, updates to the same game
+ * also take a striped lock first, so they queue up locally instead of repeatedly
+ * losing the compare-and-set to each other.
+ */
+public class MySqlGameDAO implements BatchGameStore {
+
+    private static final int MAX_ATTEMPTS = 16;
+    private static final Gson GSON = new Gson();
+
+    private static final String SELECT_GAME =
+            "SELECT gameID, whiteUsername, blackUsername, gameName, game, snapshotPly, ply, version FROM game";
+
+    static final String BUMP_LISTING_VERSION = "UPDATE game_listing SET version=version+1 WHERE id=1";
+
+    private final StripedLocks locks = new StripedLocks(256);
+    private final int snapshotInterval;
+
+    public MySqlGameDAO() throws DataAccessException {
+        this(Integer.getInteger("chess.game.snapshotPlies", 20));
+    }
+
+    /**
+     * @param snapshotInterval plies between snapshots of the board; at least 1
+     */
+    public MySqlGameDAO(int snapshotInterval) throws DataAccessException {
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException("snapshot interval must be at least 1, got " + snapshotInterval);
+        }
+        this.snapshotInterval = snapshotInterval;
+        Schema.bootstrap();
+    }
+
+    @Override
+    public int createGame(String gameName) throws DataAccessException {
+        var statement = "INSERT INTO game (gameName, game) VALUES (?, ?)";
+        try (var conn = DatabaseManager.getConnection();
+             var preparedStatement = conn.prepareStatement(statement, Statement.RETURN_GENERATED_KEYS)) {
+            preparedStatement.setString(1, gameName);
+            preparedStatement.setString(2, GSON.toJson(new ChessGame()));
+            preparedStatement.executeUpdate();
+            int gameID;
+            try (var keys = preparedStatement.getGeneratedKeys()) {
+                keys.next();
+                gameID = keys.getInt(1);
+            }
+            bumpListingVersion(conn);
+            return gameID;
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to create game", ex);
+        }
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        try (var conn = DatabaseManager.getConnection()) {
+            Stored current = read(conn, gameID);
+            return current == null ? null : current.game();
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to read game", ex);
+        }
+    }
+
+    /**
+     * Reads the rows and the moves logged since their snapshots in one transaction, so a
+     * snapshot written in between cannot leave a listed board without its later moves
+     */
+    @Override
+    public Collection<GameData> listGames() throws DataAccessException {
+        Map<Integer, GameData> games = new LinkedHashMap<>();
+        var replay = """
+                SELECT m.gameID, m.move FROM move_log m JOIN game g ON m.gameID = g.gameID
+                WHERE m.ply > g.snapshotPly ORDER BY m.gameID, m.ply
+                """;
+        try (var conn = DatabaseManager.getConnection()) {
+            int isolation = conn.getTransactionIsolation();
+            // a repeatable read transaction reads both statements from one snapshot
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            conn.setAutoCommit(false);
+            try {
+                try (var preparedStatement = conn.prepareStatement(SELECT_GAME);
+                     var rs = preparedStatement.executeQuery()) {
+                    while (rs.next()) {
+                        GameData game = readRow(rs).game();
+                        games.put(game.gameID(), game);
+                    }
+                }
+                try (var preparedStatement = conn.prepareStatement(replay);
+                     var rs = preparedStatement.executeQuery()) {
+                    while (rs.next()) {
+                        GameData game = games.get(rs.getInt("gameID"));
+                        if (game != null) {
+                            play(game.game(), rs.getInt("move"), game.gameID());
+                        }
+                    }
+                }
+                conn.commit();
+            } catch (SQLException | DataAccessException ex) {
+                conn.rollback();
+                throw ex;
+            } finally {
+                conn.setAutoCommit(true);
+                conn.setTransactionIsolation(isolation);
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to list games", ex);
+        }
+        return games.values();
+    }
+
+    /**
+     * Reads only the columns a listing shows, so no board is parsed or replayed; the
+     * listed games have no board
+     */
+    @Override
+    public List<GameData> listGames(ListQuery query) throws DataAccessException {
+        var statement = new StringBuilder(
+                "SELECT gameID, whiteUsername, blackUsername, gameName FROM game WHERE gameID > ?");
+        if (query.openSeats()) {
+            statement.append(" AND (whiteUsername IS NULL OR blackUsername IS NULL)");
+        }
+        if (query.player() != null) {
+            statement.append(" AND (whiteUsername = ? OR blackUsername = ?)");
+        }
+        if (query.inProgress()) {
+            statement.append(" AND whiteUsername IS NOT NULL AND blackUsername IS NOT NULL AND NOT gameOver");
+        }
+        statement.append(" ORDER BY gameID LIMIT ?");
+        var games = new ArrayList<GameData>();
+        try (var conn = DatabaseManager.getConnection();
+             var preparedStatement = conn.prepareStatement(statement.toString())) {
+            int i = 1;
+            preparedStatement.setInt(i++, query.afterGameID());
+            if (query.player() != null) {
+                preparedStatement.setString(i++, query.player());
+                preparedStatement.setString(i++, query.player());
+            }
+            preparedStatement.setInt(i, query.limit());
+            try (var rs = preparedStatement.executeQuery()) {
+                while (rs.next()) {
+                    games.add(new GameData(rs.getInt("gameID"), rs.getString("whiteUsername"),
+                            rs.getString("blackUsername"), rs.getString("gameName"), null));
+                }
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to list games", ex);
+        }
+        return games;
+    }
+
+    @Override
+    public long listingVersion() throws DataAccessException {
+        try (var conn = DatabaseManager.getConnection();
+             var preparedStatement = conn.prepareStatement("SELECT version FROM game_listing WHERE id=1");
+             var rs = preparedStatement.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to read game listing version", ex);
+        }
+    }
+
+    /**
+     * @return every move played in the game, in order, or an empty list if there is no
+     * such game
+     */
+    public List<ChessMove> moveHistory(int gameID) throws DataAccessException {
+        var moves = new ArrayList<ChessMove>();
+        try (var conn = DatabaseManager.getConnection();
+             var preparedStatement = conn.prepareStatement("SELECT move FROM move_log WHERE gameID=? ORDER BY ply")) {
+            preparedStatement.setInt(1, gameID);
+            try (var rs = preparedStatement.executeQuery()) {
+                while (rs.next()) {
+                    moves.add(PackedMove.unpack(rs.getInt("move")));
+                }
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to read move history", ex);
+        }
+        return moves;
+    }
+
+    /**
+     * Writes the whole game. A changed board is stored as a new snapshot.
+     */
+    @Override
+    public GameData updateGame(int gameID, UnaryOperator<GameData> update) throws DataAccessException {
+        return write(gameID, null, update);
+    }
+
+    /**
+     * Appends the move to the log and only rewrites the board when a snapshot is due
+     */
+    @Override
+    public GameData applyMove(int gameID, ChessMove move, UnaryOperator<GameData> update)
+            throws DataAccessException {
+        return write(gameID, move, update);
+    }
+
+    @Override
+    public Stored readStored(int gameID) throws DataAccessException {
+        try (var conn = DatabaseManager.getConnection()) {
+            return read(conn, gameID);
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to read game", ex);
+        }
+    }
+
+    /**
+     * Writes the changes in one transaction, using one JDBC batch for the logged moves
+     * and one per kind of game row update
+     */
+    @Override
+    public void writeBatch(List<GameWrite> writes) throws DataAccessException {
+        var movesStatement = "INSERT INTO move_log (gameID, ply, move) VALUES (?, ?, ?)";
+        var gameStatement = "UPDATE game SET whiteUsername=?, blackUsername=?, gameName=?, gameOver=?, ply=?,"
+                + " version=version+1 WHERE gameID=?";
+        var snapshotStatement = "UPDATE game SET whiteUsername=?, blackUsername=?, gameName=?, gameOver=?, ply=?,"
+                + " version=version+1, game=?, snapshotPly=? WHERE gameID=?";
+        try (var conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (var insertMoves = conn.prepareStatement(movesStatement);
+                 var updateGames = conn.prepareStatement(gameStatement);
+                 var updateSnapshots = conn.prepareStatement(snapshotStatement)) {
+                boolean listingChanged = false;
+                for (GameWrite write : writes) {
+                    GameData game = write.game();
+                    listingChanged |= write.listingChanged();
+                    int firstPly = write.ply() - write.moves().size() + 1;
+                    for (int i = 0; i < write.moves().size(); i++) {
+                        insertMoves.setInt(1, game.gameID());
+                        insertMoves.setInt(2, firstPly + i);
+                        insertMoves.setShort(3, (short) PackedMove.pack(write.moves().get(i)));
+                        insertMoves.addBatch();
+                    }
+                    boolean snapshot = write.boardReplaced() || game.game().isGameOver()
+                            || write.ply() / snapshotInterval > (firstPly - 1) / snapshotInterval;
+                    var update = snapshot ? updateSnapshots : updateGames;
+                    update.setString(1, game.whiteUsername());
+                    update.setString(2, game.blackUsername());
+                    update.setString(3, game.gameName());
+                    update.setBoolean(4, game.game().isGameOver());
+                    update.setInt(5, write.ply());
+                    if (snapshot) {
+                        update.setString(6, GSON.toJson(game.game()));
+                        update.setInt(7, write.ply());
+                        update.setInt(8, game.gameID());
+                    } else {
+                        update.setInt(6, game.gameID());
+                    }
+                    update.addBatch();
+                }
+                insertMoves.executeBatch();
+                updateGames.executeBatch();
+                updateSnapshots.executeBatch();
+                if (listingChanged) {
+                    bumpListingVersion(conn);
+                }
+                conn.commit();
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to write game batch", ex);
+        }
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        try (var conn = DatabaseManager.getConnection()) {
+            for (String statement : new String[]{"DELETE FROM move_log", "DELETE FROM game", BUMP_LISTING_VERSION}) {
+                try (var preparedStatement = conn.prepareStatement(statement)) {
+                    preparedStatement.executeUpdate();
+                }
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to clear games", ex);
+        }
+    }
+
+    private GameData write(int gameID, ChessMove move, UnaryOperator<GameData> update) throws DataAccessException {
+        ReentrantLock lock = locks.lockFor(gameID);
+        lock.lock();
+        try (var conn = DatabaseManager.getConnection()) {
+            for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+                Stored current = read(conn, gameID);
+                if (current == null) {
+                    return null;
+                }
+                GameData updated = update.apply(current.game());
+                if (updated == current.game()) {
+                    return updated;
+                }
+                if (updated.gameID() != gameID) {
+                    throw new IllegalArgumentException("update changed the game ID");
+                }
+                if (compareAndSet(conn, current, updated, move)) {
+                    return updated;
+                }
+            }
+            throw new DataAccessException("game " + gameID + " is being updated too often, try again");
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to update game", ex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean compareAndSet(Connection conn, Stored current, GameData updated, ChessMove move)
+            throws SQLException {
+        int ply = move == null ? current.ply() : current.ply() + 1;
+        boolean boardChanged = updated.game() != current.game().game();
+        boolean snapshot = boardChanged && (move == null || ply % snapshotInterval == 0 || updated.game().isGameOver());
+
+        var statement = "UPDATE game SET whiteUsername=?, blackUsername=?, gameName=?, gameOver=?, ply=?,"
+                + " version=version+1" + (snapshot ? ", game=?, snapshotPly=?" : "") + " WHERE gameID=? AND version=?";
+        conn.setAutoCommit(false);
+        try {
+            try (var preparedStatement = conn.prepareStatement(statement)) {
+                int i = 1;
+                preparedStatement.setString(i++, updated.whiteUsername());
+                preparedStatement.setString(i++, updated.blackUsername());
+                preparedStatement.setString(i++, updated.gameName());
+                preparedStatement.setBoolean(i++, updated.game().isGameOver());
+                preparedStatement.setInt(i++, ply);
+                if (snapshot) {
+                    preparedStatement.setString(i++, GSON.toJson(updated.game()));
+                    preparedStatement.setInt(i++, ply);
+                }
+                preparedStatement.setInt(i++, updated.gameID());
+                preparedStatement.setLong(i, current.version());
+                if (preparedStatement.executeUpdate() != 1) {
+                    conn.rollback();
+                    return false;
+                }
+            }
+            if (move != null) {
+                try (var preparedStatement = conn.prepareStatement(
+                        "INSERT INTO move_log (gameID, ply, move) VALUES (?, ?, ?)")) {
+                    preparedStatement.setInt(1, updated.gameID());
+                    preparedStatement.setInt(2, ply);
+                    preparedStatement.setShort(3, (short) PackedMove.pack(move));
+                    preparedStatement.executeUpdate();
+                }
+            }
+            if (GameDAO.changesListing(current.game(), updated)) {
+                bumpListingVersion(conn);
+            }
+            conn.commit();
+            return true;
+        } catch (SQLException ex) {
+            conn.rollback();
+            throw ex;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private Stored read(Connection conn, int gameID) throws SQLException, DataAccessException {
+        Stored stored;
+        try (var preparedStatement = conn.prepareStatement(SELECT_GAME + " WHERE gameID=?")) {
+            preparedStatement.setInt(1, gameID);
+            try (var rs = preparedStatement.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                stored = readRow(rs);
+            }
+        }
+        if (stored.snapshotPly() < stored.ply()) {
+            // bounded by the row's ply, so moves logged since the row was read are not replayed
+            var statement = "SELECT move FROM move_log WHERE gameID=? AND ply>? AND ply<=? ORDER BY ply";
+            try (var preparedStatement = conn.prepareStatement(statement)) {
+                preparedStatement.setInt(1, gameID);
+                preparedStatement.setInt(2, stored.snapshotPly());
+                preparedStatement.setInt(3, stored.ply());
+                try (var rs = preparedStatement.executeQuery()) {
+                    while (rs.next()) {
+                        play(stored.game().game(), rs.getInt("move"), gameID);
+                    }
+                }
+            }
+        }
+        return stored;
+    }
+
+    private Stored readRow(ResultSet rs) throws SQLException {
+        // copy() relinks the en passant pieces to the board, which JSON loses
+        ChessGame chess = GSON.fromJson(rs.getString("game"), ChessGame.class).copy();
+        var game = new GameData(rs.getInt("gameID"), rs.getString("whiteUsername"), rs.getString("blackUsername"),
+                rs.getString("gameName"), chess);
+        return new Stored(game, rs.getInt("snapshotPly"), rs.getInt("ply"), rs.getLong("version"));
+    }
+
+    private static void bumpListingVersion(Connection conn) throws SQLException {
+        try (var preparedStatement = conn.prepareStatement(BUMP_LISTING_VERSION)) {
+            preparedStatement.executeUpdate();
+        }
+    }
+
+    private static void play(ChessGame game, int packed, int gameID) throws DataAccessException {
+        try {
+            game.makeMove(PackedMove.unpack(packed));
+        } catch (InvalidMoveException | IllegalArgumentException ex) {
+            throw new DataAccessException("move log for game " + gameID + " does not replay", ex);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package dataaccess;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Creates and upgrades the database tables, and wipes them.
+ * <p>
+ * The schema is a list of numbered migrations. {@link #bootstrap()} applies the ones
+ * newer than the highest version recorded in the schema_version table, once per
+ * process; after that it returns immediately, so every DAO can call it from its
+ * constructor. A MySQL named lock keeps two servers starting together from applying the
+ * same migration twice.
+ */
+public final class Schema {
+
+    private record Migration(int version, String description, String... statements) {
+    }
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "users, auth tokens, games and move log",
+                    """
+                    CREATE TABLE IF NOT EXISTS user (
+                      username VARCHAR(256) NOT NULL,
+                      password VARCHAR(256) NOT NULL,
+                      email VARCHAR(256) NOT NULL,
+                      PRIMARY KEY (username)
+                    )
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS auth (
+                      authToken VARCHAR(256) NOT NULL,
+                      username VARCHAR(256) NOT NULL,
+                      PRIMARY KEY (authToken)
+                    )
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS game (
+                      gameID INT NOT NULL AUTO_INCREMENT,
+                      whiteUsername VARCHAR(256),
+                      blackUsername VARCHAR(256),
+                      gameName VARCHAR(256) NOT NULL,
+                      game LONGTEXT NOT NULL,
+                      snapshotPly INT NOT NULL DEFAULT 0,
+                      ply INT NOT NULL DEFAULT 0,
+                      version BIGINT NOT NULL DEFAULT 0,
+                      PRIMARY KEY (gameID)
+                    )
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS move_log (
+                      gameID INT NOT NULL,
+                      ply INT NOT NULL,
+                      move SMALLINT NOT NULL,
+                      PRIMARY KEY (gameID, ply)
+                    )
+                    """),
+            new Migration(2, "game over flag and game listing version",
+                    "ALTER TABLE game ADD COLUMN gameOver BOOLEAN NOT NULL DEFAULT FALSE",
+                    // games that ended before this migration have it in their snapshot, which
+                    // is always rewritten when a game ends
+                    """
+                    UPDATE game
+                    SET gameOver = COALESCE(JSON_EXTRACT(game, '$.gameOver') = CAST('true' AS JSON), FALSE)
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS game_listing (
+                      id INT NOT NULL,
+                      version BIGINT NOT NULL,
+                      PRIMARY KEY (id)
+                    )
+                    """,
+                    "INSERT INTO game_listing (id, version) VALUES (1, 0)")
+    );
+
+    private static final String[] TABLES = {"move_log", "game", "auth", "user"};
+    private static final String LOCK_NAME = "chess_schema_migration";
+
+    private static volatile boolean bootstrapped;
+
+    private Schema() {}
+
+    /**
+     * Creates the database and applies any migrations it is missing. Only the first
+     * call in a process does any work.
+     */
+    public static void bootstrap() throws DataAccessException {
+        if (bootstrapped) {
+            return;
+        }
+        synchronized (Schema.class) {
+            if (bootstrapped) {
+                return;
+            }
+            DatabaseManager.createDatabase();
+            try (var conn = DatabaseManager.getConnection()) {
+                lock(conn);
+                try {
+                    migrate(conn);
+                } finally {
+                    unlock(conn);
+                }
+            } catch (SQLException ex) {
+                throw new DataAccessException("failed to set up database schema", ex);
+            }
+            bootstrapped = true;
+        }
+    }
+
+    /**
+     * @return the schema version this code expects
+     */
+    public static int latestVersion() {
+        return MIGRATIONS.getLast().version();
+    }
+
+    /**
+     * Empties every table in one round trip.
+     * <p>
+     * TRUNCATE is much faster than DELETE and resets the game IDs. MySQL runs it as DDL,
+     * which commits on its own and cannot be rolled back, so the four statements go as
+     * one JDBC batch on one connection instead of one transaction. The game listing
+     * version is kept and moved on, since it must never repeat.
+     */
+    public static void clearAll() throws DataAccessException {
+        bootstrap();
+        try (var conn = DatabaseManager.getConnection();
+             var statement = conn.createStatement()) {
+            for (String table : TABLES) {
+                statement.addBatch("TRUNCATE TABLE " + table);
+            }
+            statement.addBatch(MySqlGameDAO.BUMP_LISTING_VERSION);
+            statement.executeBatch();
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to clear database", ex);
+        }
+    }
+
+    private static void migrate(Connection conn) throws SQLException {
+        try (var statement = conn.prepareStatement("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                  version INT NOT NULL,
+                  description VARCHAR(256) NOT NULL,
+                  appliedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                  PRIMARY KEY (version)
+                )
+                """)) {
+            statement.executeUpdate();
+        }
+        int current;
+        try (var statement = conn.prepareStatement("SELECT COALESCE(MAX(version), 0) FROM schema_version");
+             var rs = statement.executeQuery()) {
+            rs.next();
+            current = rs.getInt(1);
+        }
+        for (Migration migration : MIGRATIONS) {
+            if (migration.version() <= current) {
+                continue;
+            }
+            for (String sql : migration.statements()) {
+                try (var statement = conn.prepareStatement(sql)) {
+                    statement.executeUpdate();
+                }
+            }
+            try (var statement = conn.prepareStatement(
+                    "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+                statement.setInt(1, migration.version());
+                statement.setString(2, migration.description());
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    private static void lock(Connection conn) throws SQLException {
+        try (var statement = conn.prepareStatement("SELECT GET_LOCK(?, 30)")) {
+            statement.setString(1, LOCK_NAME);
+            try (var rs = statement.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("timed out waiting for another server to finish migrating");
+                }
+            }
+        }
+    }
+
+    private static void unlock(Connection conn) throws SQLException {
+        try (var statement = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            statement.setString(1, LOCK_NAME);
+            statement.executeQuery().close();
+        }
+    }
+}
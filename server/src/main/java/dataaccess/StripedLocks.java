@@ -0,0 +1,38 @@
+package dataaccess;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks shared out by key, so work on the same key is serialized while
+ * work on different keys almost always runs in parallel, without keeping a lock per key
+ */
+public class StripedLocks {
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    /**
+     * @param stripes the minimum number of locks; rounded up to a power of two
+     */
+    public StripedLocks(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+    }
+
+    public ReentrantLock lockFor(int key) {
+        // spread sequential IDs across stripes (murmur3 finalizer)
+        int h = key;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return locks[h & mask];
+    }
+
+    public int stripes() {
+        return locks.length;
+    }
+}
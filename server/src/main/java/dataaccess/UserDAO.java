@@ -0,0 +1,18 @@
+package dataaccess;
+
+import model.UserData;
+
+public interface UserDAO {
+
+    /**
+     * @throws DataAccessException if the username is already taken or the write fails
+     */
+    void createUser(UserData user) throws DataAccessException;
+
+    /**
+     * @return the user with that username, or null if there is none
+     */
+    UserData getUser(String username) throws DataAccessException;
+
+    void clear() throws DataAccessException;
+}
@@ -0,0 +1,452 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import model.GameData;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Keeps games being played in memory and writes their changes to the database in
+ * batches, a few milliseconds behind.
+ * <p>
+ * A move is acknowledged as soon as the in-memory game has it. A background thread
+ * collects the games changed since its last pass and hands them to the store in one
+ * batch. In {@link Durability#ASYNC} mode only joins and moves that end the game wait
+ * for their batch to be written; in {@link Durability#SYNC} mode every update does. An
+ * update that waits and whose batch fails is taken back out of the cache before the
+ * error is thrown, so a change reported as failed is never written later. A game counts
+ * as ended once the update marks it {@link ChessGame#isGameOver() over}.
+ * {@link #close()} writes whatever is still pending, and should run when the server
+ * stops.
+ * <p>
+ * This server must be the only one writing these games, since the batches are written
+ * without checking versions.
+ */
+public class WriteBehindGameDAO implements GameDAO, AutoCloseable {
+
+    /**
+     * When an update waits for its change to reach the database
+     */
+    public enum Durability {
+        /**
+         * Moves return before they are written, except one that ends the game
+         */
+        ASYNC,
+        /**
+         * Every update returns after it is written
+         */
+        SYNC;
+
+        /**
+         * Reads the durability from the {@code chess.game.durability} system property
+         * ("async" or "sync"), defaulting to ASYNC
+         */
+        public static Durability fromSystemProperty() {
+            return valueOf(System.getProperty("chess.game.durability", "async").trim().toUpperCase());
+        }
+    }
+
+    /**
+     * A cached game and what has changed in it since it was last written
+     */
+    private static class Entry {
+        final ReentrantLock lock = new ReentrantLock();
+        GameData game;
+        int ply;
+        List<ChessMove> pendingMoves = new ArrayList<>();
+        boolean boardReplaced;
+        boolean listingChanged;
+        boolean queued;
+        boolean evicted;
+        long lastUsedAt;
+
+        Entry(GameData game, int ply) {
+            this.game = game;
+            this.ply = ply;
+        }
+    }
+
+    private static final long IDLE_EVICT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private final BatchGameStore store;
+    private final Durability durability;
+    private final ConcurrentHashMap<Integer, Entry> cache = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry> dirty = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ScheduledExecutorService flusher;
+    private long lastSweepAt = System.currentTimeMillis();
+    private volatile DataAccessException lastFailure;
+    private volatile boolean closed;
+
+    /**
+     * @param flushIntervalMillis how long changes may wait before being written
+     */
+    public WriteBehindGameDAO(MySqlGameDAO store, long flushIntervalMillis, Durability durability) {
+        this((BatchGameStore) store, flushIntervalMillis, durability);
+    }
+
+    WriteBehindGameDAO(BatchGameStore store, long flushIntervalMillis, Durability durability) {
+        this.store = store;
+        this.durability = durability;
+        flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "game-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::backgroundFlush, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int createGame(String gameName) throws DataAccessException {
+        return store.createGame(gameName);
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        Entry entry = load(gameID);
+        if (entry == null) {
+            return null;
+        }
+        entry.lock.lock();
+        try {
+            return entry.game;
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    /**
+     * Lists the stored games, with cached games in their latest state
+     */
+    @Override
+    public Collection<GameData> listGames() throws DataAccessException {
+        Map<Integer, GameData> games = new LinkedHashMap<>();
+        for (GameData game : store.listGames()) {
+            Entry entry = cache.get(game.gameID());
+            games.put(game.gameID(), entry == null ? game : entry.game);
+        }
+        return games.values();
+    }
+
+    /**
+     * Lists straight from the store. Only moves are written behind, and a change that
+     * shows in listings (a join, or a move or resignation that ends the game) is
+     * written before its update returns, so the store is already up to date.
+     */
+    @Override
+    public List<GameData> listGames(ListQuery query) throws DataAccessException {
+        return store.listGames(query);
+    }
+
+    @Override
+    public long listingVersion() throws DataAccessException {
+        return store.listingVersion();
+    }
+
+    @Override
+    public GameData updateGame(int gameID, UnaryOperator<GameData> update) throws DataAccessException {
+        return write(gameID, null, update);
+    }
+
+    @Override
+    public GameData applyMove(int gameID, ChessMove move, UnaryOperator<GameData> update)
+            throws DataAccessException {
+        return write(gameID, move, update);
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        flushLock.lock();
+        try {
+            clearCached();
+            store.clear();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Drops every cached game and pending change without writing them, for when the
+     * tables are about to be emptied some other way
+     */
+    public void clearCached() {
+        flushLock.lock();
+        try {
+            // evicted first, so an update already holding an entry cannot queue it again
+            // once the queue has been emptied
+            for (Entry entry : cache.values()) {
+                entry.lock.lock();
+                entry.evicted = true;
+                entry.lock.unlock();
+            }
+            cache.clear();
+            dirty.clear();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes every pending change now
+     *
+     * @throws DataAccessException if the batch could not be written; its changes stay
+     *                             pending and are retried on the next flush
+     */
+    public void flush() throws DataAccessException {
+        flushLock.lock();
+        try {
+            List<Entry> entries = new ArrayList<>();
+            List<BatchGameStore.GameWrite> writes = new ArrayList<>();
+            Entry entry;
+            while ((entry = dirty.poll()) != null) {
+                entry.lock.lock();
+                try {
+                    entry.queued = false;
+                    if (entry.evicted) {
+                        // dropped by clearCached, changes and all
+                        continue;
+                    }
+                    writes.add(new BatchGameStore.GameWrite(entry.game, entry.ply, entry.pendingMoves,
+                            entry.boardReplaced, entry.listingChanged));
+                    entry.pendingMoves = new ArrayList<>();
+                    entry.boardReplaced = false;
+                    entry.listingChanged = false;
+                } finally {
+                    entry.lock.unlock();
+                }
+                entries.add(entry);
+            }
+            if (writes.isEmpty()) {
+                return;
+            }
+            try {
+                store.writeBatch(writes);
+                lastFailure = null;
+            } catch (DataAccessException ex) {
+                requeue(entries, writes);
+                lastFailure = ex;
+                throw ex;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * @return the error from the last failed background flush, or null if the last
+     * flush succeeded
+     */
+    public DataAccessException lastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * @return how many games have changes waiting to be written
+     */
+    public int pending() {
+        return dirty.size();
+    }
+
+    /**
+     * Stops the background thread and writes anything still pending
+     */
+    @Override
+    public void close() throws DataAccessException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private GameData write(int gameID, ChessMove move, UnaryOperator<GameData> update) throws DataAccessException {
+        if (closed) {
+            throw new DataAccessException("game storage is shut down");
+        }
+        while (true) {
+            Entry entry = lockEntry(gameID);
+            if (entry == null) {
+                return null;
+            }
+            GameData current;
+            GameData updated;
+            try {
+                current = entry.game;
+                updated = update.apply(current);
+                if (updated == current) {
+                    return updated;
+                }
+                if (updated.gameID() != gameID) {
+                    throw new IllegalArgumentException("update changed the game ID");
+                }
+                if (!mustWait(move, current, updated)) {
+                    record(entry, current, updated, move);
+                    return updated;
+                }
+            } finally {
+                entry.lock.unlock();
+            }
+            // take the flush lock before the entry's, as flush() does, and keep the entry
+            // locked until the write is done so nothing builds on a change that may fail
+            flushLock.lock();
+            try {
+                entry.lock.lock();
+                try {
+                    if (entry.evicted || entry.game != current) {
+                        // changed while it was unlocked, so start again from the new state
+                        continue;
+                    }
+                    record(entry, current, updated, move);
+                    try {
+                        flush();
+                    } catch (DataAccessException ex) {
+                        // the rest of the failed batch stays queued, but not this change;
+                        // its flags may stay set, since rewriting the same state is harmless
+                        entry.game = current;
+                        if (move != null) {
+                            entry.ply--;
+                            entry.pendingMoves.removeLast();
+                        }
+                        throw ex;
+                    }
+                    return updated;
+                } finally {
+                    entry.lock.unlock();
+                }
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    private boolean mustWait(ChessMove move, GameData current, GameData updated) {
+        return durability == Durability.SYNC || move == null || GameDAO.changesListing(current, updated)
+                || updated.game().isGameOver();
+    }
+
+    /**
+     * Puts the change in the cache and queues the entry to be written; the entry must be
+     * locked
+     */
+    private void record(Entry entry, GameData current, GameData updated, ChessMove move) {
+        entry.game = updated;
+        entry.lastUsedAt = System.currentTimeMillis();
+        if (move != null) {
+            entry.ply++;
+            entry.pendingMoves.add(move);
+        } else if (updated.game() != current.game()) {
+            entry.boardReplaced = true;
+        }
+        entry.listingChanged |= GameDAO.changesListing(current, updated);
+        if (!entry.queued) {
+            entry.queued = true;
+            dirty.add(entry);
+        }
+    }
+
+    /**
+     * @return the game's entry, locked and still in the cache, or null if there is no
+     * such game
+     */
+    private Entry lockEntry(int gameID) throws DataAccessException {
+        while (true) {
+            Entry entry = load(gameID);
+            if (entry == null) {
+                return null;
+            }
+            entry.lock.lock();
+            if (!entry.evicted) {
+                return entry;
+            }
+            // dropped from the cache since we looked it up, so load it again
+            entry.lock.unlock();
+        }
+    }
+
+    private Entry load(int gameID) throws DataAccessException {
+        Entry entry = cache.get(gameID);
+        if (entry != null) {
+            return entry;
+        }
+        BatchGameStore.Stored stored = store.readStored(gameID);
+        if (stored == null) {
+            return null;
+        }
+        var loaded = new Entry(stored.game(), stored.ply());
+        loaded.lastUsedAt = System.currentTimeMillis();
+        entry = cache.putIfAbsent(gameID, loaded);
+        return entry == null ? loaded : entry;
+    }
+
+    private void requeue(List<Entry> entries, List<BatchGameStore.GameWrite> writes) {
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            BatchGameStore.GameWrite failed = writes.get(i);
+            entry.lock.lock();
+            try {
+                if (entry.evicted) {
+                    continue;
+                }
+                // the failed moves come before any played since the batch was taken
+                List<ChessMove> moves = new ArrayList<>(failed.moves());
+                moves.addAll(entry.pendingMoves);
+                entry.pendingMoves = moves;
+                entry.boardReplaced |= failed.boardReplaced();
+                entry.listingChanged |= failed.listingChanged();
+                if (!entry.queued) {
+                    entry.queued = true;
+                    dirty.add(entry);
+                }
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+    }
+
+    private void backgroundFlush() {
+        try {
+            flush();
+        } catch (DataAccessException ex) {
+            // kept in lastFailure; the changes stay queued for the next pass
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastSweepAt >= IDLE_EVICT_MILLIS) {
+            lastSweepAt = now;
+            evictIdle(now);
+        }
+    }
+
+    private void evictIdle(long now) {
+        for (Map.Entry<Integer, Entry> cached : cache.entrySet()) {
+            Entry entry = cached.getValue();
+            entry.lock.lock();
+            try {
+                if (!entry.queued && now - entry.lastUsedAt >= IDLE_EVICT_MILLIS) {
+                    entry.evicted = true;
+                    cache.remove(cached.getKey(), entry);
+                }
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+    }
+}
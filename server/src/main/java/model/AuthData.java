@@ -0,0 +1,4 @@
+package model;
+
+public record AuthData(String authToken, String username) {
+}
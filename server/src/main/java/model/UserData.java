@@ -0,0 +1,4 @@
+package model;
+
+public record UserData(String username, String password, String email) {
+}
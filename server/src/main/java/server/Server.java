@@ -0,0 +1,417 @@
+package server;
+
+import chess.ChessGame;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import dataaccess.AuthDAO;
+import dataaccess.ConnectionPool;
+import dataaccess.DataAccessException;
+import dataaccess.DatabaseManager;
+import dataaccess.GameDAO;
+import dataaccess.MemoryAuthDAO;
+import dataaccess.MemoryGameDAO;
+import dataaccess.MemoryUserDAO;
+import dataaccess.MySqlAuthDAO;
+import dataaccess.MySqlGameDAO;
+import dataaccess.MySqlUserDAO;
+import dataaccess.Schema;
+import dataaccess.UserDAO;
+import dataaccess.WriteBehindGameDAO;
+import io.javalin.*;
+import io.javalin.http.Context;
+import model.AuthData;
+import model.UserData;
+import server.websocket.GameActors;
+import server.websocket.Heartbeats;
+import server.websocket.OutboundQueues;
+import server.websocket.WebSocketHandler;
+import service.AuthCache;
+import service.AuthService;
+import service.GameService;
+import service.PasswordHasher;
+import service.ResponseException;
+import service.SignedTokens;
+import service.UserService;
+
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+
+public class Server {
+
+    /**
+     * Which kind of threads run HTTP handlers and websocket message handlers
+     */
+    public enum ExecutionMode {
+        /**
+         * Jetty's default bounded pool of platform threads
+         */
+        PLATFORM,
+        /**
+         * A new virtual thread per task, so handlers blocked on JDBC or bcrypt do not
+         * hold an OS thread
+         */
+        VIRTUAL;
+
+        /**
+         * Reads the mode from the {@code chess.server.threads} system property
+         * ("platform" or "virtual"), defaulting to PLATFORM
+         */
+        public static ExecutionMode fromSystemProperty() {
+            return valueOf(System.getProperty("chess.server.threads", "platform").trim().toUpperCase());
+        }
+    }
+
+    /**
+     * Where users, auth tokens and games are kept
+     */
+    public enum Storage {
+        /**
+         * The MySQL database configured in db.properties
+         */
+        MYSQL,
+        /**
+         * Concurrent in-memory maps, lost when the server stops; for load tests and
+         * casual-game nodes
+         */
+        MEMORY;
+
+        /**
+         * Reads the storage from the {@code chess.server.storage} system property
+         * ("mysql" or "memory"), defaulting to MYSQL
+         */
+        public static Storage fromSystemProperty() {
+            return valueOf(System.getProperty("chess.server.storage", "mysql").trim().toUpperCase());
+        }
+    }
+
+    private record LoginRequest(String username, String password) {
+    }
+
+    private record CreateGameRequest(String gameName) {
+    }
+
+    private record CreateGameResult(int gameID) {
+    }
+
+    private record JoinGameRequest(ChessGame.TeamColor playerColor, Integer gameID) {
+    }
+
+    private record GameSummary(int gameID, String whiteUsername, String blackUsername, String gameName) {
+    }
+
+    /**
+     * @param nextCursor where the next page starts, left out on the last page
+     */
+    private record ListGamesResult(List<GameSummary> games, String nextCursor) {
+    }
+
+    private record ErrorResult(String message) {
+    }
+
+    private static final Gson GSON = new Gson();
+
+    private final Javalin javalin;
+    private final ExecutionMode executionMode;
+    private final Storage storage;
+    private final AuthService authService;
+    private final UserService userService;
+    private final GameService gameService;
+    private final PasswordHasher hasher;
+    private final GameActors gameActors;
+    private final WebSocketHandler webSocketHandler;
+    private final WriteBehindGameDAO writeBehind;
+    private final Thread flushOnShutdown;
+
+    public Server() {
+        this(ExecutionMode.fromSystemProperty());
+    }
+
+    public Server(ExecutionMode executionMode) {
+        this(executionMode, Storage.fromSystemProperty());
+    }
+
+    public Server(ExecutionMode executionMode, Storage storage) {
+        this.executionMode = executionMode;
+        this.storage = storage;
+        javalin = Javalin.create(config -> {
+            config.staticFiles.add("web");
+            config.useVirtualThreads = executionMode == ExecutionMode.VIRTUAL;
+        });
+
+        UserDAO userDAO;
+        AuthDAO authDAO;
+        GameDAO gameDAO;
+        long flushMillis = Long.getLong("chess.game.flushMillis", 0);
+        try {
+            if (storage == Storage.MEMORY) {
+                userDAO = new MemoryUserDAO();
+                authDAO = new MemoryAuthDAO();
+                gameDAO = new MemoryGameDAO();
+            } else {
+                userDAO = new MySqlUserDAO();
+                authDAO = new MySqlAuthDAO();
+                gameDAO = new MySqlGameDAO();
+            }
+        } catch (DataAccessException ex) {
+            throw new IllegalStateException("unable to set up " + storage + " storage", ex);
+        }
+        if (gameDAO instanceof MySqlGameDAO mySqlGameDAO && flushMillis > 0) {
+            writeBehind = new WriteBehindGameDAO(mySqlGameDAO, flushMillis,
+                    WriteBehindGameDAO.Durability.fromSystemProperty());
+            gameDAO = writeBehind;
+            flushOnShutdown = new Thread(this::flushGames, "flush-games-on-shutdown");
+            Runtime.getRuntime().addShutdownHook(flushOnShutdown);
+        } else {
+            writeBehind = null;
+            flushOnShutdown = null;
+        }
+
+        authService = AuthService.TokenMode.fromSystemProperty() == AuthService.TokenMode.SIGNED
+                ? new AuthService(SignedTokens.fromSystemProperties())
+                : new AuthService(authDAO, new AuthCache(100_000, 60_000));
+        hasher = PasswordHasher.fromSystemProperties();
+        userService = new UserService(userDAO, authService, hasher);
+        gameService = new GameService(gameDAO, authService);
+        // websocket commands run on per-game actors, on the same kind of threads as requests
+        gameActors = executionMode == ExecutionMode.VIRTUAL ? GameActors.onVirtualThreads()
+                : GameActors.onSharedPool();
+        webSocketHandler = new WebSocketHandler(authService, gameService, gameActors,
+                new OutboundQueues(OutboundQueues.Settings.fromSystemProperties(),
+                        Executors.newVirtualThreadPerTaskExecutor()),
+                new Heartbeats(Heartbeats.Settings.fromSystemProperties()));
+
+        javalin.ws("/ws", webSocketHandler::configure)
+                .post("/user", this::register)
+                .post("/session", this::login)
+                .delete("/session", this::logout)
+                .get("/game", this::listGames)
+                .post("/game", this::createGame)
+                .put("/game", this::joinGame)
+                .delete("/db", this::clear)
+                .exception(ResponseException.class, (ex, ctx) -> writeError(ctx, ex))
+                .exception(JsonParseException.class,
+                        (ex, ctx) -> writeError(ctx, new ResponseException(400, "Error: bad request")))
+                .exception(Exception.class, (ex, ctx) -> writeError(ctx, ResponseException.serverError(ex)));
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public Storage getStorage() {
+        return storage;
+    }
+
+    /**
+     * @return the per-session outbound queue counters, for monitoring slow websocket
+     * clients
+     */
+    public OutboundQueues.Stats getWebSocketStats() {
+        return webSocketHandler.outbound().stats();
+    }
+
+    /**
+     * @return the heartbeat counters, for monitoring how many websocket sessions are
+     * being reaped
+     */
+    public Heartbeats.Stats getHeartbeatStats() {
+        return webSocketHandler.heartbeats().stats();
+    }
+
+    /**
+     * @return the database connection pool's size and usage counters, or null if the
+     * server keeps its data in memory
+     */
+    public ConnectionPool.Stats getDatabasePoolStats() {
+        return storage == Storage.MYSQL ? DatabaseManager.poolStats() : null;
+    }
+
+    public int run(int desiredPort) {
+        javalin.start(desiredPort);
+        return javalin.port();
+    }
+
+    public void stop() {
+        javalin.stop();
+        webSocketHandler.heartbeats().shutdown();
+        gameActors.shutdown();
+        webSocketHandler.outbound().shutdown();
+        hasher.shutdown();
+        if (flushOnShutdown != null) {
+            Runtime.getRuntime().removeShutdownHook(flushOnShutdown);
+            flushGames();
+        }
+        if (storage == Storage.MYSQL) {
+            DatabaseManager.closePool();
+        }
+    }
+
+    Javalin javalin() {
+        return javalin;
+    }
+
+    private void flushGames() {
+        try {
+            writeBehind.close();
+        } catch (DataAccessException ex) {
+            System.err.println("Unable to write pending game changes: " + ex.getMessage());
+        }
+    }
+
+    private void register(Context ctx) throws ResponseException {
+        respondLater(ctx, userService.register(readBody(ctx, UserData.class)));
+    }
+
+    private void login(Context ctx) throws ResponseException {
+        var request = readBody(ctx, LoginRequest.class);
+        respondLater(ctx, userService.login(request.username(), request.password()));
+    }
+
+    private void logout(Context ctx) throws ResponseException {
+        authService.logout(ctx.header("authorization"));
+        writeJson(ctx, new Object());
+    }
+
+    /**
+     * Lists games, optionally a page at a time ({@code limit} and {@code cursor}) and
+     * narrowed by {@code filter} (a comma-separated mix of open, mine and inProgress).
+     * The ETag is the listing version, so a lobby that polls with If-None-Match gets
+     * an empty 304 until a game is created, joined, left or finished.
+     */
+    private void listGames(Context ctx) throws ResponseException {
+        Integer limit;
+        try {
+            String limitParam = ctx.queryParam("limit");
+            limit = limitParam == null ? null : Integer.valueOf(limitParam);
+        } catch (NumberFormatException ex) {
+            throw new ResponseException(400, "Error: bad request");
+        }
+        var filters = EnumSet.noneOf(GameService.ListFilter.class);
+        for (String param : ctx.queryParams("filter")) {
+            for (String filter : param.split(",")) {
+                if (!filter.isBlank()) {
+                    filters.add(parseFilter(filter.trim()));
+                }
+            }
+        }
+        var page = gameService.listGames(ctx.header("authorization"), ctx.queryParam("cursor"), limit, filters,
+                knownVersions(ctx.header("If-None-Match")));
+        ctx.header("ETag", "\"" + page.version() + "\"")
+                .header("Cache-Control", "no-cache")
+                .header("Vary", "Authorization");
+        if (!page.modified()) {
+            ctx.status(304);
+            return;
+        }
+        var games = page.games().stream()
+                .map(game -> new GameSummary(game.gameID(), game.whiteUsername(), game.blackUsername(),
+                        game.gameName()))
+                .toList();
+        writeJson(ctx, new ListGamesResult(games, page.nextCursor()));
+    }
+
+    private static GameService.ListFilter parseFilter(String filter) throws ResponseException {
+        return switch (filter.toLowerCase()) {
+            case "open" -> GameService.ListFilter.OPEN;
+            case "mine" -> GameService.ListFilter.MINE;
+            case "inprogress", "in_progress" -> GameService.ListFilter.IN_PROGRESS;
+            default -> throw new ResponseException(400, "Error: bad request");
+        };
+    }
+
+    /**
+     * @return the listing versions named by an If-None-Match header; tags this server
+     * did not make are ignored
+     */
+    private static Set<Long> knownVersions(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return Set.of();
+        }
+        var versions = new HashSet<Long>();
+        for (String tag : ifNoneMatch.split(",")) {
+            String value = tag.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                try {
+                    versions.add(Long.parseLong(value.substring(1, value.length() - 1)));
+                } catch (NumberFormatException ex) {
+                    // not one of ours
+                }
+            }
+        }
+        return versions;
+    }
+
+    private void createGame(Context ctx) throws ResponseException {
+        var request = readBody(ctx, CreateGameRequest.class);
+        writeJson(ctx, new CreateGameResult(gameService.createGame(ctx.header("authorization"), request.gameName())));
+    }
+
+    private void joinGame(Context ctx) throws ResponseException {
+        var request = readBody(ctx, JoinGameRequest.class);
+        // no game has ID 0, so a missing ID is reported like an unknown one
+        int gameID = request.gameID() == null ? 0 : request.gameID();
+        gameService.joinGame(ctx.header("authorization"), request.playerColor(), gameID);
+        writeJson(ctx, new Object());
+    }
+
+    private void clear(Context ctx) throws ResponseException {
+        if (storage == Storage.MYSQL) {
+            // one TRUNCATE batch rather than a DELETE per table, then forget what is cached
+            if (writeBehind != null) {
+                writeBehind.clearCached();
+            }
+            try {
+                Schema.clearAll();
+            } catch (DataAccessException ex) {
+                throw ResponseException.serverError(ex);
+            }
+            authService.clearCached();
+        } else {
+            userService.clear();
+            authService.clear();
+            gameService.clear();
+        }
+        writeJson(ctx, new Object());
+    }
+
+    /**
+     * Finishes the response when the future does, without holding the request thread
+     */
+    private static void respondLater(Context ctx, CompletableFuture<AuthData> future) {
+        ctx.future(() -> future.handle((auth, failure) -> {
+            if (failure == null) {
+                writeJson(ctx, auth);
+            } else {
+                Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                writeError(ctx, cause instanceof ResponseException response ? response
+                        : ResponseException.serverError(cause instanceof Exception ex ? ex : new Exception(cause)));
+            }
+            return null;
+        }));
+    }
+
+    private static <T> T readBody(Context ctx, Class<T> type) throws ResponseException {
+        T body = GSON.fromJson(ctx.body(), type);
+        if (body == null) {
+            throw new ResponseException(400, "Error: bad request");
+        }
+        return body;
+    }
+
+    private static void writeJson(Context ctx, Object body) {
+        ctx.status(200).contentType("application/json").result(GSON.toJson(body));
+    }
+
+    private static void writeError(Context ctx, ResponseException ex) {
+        ctx.status(ex.statusCode()).contentType("application/json")
+                .result(GSON.toJson(new ErrorResult(ex.getMessage())));
+    }
+}
@@ -0,0 +1,163 @@
+package server.websocket;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tracks which websocket sessions are connected to which game, and as what.
+ * <p>
+ * Every move is broadcast to the whole game, while sessions join and leave far less
+ * often, so each game's sessions are kept as an immutable array that is copied and
+ * swapped in with a compare-and-set on each change. A broadcast reads the current
+ * array and walks it without taking a lock or copying anything, and changes to one
+ * game never wait on another. A game whose last session leaves is retired and dropped
+ * from the map, so finished games cost nothing.
+ */
+public class ConnectionManager {
+
+    /**
+     * What a session is to the game it is connected to
+     */
+    public enum Role {
+        WHITE,
+        BLACK,
+        OBSERVER
+    }
+
+    /**
+     * A session connected to a game
+     *
+     * @param moveDeltas whether it asked for MOVE_MADE messages instead of a LOAD_GAME
+     *                   per move
+     * @param binary     whether it connected with a binary frame and wants binary frames
+     *                   back
+     */
+    public record Connection(String sessionId, Role role, boolean moveDeltas, boolean binary) {
+    }
+
+    private static final Connection[] NONE = new Connection[0];
+    private static final Connection[] RETIRED = new Connection[0];
+
+    private final ConcurrentHashMap<Integer, AtomicReference<Connection[]>> byGame = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> gameOf = new ConcurrentHashMap<>();
+
+    /**
+     * Connects a session to a game, replacing its earlier connection to that game and
+     * moving it out of any other game it was in
+     * <p>
+     * The session's game is recorded only once it is in the game's array, so a
+     * {@link #remove} running meanwhile cannot strand it in an array it is not recorded
+     * against.
+     */
+    public void add(int gameID, String sessionId, Role role, boolean moveDeltas, boolean binary) {
+        var connection = new Connection(sessionId, role, moveDeltas, binary);
+        while (true) {
+            AtomicReference<Connection[]> sessions = byGame.computeIfAbsent(gameID,
+                    id -> new AtomicReference<>(NONE));
+            Connection[] current = sessions.get();
+            if (current == RETIRED) {
+                // emptied and being dropped; make way for a fresh entry
+                byGame.remove(gameID, sessions);
+                continue;
+            }
+            int index = indexOf(current, sessionId);
+            Connection[] next;
+            if (index >= 0) {
+                next = current.clone();
+                next[index] = connection;
+            } else {
+                next = Arrays.copyOf(current, current.length + 1);
+                next[current.length] = connection;
+            }
+            if (sessions.compareAndSet(current, next)) {
+                break;
+            }
+        }
+        Integer previous = gameOf.put(sessionId, gameID);
+        if (previous != null && previous != gameID) {
+            removeFrom(previous, sessionId);
+        }
+    }
+
+    /**
+     * Disconnects a session from whatever game it is in
+     *
+     * @return the game it was in, or null if it was not in one
+     */
+    public Integer remove(String sessionId) {
+        Integer gameID = gameOf.remove(sessionId);
+        if (gameID != null) {
+            removeFrom(gameID, sessionId);
+        }
+        return gameID;
+    }
+
+    /**
+     * @return the sessions connected to the game when called; later joins and leaves
+     * do not change the returned list
+     */
+    public List<Connection> connections(int gameID) {
+        AtomicReference<Connection[]> sessions = byGame.get(gameID);
+        return sessions == null ? List.of() : Collections.unmodifiableList(Arrays.asList(sessions.get()));
+    }
+
+    /**
+     * @return the session's connection to the game, or null if it is not connected to it
+     */
+    public Connection connection(int gameID, String sessionId) {
+        AtomicReference<Connection[]> sessions = byGame.get(gameID);
+        if (sessions == null) {
+            return null;
+        }
+        Connection[] current = sessions.get();
+        int index = indexOf(current, sessionId);
+        return index < 0 ? null : current[index];
+    }
+
+    /**
+     * @return how many games have at least one session connected
+     */
+    public int games() {
+        return byGame.size();
+    }
+
+    private void removeFrom(int gameID, String sessionId) {
+        AtomicReference<Connection[]> sessions = byGame.get(gameID);
+        if (sessions == null) {
+            return;
+        }
+        while (true) {
+            Connection[] current = sessions.get();
+            int index = indexOf(current, sessionId);
+            if (index < 0) {
+                return;
+            }
+            Connection[] next;
+            if (current.length == 1) {
+                next = RETIRED;
+            } else {
+                next = new Connection[current.length - 1];
+                System.arraycopy(current, 0, next, 0, index);
+                System.arraycopy(current, index + 1, next, index, next.length - index);
+            }
+            if (sessions.compareAndSet(current, next)) {
+                if (next == RETIRED) {
+                    byGame.remove(gameID, sessions);
+                }
+                return;
+            }
+        }
+    }
+
+    private static int indexOf(Connection[] connections, String sessionId) {
+        for (int i = 0; i < connections.length; i++) {
+            if (connections[i].sessionId().equals(sessionId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,177 @@
+package server.websocket;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the websocket commands for each game one at a time, in the order they arrived,
+ * while different games run in parallel.
+ * <p>
+ * Every game with work waiting has a mailbox. Submitting to an idle mailbox schedules
+ * one drain task on the executor, which runs the mailbox's tasks until it is empty, so
+ * a game's state is only ever touched by one thread at a time and needs no locks of its
+ * own. A drain gives its thread back after a fixed number of tasks, so one busy game
+ * cannot hold a pooled thread forever. Mailboxes are bounded; a full one refuses new
+ * work rather than letting a flood of commands for one game queue up without limit.
+ * Empty mailboxes are dropped, so idle games cost nothing.
+ */
+public class GameActors {
+
+    /**
+     * A snapshot of the actors' counters
+     *
+     * @param active    games with a mailbox, queued or running
+     * @param completed tasks run since startup
+     * @param rejected  tasks refused because their game's mailbox was full
+     */
+    public record Stats(int active, long completed, long rejected) {
+    }
+
+    private static final int DRAIN_BATCH = 32;
+
+    private class Mailbox {
+        final int gameID;
+        final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        /**
+         * Tasks submitted and not yet finished, or -1 once the mailbox is retired
+         */
+        final AtomicInteger pending = new AtomicInteger();
+
+        Mailbox(int gameID) {
+            this.gameID = gameID;
+        }
+
+        void drain() {
+            for (int run = 0; ; run++) {
+                if (run == DRAIN_BATCH) {
+                    // let other games have the thread; the tasks left are still counted
+                    schedule(this);
+                    return;
+                }
+                Runnable task;
+                while ((task = tasks.poll()) == null) {
+                    // counted by a submitter that has not quite added it yet
+                    Thread.onSpinWait();
+                }
+                try {
+                    task.run();
+                } catch (RuntimeException ex) {
+                    System.err.println("Game " + gameID + " task failed: " + ex);
+                }
+                completed.incrementAndGet();
+                if (pending.decrementAndGet() == 0) {
+                    // retire only if nothing was submitted since; otherwise that
+                    // submitter saw zero and has already scheduled the next drain
+                    if (pending.compareAndSet(0, -1)) {
+                        mailboxes.remove(gameID, this);
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    private final Executor executor;
+    private final int mailboxCapacity;
+    private final ConcurrentHashMap<Integer, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * @param executor        runs the drain tasks; virtual threads, or a shared pool
+     * @param mailboxCapacity how many tasks one game may have waiting
+     */
+    public GameActors(Executor executor, int mailboxCapacity) {
+        if (mailboxCapacity < 1) {
+            throw new IllegalArgumentException("mailboxCapacity must be positive");
+        }
+        this.executor = executor;
+        this.mailboxCapacity = mailboxCapacity;
+    }
+
+    /**
+     * Runs games on virtual threads, reading the mailbox size from the
+     * {@code chess.ws.mailbox} system property (default 256)
+     */
+    public static GameActors onVirtualThreads() {
+        return new GameActors(Executors.newVirtualThreadPerTaskExecutor(), Integer.getInteger("chess.ws.mailbox", 256));
+    }
+
+    /**
+     * Runs games on a fixed pool of platform threads sized from the
+     * {@code chess.ws.threads} system property (default twice the processor count),
+     * reading the mailbox size from {@code chess.ws.mailbox} (default 256)
+     */
+    public static GameActors onSharedPool() {
+        int threads = Integer.getInteger("chess.ws.threads", Runtime.getRuntime().availableProcessors() * 2);
+        AtomicInteger count = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "game-actor-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        return new GameActors(pool, Integer.getInteger("chess.ws.mailbox", 256));
+    }
+
+    /**
+     * Queues a task behind the game's earlier tasks
+     *
+     * @return false if the game's mailbox is full and the task was not queued
+     */
+    public boolean submit(int gameID, Runnable task) {
+        while (true) {
+            Mailbox mailbox = mailboxes.computeIfAbsent(gameID, Mailbox::new);
+            int pending = mailbox.pending.get();
+            if (pending < 0) {
+                // retired while we looked it up; make way for a fresh one
+                mailboxes.remove(gameID, mailbox);
+                continue;
+            }
+            if (pending >= mailboxCapacity) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (mailbox.pending.compareAndSet(pending, pending + 1)) {
+                mailbox.tasks.add(task);
+                if (pending == 0) {
+                    schedule(mailbox);
+                }
+                return true;
+            }
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(mailboxes.size(), completed.get(), rejected.get());
+    }
+
+    /**
+     * Stops taking new drains and waits briefly for running ones to finish
+     */
+    public void shutdown() {
+        if (executor instanceof ExecutorService service) {
+            service.shutdown();
+            try {
+                service.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void schedule(Mailbox mailbox) {
+        try {
+            executor.execute(mailbox::drain);
+        } catch (RejectedExecutionException ex) {
+            // shutting down; what is left in the mailbox is dropped with it
+            mailboxes.remove(mailbox.gameID, mailbox);
+        }
+    }
+}
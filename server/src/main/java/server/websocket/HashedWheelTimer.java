@@ -0,0 +1,123 @@
+package server.websocket;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs many short, coarse-grained timeouts on one thread.
+ * <p>
+ * Time is cut into ticks, and the wheel has a bucket for each tick, reused every time
+ * the wheel comes round. A task goes into the bucket of the tick it is due on, with a
+ * count of how many more times the wheel must turn first, so scheduling is constant
+ * time and each tick only looks at one bucket, however many tasks are waiting. Tasks
+ * run late by up to a tick, which is fine for heartbeats and idle checks and means a
+ * hundred thousand of them cost one thread and a few objects each.
+ * <p>
+ * Tasks run on the wheel's thread and must not block. New tasks are handed over
+ * through a lock-free queue and only the wheel's thread touches the buckets.
+ */
+public class HashedWheelTimer {
+
+    private record Pending(Runnable task, long deadline) {
+    }
+
+    private static final class Entry {
+        final Runnable task;
+        long rounds;
+
+        Entry(Runnable task, long rounds) {
+            this.task = task;
+            this.rounds = rounds;
+        }
+    }
+
+    private final long tickNanos;
+    private final int mask;
+    private final ArrayDeque<Entry>[] wheel;
+    private final ConcurrentLinkedQueue<Pending> incoming = new ConcurrentLinkedQueue<>();
+    private final long start = System.nanoTime();
+    private final Thread worker;
+    private volatile boolean running = true;
+    private long tick;
+
+    /**
+     * @param wheelSize buckets in the wheel, rounded up to a power of two; a wheel that
+     *                  covers the usual delay in one turn does the least work per tick
+     */
+    @SuppressWarnings("unchecked")
+    public HashedWheelTimer(long tickDuration, TimeUnit unit, int wheelSize, String name) {
+        if (tickDuration <= 0 || wheelSize < 1) {
+            throw new IllegalArgumentException("tick duration and wheel size must be positive");
+        }
+        tickNanos = unit.toNanos(tickDuration);
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        mask = size - 1;
+        wheel = new ArrayDeque[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new ArrayDeque<>();
+        }
+        worker = Thread.ofPlatform().daemon().name(name).start(this::run);
+    }
+
+    /**
+     * Runs the task on the wheel's thread once the delay has passed; does nothing once
+     * the timer is stopped
+     */
+    public void schedule(Runnable task, long delay, TimeUnit unit) {
+        if (running) {
+            incoming.add(new Pending(task, System.nanoTime() + unit.toNanos(Math.max(0, delay))));
+        }
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = start + (tick + 1) * tickNanos;
+            long wait;
+            while (running && (wait = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            tick++;
+            transferIncoming();
+            expire(wheel[(int) (tick & mask)]);
+        }
+    }
+
+    private void transferIncoming() {
+        Pending pending;
+        while ((pending = incoming.poll()) != null) {
+            // the first tick at or after the deadline, and never one gone by
+            long due = Math.max(tick, Math.ceilDiv(pending.deadline() - start, tickNanos));
+            wheel[(int) (due & mask)].add(new Entry(pending.task(), (due - tick) / wheel.length));
+        }
+    }
+
+    private void expire(ArrayDeque<Entry> bucket) {
+        Iterator<Entry> entries = bucket.iterator();
+        while (entries.hasNext()) {
+            Entry entry = entries.next();
+            if (entry.rounds > 0) {
+                entry.rounds--;
+                continue;
+            }
+            entries.remove();
+            try {
+                entry.task.run();
+            } catch (RuntimeException ex) {
+                // one broken task must not stop the rest
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package server.websocket;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pings every websocket session on a fixed interval and reaps the ones that stop
+ * answering, so half-open connections do not sit in the registry and get every
+ * broadcast forever.
+ * <p>
+ * A heartbeat is answered when the session sends anything, or when the ping itself has
+ * been written out behind everything queued before it; a session that misses
+ * {@link Settings#maxMissed()} heartbeats in a row is reaped. All the sessions share one
+ * {@link HashedWheelTimer}, so a heartbeat costs a timer entry rather than a task or a
+ * thread, and first heartbeats are spread over half an interval so a burst of
+ * reconnects does not ping all at once.
+ * <p>
+ * A ping that was written proves only that this end is still sending, which a half-open
+ * connection also allows, so the connection itself is given an
+ * {@link Settings#idleTimeout() idle timeout} covering every heartbeat a session may
+ * miss; Jetty closes it if nothing comes back in that time.
+ */
+public class Heartbeats {
+
+    /**
+     * What the heartbeats do to a session
+     */
+    public interface Probe {
+        /**
+         * Sends a ping, running {@code answered} once it has gone out; must not block
+         */
+        void ping(Runnable answered);
+
+        /**
+         * Cuts off a session that stopped answering; must not block
+         */
+        void reap();
+    }
+
+    /**
+     * How often sessions are pinged and how patient to be with them
+     *
+     * @param intervalMillis time between heartbeats, or 0 to turn heartbeats off
+     * @param maxMissed      heartbeats in a row a session may miss before it is reaped
+     */
+    public record Settings(long intervalMillis, int maxMissed) {
+
+        /**
+         * Reads the settings from the {@code chess.ws.heartbeat.intervalMillis} (default
+         * 30000) and {@code chess.ws.heartbeat.maxMissed} (default 3) system properties
+         */
+        public static Settings fromSystemProperties() {
+            return new Settings(Long.getLong("chess.ws.heartbeat.intervalMillis", 30_000),
+                    Integer.getInteger("chess.ws.heartbeat.maxMissed", 3));
+        }
+
+        public boolean enabled() {
+            return intervalMillis > 0;
+        }
+
+        /**
+         * @return how long a connection may go without hearing from its client: as long
+         * as a session may go missing heartbeats
+         */
+        public Duration idleTimeout() {
+            return Duration.ofMillis(intervalMillis * maxMissed);
+        }
+    }
+
+    /**
+     * A snapshot of the heartbeat counters
+     *
+     * @param sessions sessions being watched
+     * @param pings    pings sent since startup
+     * @param reaped   sessions cut off for missing heartbeats
+     */
+    public record Stats(int sessions, long pings, long reaped) {
+    }
+
+    /**
+     * Close code for a session reaped for missing heartbeats
+     */
+    public static final int TIMED_OUT = 1001;
+
+    private static final int WHEEL_SIZE = 512;
+
+    private class Heartbeat implements Runnable {
+        final String sessionId;
+        final Probe probe;
+        volatile boolean answered = true;
+        volatile boolean stopped;
+        int missed;
+
+        Heartbeat(String sessionId, Probe probe) {
+            this.sessionId = sessionId;
+            this.probe = probe;
+        }
+
+        /**
+         * Runs on the timer's thread, once per interval
+         */
+        @Override
+        public void run() {
+            if (stopped) {
+                return;
+            }
+            missed = answered ? 0 : missed + 1;
+            if (missed >= settings.maxMissed()) {
+                stopped = true;
+                sessions.remove(sessionId, this);
+                reaped.incrementAndGet();
+                probe.reap();
+                return;
+            }
+            answered = false;
+            pings.incrementAndGet();
+            probe.ping(this::answer);
+            timer.schedule(this, settings.intervalMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        void answer() {
+            answered = true;
+        }
+    }
+
+    private final Settings settings;
+    private final HashedWheelTimer timer;
+    private final ConcurrentHashMap<String, Heartbeat> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong pings = new AtomicLong();
+    private final AtomicLong reaped = new AtomicLong();
+
+    public Heartbeats(Settings settings) {
+        if (settings.enabled() && settings.maxMissed() < 1) {
+            throw new IllegalArgumentException("maxMissed must be positive");
+        }
+        this.settings = settings;
+        // a wheel that turns once per interval, so each heartbeat waits exactly one turn
+        timer = settings.enabled() ? new HashedWheelTimer(Math.max(1, settings.intervalMillis() / WHEEL_SIZE),
+                TimeUnit.MILLISECONDS, WHEEL_SIZE, "websocket-heartbeats") : null;
+    }
+
+    /**
+     * Starts watching a newly connected session
+     */
+    public void register(String sessionId, Probe probe) {
+        if (timer == null) {
+            return;
+        }
+        var heartbeat = new Heartbeat(sessionId, probe);
+        Heartbeat previous = sessions.put(sessionId, heartbeat);
+        if (previous != null) {
+            previous.stopped = true;
+        }
+        long interval = settings.intervalMillis();
+        timer.schedule(heartbeat, interval - ThreadLocalRandom.current().nextLong(interval / 2 + 1),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Counts anything the session sent as an answer to its heartbeat
+     */
+    public void touch(String sessionId) {
+        Heartbeat heartbeat = sessions.get(sessionId);
+        if (heartbeat != null) {
+            heartbeat.answered = true;
+        }
+    }
+
+    /**
+     * Stops watching a session that has closed
+     */
+    public void remove(String sessionId) {
+        Heartbeat heartbeat = sessions.remove(sessionId);
+        if (heartbeat != null) {
+            heartbeat.stopped = true;
+        }
+    }
+
+    public Settings settings() {
+        return settings;
+    }
+
+    public Stats stats() {
+        return new Stats(sessions.size(), pings.get(), reaped.get());
+    }
+
+    public void shutdown() {
+        if (timer != null) {
+            timer.stop();
+        }
+    }
+}
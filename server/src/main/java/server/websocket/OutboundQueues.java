@@ -0,0 +1,365 @@
+package server.websocket;
+
+import websocket.messages.ServerMessage;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gives each websocket session its own bounded queue of outgoing frames, written by a
+ * task of its own, so a broadcast only ever appends to queues and one observer on a
+ * bad connection cannot hold up the rest of the game.
+ * <p>
+ * A session that falls behind is handled by the {@link Settings}: a new LOAD_GAME
+ * replaces any board still waiting to go out, since the client only needs the latest
+ * one; when the queue is full the oldest waiting NOTIFICATION is dropped to make room;
+ * and a session that still has no room, or has had too many frames dropped since it
+ * last caught up, is disconnected. Error and MOVE_MADE frames are never dropped, since
+ * a client cannot do without them; a delta client that is cut off reconnects and
+ * resyncs from LOAD_GAME.
+ */
+public class OutboundQueues {
+
+    /**
+     * Where a session's frames are written
+     */
+    public interface Sink {
+        /**
+         * Writes one frame, blocking until the connection takes it
+         */
+        void send(Frame frame);
+
+        /**
+         * Sends a websocket ping, blocking until the connection takes it
+         */
+        void ping();
+
+        void close(int statusCode, String reason);
+    }
+
+    /**
+     * One encoded message, either text or binary, with its type so the queue knows what
+     * it may drop
+     */
+    public record Frame(ServerMessage.ServerMessageType type, String text, byte[] binary) {
+
+        public static Frame text(ServerMessage.ServerMessageType type, String text) {
+            return new Frame(type, text, null);
+        }
+
+        public static Frame binary(ServerMessage.ServerMessageType type, byte[] binary) {
+            return new Frame(type, null, binary);
+        }
+    }
+
+    /**
+     * How each queue is bounded and what happens when it fills
+     *
+     * @param capacity          frames a session may have waiting
+     * @param coalesceBoards    whether a new LOAD_GAME replaces one still waiting
+     * @param dropNotifications whether a full queue drops its oldest NOTIFICATION
+     * @param maxDrops          frames a session may lose before it is disconnected
+     */
+    public record Settings(int capacity, boolean coalesceBoards, boolean dropNotifications, int maxDrops) {
+
+        /**
+         * Reads the settings from the {@code chess.ws.outbox.capacity} (default 64),
+         * {@code chess.ws.outbox.coalesce} (default true),
+         * {@code chess.ws.outbox.dropNotifications} (default true) and
+         * {@code chess.ws.outbox.maxDrops} (default 256) system properties
+         */
+        public static Settings fromSystemProperties() {
+            return new Settings(Integer.getInteger("chess.ws.outbox.capacity", 64),
+                    Boolean.parseBoolean(System.getProperty("chess.ws.outbox.coalesce", "true")),
+                    Boolean.parseBoolean(System.getProperty("chess.ws.outbox.dropNotifications", "true")),
+                    Integer.getInteger("chess.ws.outbox.maxDrops", 256));
+        }
+    }
+
+    /**
+     * A snapshot of the queues' counters
+     *
+     * @param sessions     sessions with a queue
+     * @param queued       frames waiting across every session
+     * @param maxQueued    frames waiting for the most backed-up session
+     * @param sent         frames written since startup
+     * @param coalesced    boards replaced by a newer one before being written
+     * @param dropped      notifications dropped from full queues
+     * @param disconnected sessions cut off for falling too far behind
+     */
+    public record Stats(int sessions, int queued, int maxQueued, long sent, long coalesced, long dropped,
+                        long disconnected) {
+    }
+
+    /**
+     * Close code for a session disconnected for not keeping up
+     */
+    public static final int TOO_SLOW = 1008;
+
+    private class Outbox {
+        final Sink sink;
+        final ReentrantLock lock = new ReentrantLock();
+        final ArrayDeque<Frame> frames = new ArrayDeque<>();
+        Runnable pingSent;
+        boolean writing;
+        boolean closed;
+        int dropsSinceIdle;
+
+        Outbox(Sink sink) {
+            this.sink = sink;
+        }
+
+        void offer(Frame frame) {
+            boolean startWriter = false;
+            boolean cutOff = false;
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                if (frame.type() == ServerMessage.ServerMessageType.LOAD_GAME && settings.coalesceBoards()
+                        && removeFirst(ServerMessage.ServerMessageType.LOAD_GAME)) {
+                    coalesced.incrementAndGet();
+                }
+                if (frames.size() >= settings.capacity() && settings.dropNotifications()
+                        && removeFirst(ServerMessage.ServerMessageType.NOTIFICATION)) {
+                    dropped.incrementAndGet();
+                    dropsSinceIdle++;
+                }
+                if (frames.size() >= settings.capacity() || dropsSinceIdle > settings.maxDrops()) {
+                    closed = true;
+                    frames.clear();
+                    cutOff = true;
+                } else {
+                    frames.add(frame);
+                    if (!writing) {
+                        writing = true;
+                        startWriter = true;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (cutOff) {
+                disconnected.incrementAndGet();
+                run(() -> sink.close(TOO_SLOW, "Error: too far behind"));
+            } else if (startWriter) {
+                run(this::write);
+            }
+        }
+
+        void ping(Runnable onSent) {
+            boolean startWriter = false;
+            lock.lock();
+            try {
+                if (closed || pingSent != null) {
+                    return;
+                }
+                pingSent = onSent;
+                if (!writing) {
+                    writing = true;
+                    startWriter = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (startWriter) {
+                run(this::write);
+            }
+        }
+
+        void write() {
+            while (true) {
+                Frame frame = null;
+                Runnable ping = null;
+                lock.lock();
+                try {
+                    if (!closed) {
+                        frame = frames.poll();
+                        if (frame == null) {
+                            // a ping goes out behind everything queued before it
+                            ping = pingSent;
+                            pingSent = null;
+                        }
+                    }
+                    if (frame == null && ping == null) {
+                        writing = false;
+                        dropsSinceIdle = 0;
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    if (frame != null) {
+                        sink.send(frame);
+                        sent.incrementAndGet();
+                    } else {
+                        sink.ping();
+                        ping.run();
+                    }
+                } catch (RuntimeException ex) {
+                    // the connection is gone; its close handler will drop this queue
+                    close();
+                }
+            }
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                closed = true;
+                frames.clear();
+                pingSent = null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int depth() {
+            lock.lock();
+            try {
+                return frames.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean removeFirst(ServerMessage.ServerMessageType type) {
+            Iterator<Frame> waiting = frames.iterator();
+            while (waiting.hasNext()) {
+                if (waiting.next().type() == type) {
+                    waiting.remove();
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final Settings settings;
+    private final Executor writers;
+    private final ConcurrentHashMap<String, Outbox> outboxes = new ConcurrentHashMap<>();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong disconnected = new AtomicLong();
+
+    /**
+     * @param writers runs each session's writer while it has frames waiting; writes
+     *                block on the network, so virtual threads suit it best
+     */
+    public OutboundQueues(Settings settings, Executor writers) {
+        if (settings.capacity() < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.settings = settings;
+        this.writers = writers;
+    }
+
+    /**
+     * Gives a newly connected session its queue
+     */
+    public void open(String sessionId, Sink sink) {
+        outboxes.put(sessionId, new Outbox(sink));
+    }
+
+    /**
+     * @return whether the session has a queue, which it does from connecting until it
+     * closes or is disconnected
+     */
+    public boolean isOpen(String sessionId) {
+        return outboxes.containsKey(sessionId);
+    }
+
+    /**
+     * Queues a frame for a session; frames for sessions that have closed are dropped
+     */
+    public void send(String sessionId, Frame frame) {
+        Outbox outbox = outboxes.get(sessionId);
+        if (outbox != null) {
+            outbox.offer(frame);
+        }
+    }
+
+    /**
+     * Queues a ping for a session, to be written once everything queued before it has
+     * been; does nothing if the session already has a ping waiting or has closed
+     *
+     * @param onSent run once the ping has been written
+     */
+    public void ping(String sessionId, Runnable onSent) {
+        Outbox outbox = outboxes.get(sessionId);
+        if (outbox != null) {
+            outbox.ping(onSent);
+        }
+    }
+
+    /**
+     * Closes a session from this end, dropping its queue along with anything still
+     * waiting in it
+     */
+    public void disconnect(String sessionId, int statusCode, String reason) {
+        Outbox outbox = outboxes.remove(sessionId);
+        if (outbox != null) {
+            outbox.close();
+            run(() -> outbox.sink.close(statusCode, reason));
+        }
+    }
+
+    /**
+     * Drops a closed session's queue along with anything still waiting in it
+     */
+    public void close(String sessionId) {
+        Outbox outbox = outboxes.remove(sessionId);
+        if (outbox != null) {
+            outbox.close();
+        }
+    }
+
+    /**
+     * @return how many frames the session has waiting
+     */
+    public int depth(String sessionId) {
+        Outbox outbox = outboxes.get(sessionId);
+        return outbox == null ? 0 : outbox.depth();
+    }
+
+    public Stats stats() {
+        int queued = 0;
+        int maxQueued = 0;
+        for (Outbox outbox : outboxes.values()) {
+            int depth = outbox.depth();
+            queued += depth;
+            maxQueued = Math.max(maxQueued, depth);
+        }
+        return new Stats(outboxes.size(), queued, maxQueued, sent.get(), coalesced.get(), dropped.get(),
+                disconnected.get());
+    }
+
+    public void shutdown() {
+        if (writers instanceof ExecutorService service) {
+            service.shutdown();
+            try {
+                service.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run(Runnable task) {
+        try {
+            writers.execute(task);
+        } catch (RejectedExecutionException ex) {
+            // shutting down; nothing more will be written
+        }
+    }
+}
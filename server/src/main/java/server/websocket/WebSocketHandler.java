@@ -0,0 +1,377 @@
+package server.websocket;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.notation.Fen;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import io.javalin.websocket.WsBinaryMessageContext;
+import io.javalin.websocket.WsCloseContext;
+import io.javalin.websocket.WsConfig;
+import io.javalin.websocket.WsConnectContext;
+import io.javalin.websocket.WsMessageContext;
+import model.AuthData;
+import model.GameData;
+import service.AuthService;
+import service.GameService;
+import service.ResponseException;
+import websocket.BinaryCodec;
+import websocket.commands.ConnectCommand;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ErrorMessage;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveMadeMessage;
+import websocket.messages.NotificationMessage;
+import websocket.messages.ServerMessage;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Plays games over websockets.
+ * <p>
+ * Each command is parsed on the thread that received it and then handed to the game's
+ * actor in {@link GameActors}, so the commands for one game are applied and broadcast
+ * strictly in arrival order, and every client sees the same sequence of boards, while
+ * commands for other games go ahead in parallel.
+ * <p>
+ * Clients that connect with {@code moveDeltas} get a MOVE_MADE message for each move and
+ * keep their own copy of the game up to date; everyone else gets the whole board in a
+ * LOAD_GAME. Connecting always sends LOAD_GAME, so a client that falls out of step
+ * connects again to resync.
+ * <p>
+ * Nothing here writes to a socket directly: every frame goes through the session's
+ * queue in {@link OutboundQueues}, so a slow client only ever delays itself.
+ * <p>
+ * Every session is watched by {@link Heartbeats}, and one that stops answering is
+ * reaped from the game it was in, so broadcasts only go to clients that are there.
+ * <p>
+ * Commands may arrive as JSON text or as {@link BinaryCodec} frames. Replies to a
+ * command use the encoding it came in, and a session that connected with a binary
+ * CONNECT gets its broadcasts in binary too.
+ */
+public class WebSocketHandler {
+
+    /**
+     * The LOAD_GAME frame last encoded for a game, and the board it was encoded from
+     */
+    private record EncodedBoard(ChessGame game, String frame) {
+    }
+
+    /**
+     * The session a command came from, and whether it came as a binary frame
+     */
+    private record Sender(String sessionId, boolean binary) {
+    }
+
+    private static final Gson GSON = new Gson();
+
+    private final AuthService authService;
+    private final GameService gameService;
+    private final GameActors actors;
+    private final ConnectionManager connections = new ConnectionManager();
+    private final ConcurrentHashMap<Integer, EncodedBoard> boards = new ConcurrentHashMap<>();
+    private final OutboundQueues outbound;
+    private final Heartbeats heartbeats;
+
+    public WebSocketHandler(AuthService authService, GameService gameService, GameActors actors,
+                            OutboundQueues outbound, Heartbeats heartbeats) {
+        this.authService = authService;
+        this.gameService = gameService;
+        this.actors = actors;
+        this.outbound = outbound;
+        this.heartbeats = heartbeats;
+    }
+
+    public void configure(WsConfig ws) {
+        ws.onConnect(this::onConnect);
+        ws.onMessage(this::onMessage);
+        ws.onBinaryMessage(this::onBinaryMessage);
+        ws.onClose(this::onClose);
+    }
+
+    public GameActors actors() {
+        return actors;
+    }
+
+    public OutboundQueues outbound() {
+        return outbound;
+    }
+
+    public Heartbeats heartbeats() {
+        return heartbeats;
+    }
+
+    private void onConnect(WsConnectContext ctx) {
+        outbound.open(ctx.sessionId(), new OutboundQueues.Sink() {
+            @Override
+            public void send(OutboundQueues.Frame frame) {
+                if (frame.binary() != null) {
+                    ctx.send(ByteBuffer.wrap(frame.binary()));
+                } else {
+                    ctx.send(frame.text());
+                }
+            }
+
+            @Override
+            public void ping() {
+                ctx.sendPing(ByteBuffer.allocate(0));
+            }
+
+            @Override
+            public void close(int statusCode, String reason) {
+                ctx.closeSession(statusCode, reason);
+            }
+        });
+        if (heartbeats.settings().enabled()) {
+            ctx.session.setIdleTimeout(heartbeats.settings().idleTimeout());
+        }
+        String sessionId = ctx.sessionId();
+        heartbeats.register(sessionId, new Heartbeats.Probe() {
+            @Override
+            public void ping(Runnable answered) {
+                outbound.ping(sessionId, answered);
+            }
+
+            @Override
+            public void reap() {
+                reapSession(sessionId);
+            }
+        });
+    }
+
+    private void onMessage(WsMessageContext ctx) {
+        heartbeats.touch(ctx.sessionId());
+        var sender = new Sender(ctx.sessionId(), false);
+        UserGameCommand command;
+        try {
+            JsonElement json = JsonParser.parseString(ctx.message());
+            command = GSON.fromJson(json, UserGameCommand.class);
+            if (command != null && command.getCommandType() == UserGameCommand.CommandType.MAKE_MOVE) {
+                command = GSON.fromJson(json, MakeMoveCommand.class);
+            } else if (command != null && command.getCommandType() == UserGameCommand.CommandType.CONNECT) {
+                command = GSON.fromJson(json, ConnectCommand.class);
+            }
+        } catch (JsonParseException ex) {
+            command = null;
+        }
+        if (command == null || command.getCommandType() == null || command.getGameID() == null) {
+            send(sender, new ErrorMessage("Error: bad request"));
+            return;
+        }
+        submit(sender, command);
+    }
+
+    private void onBinaryMessage(WsBinaryMessageContext ctx) {
+        heartbeats.touch(ctx.sessionId());
+        var sender = new Sender(ctx.sessionId(), true);
+        UserGameCommand command;
+        try {
+            command = BinaryCodec.decodeCommand(ctx.data(), ctx.offset(), ctx.length());
+        } catch (IllegalArgumentException ex) {
+            send(sender, new ErrorMessage("Error: bad request"));
+            return;
+        }
+        submit(sender, command);
+    }
+
+    private void submit(Sender sender, UserGameCommand command) {
+        if (!actors.submit(command.getGameID(), () -> handle(sender, command))) {
+            send(sender, new ErrorMessage("Error: server busy, try again"));
+        }
+    }
+
+    private void onClose(WsCloseContext ctx) {
+        heartbeats.remove(ctx.sessionId());
+        outbound.close(ctx.sessionId());
+        Integer gameID = connections.remove(ctx.sessionId());
+        if (gameID != null) {
+            forgetBoardIfEmpty(gameID);
+        }
+    }
+
+    /**
+     * Drops a session that stopped answering heartbeats. Its connection may never report
+     * closing, so it is taken out of its game here rather than left to the close handler.
+     * <p>
+     * Like {@link #onClose}, this closes the session's queue before taking it out of its
+     * game, and a CONNECT checks the queue after adding the session, so a CONNECT still
+     * waiting on the game's actor cannot put a dead session back.
+     */
+    private void reapSession(String sessionId) {
+        outbound.disconnect(sessionId, Heartbeats.TIMED_OUT, "Error: missed heartbeats");
+        Integer gameID = connections.remove(sessionId);
+        if (gameID != null) {
+            forgetBoardIfEmpty(gameID);
+        }
+    }
+
+    /**
+     * Runs on the game's actor, so nothing else touches this game while it does
+     */
+    private void handle(Sender sender, UserGameCommand command) {
+        try {
+            switch (command.getCommandType()) {
+                case CONNECT -> connect(sender, (ConnectCommand) command);
+                case MAKE_MOVE -> makeMove(sender, (MakeMoveCommand) command);
+                case LEAVE -> leave(sender, command);
+                case RESIGN -> resign(sender, command);
+            }
+        } catch (ResponseException ex) {
+            send(sender, new ErrorMessage(ex.getMessage()));
+        }
+    }
+
+    private void connect(Sender sender, ConnectCommand command) throws ResponseException {
+        AuthData auth = authService.authenticate(command.getAuthToken());
+        String username = auth.username();
+        GameData game = gameService.getGame(command.getGameID());
+        ConnectionManager.Role role = username.equals(game.whiteUsername()) ? ConnectionManager.Role.WHITE
+                : username.equals(game.blackUsername()) ? ConnectionManager.Role.BLACK
+                : ConnectionManager.Role.OBSERVER;
+        connections.add(game.gameID(), sender.sessionId(), role, command.wantsMoveDeltas(), sender.binary());
+        if (!outbound.isOpen(sender.sessionId())) {
+            // closed or reaped while this waited its turn, and already taken out of its
+            // game by then, so take it back out or it would stay in the game for good
+            connections.remove(sender.sessionId());
+            forgetBoardIfEmpty(game.gameID());
+            return;
+        }
+        outbound.send(sender.sessionId(), loadGameFrame(game, sender.binary()));
+        String joinedAs = role == ConnectionManager.Role.OBSERVER ? "an observer" : role.name().toLowerCase();
+        broadcastExcept(sender, game.gameID(), new NotificationMessage(username + " joined the game as " + joinedAs));
+    }
+
+    private void makeMove(Sender sender, MakeMoveCommand command) throws ResponseException {
+        ChessMove move = command.getMove();
+        if (move == null || move.getStartPosition() == null || move.getEndPosition() == null) {
+            throw new ResponseException(400, "Error: bad request");
+        }
+        AuthData auth = authService.authenticate(command.getAuthToken());
+        String username = auth.username();
+        GameData game = gameService.makeMove(auth, command.getGameID(), move);
+        MoveMadeMessage delta = MoveMadeMessage.of(move, game.game());
+        broadcastMove(game, move, delta);
+        broadcastExcept(sender, game.gameID(), new NotificationMessage(username + " moved "
+                + Fen.squareName(move.getStartPosition()) + " to " + Fen.squareName(move.getEndPosition())));
+
+        String player = playerName(game, game.game().getTeamTurn());
+        switch (delta.getStatus()) {
+            case CHECKMATE -> broadcast(game.gameID(), new NotificationMessage(player + " is in checkmate"));
+            case STALEMATE -> broadcast(game.gameID(), new NotificationMessage(player + " is in stalemate"));
+            case CHECK -> broadcast(game.gameID(), new NotificationMessage(player + " is in check"));
+            case PLAYING -> {
+            }
+        }
+    }
+
+    private void leave(Sender sender, UserGameCommand command) throws ResponseException {
+        AuthData auth = authService.authenticate(command.getAuthToken());
+        String username = auth.username();
+        int gameID = command.getGameID();
+        ConnectionManager.Connection connection = connections.connection(gameID, sender.sessionId());
+        if (connection == null || connection.role() != ConnectionManager.Role.OBSERVER) {
+            // only a player has a seat to give up; an observer just stops listening
+            gameService.leaveGame(auth, gameID);
+        }
+        connections.remove(sender.sessionId());
+        forgetBoardIfEmpty(gameID);
+        broadcast(gameID, new NotificationMessage(username + " left the game"));
+    }
+
+    private void resign(Sender sender, UserGameCommand command) throws ResponseException {
+        AuthData auth = authService.authenticate(command.getAuthToken());
+        String username = auth.username();
+        GameData game = gameService.resign(auth, command.getGameID());
+        broadcast(game.gameID(), new NotificationMessage(username + " resigned"));
+    }
+
+    private static String playerName(GameData game, ChessGame.TeamColor color) {
+        String username = color == ChessGame.TeamColor.WHITE ? game.whiteUsername() : game.blackUsername();
+        return username != null ? username : color.name().toLowerCase();
+    }
+
+    private void broadcast(int gameID, ServerMessage message) {
+        broadcastExcept(null, gameID, message);
+    }
+
+    private void broadcastExcept(Sender excluded, int gameID, ServerMessage message) {
+        OutboundQueues.Frame json = null;
+        OutboundQueues.Frame binary = null;
+        for (ConnectionManager.Connection connection : connections.connections(gameID)) {
+            if (excluded != null && connection.sessionId().equals(excluded.sessionId())) {
+                continue;
+            }
+            OutboundQueues.Frame frame;
+            if (connection.binary()) {
+                frame = binary = binary != null ? binary : binaryFrame(message);
+            } else {
+                frame = json = json != null ? json : jsonFrame(message);
+            }
+            outbound.send(connection.sessionId(), frame);
+        }
+    }
+
+    /**
+     * Sends a played move to everyone in the game: the small MOVE_MADE delta to sessions
+     * that asked for it, and the whole board to the rest, each in the session's encoding.
+     * Each variant is encoded at most once.
+     */
+    private void broadcastMove(GameData game, ChessMove move, MoveMadeMessage delta) {
+        // indexed by (binary ? 2 : 0) + (moveDeltas ? 1 : 0)
+        OutboundQueues.Frame[] frames = new OutboundQueues.Frame[4];
+        for (ConnectionManager.Connection connection : connections.connections(game.gameID())) {
+            int variant = (connection.binary() ? 2 : 0) + (connection.moveDeltas() ? 1 : 0);
+            if (frames[variant] == null) {
+                frames[variant] = switch (variant) {
+                    case 0 -> loadGameFrame(game, false);
+                    case 1 -> jsonFrame(delta);
+                    case 2 -> loadGameFrame(game, true);
+                    default -> OutboundQueues.Frame.binary(ServerMessage.ServerMessageType.MOVE_MADE,
+                            BinaryCodec.encodeMoveMade(move, delta.getStatus(), game.game()));
+                };
+            }
+            outbound.send(connection.sessionId(), frames[variant]);
+        }
+    }
+
+    /**
+     * Encodes a LOAD_GAME message for the game's current board. The JSON encoding is
+     * reused while the board has not changed; boards are replaced, never changed in
+     * place, so the same board object always encodes the same way. The binary encoding
+     * is a few dozen bytes and cheap enough to redo.
+     */
+    private OutboundQueues.Frame loadGameFrame(GameData game, boolean binary) {
+        if (binary) {
+            return OutboundQueues.Frame.binary(ServerMessage.ServerMessageType.LOAD_GAME,
+                    BinaryCodec.encodeLoadGame(game.game()));
+        }
+        EncodedBoard encoded = boards.get(game.gameID());
+        if (encoded == null || encoded.game() != game.game()) {
+            encoded = new EncodedBoard(game.game(), GSON.toJson(new LoadGameMessage(game.game())));
+            boards.put(game.gameID(), encoded);
+        }
+        return OutboundQueues.Frame.text(ServerMessage.ServerMessageType.LOAD_GAME, encoded.frame());
+    }
+
+    private void forgetBoardIfEmpty(int gameID) {
+        if (connections.connections(gameID).isEmpty()) {
+            boards.remove(gameID);
+        }
+    }
+
+    private void send(Sender sender, ServerMessage message) {
+        outbound.send(sender.sessionId(), sender.binary() ? binaryFrame(message) : jsonFrame(message));
+    }
+
+    private static OutboundQueues.Frame jsonFrame(ServerMessage message) {
+        return OutboundQueues.Frame.text(message.getServerMessageType(), GSON.toJson(message));
+    }
+
+    private static OutboundQueues.Frame binaryFrame(ServerMessage message) {
+        return OutboundQueues.Frame.binary(message.getServerMessageType(), BinaryCodec.encode(message));
+    }
+}
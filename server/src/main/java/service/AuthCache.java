@@ -0,0 +1,199 @@
+package service;
+
+import model.AuthData;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A bounded, time-limited cache of auth tokens that were recently seen valid.
+ * <p>
+ * Only valid tokens are cached; unknown tokens always go to the DAO, so a token created
+ * on another server is never refused because of this cache. Entries expire after a
+ * fixed time-to-live, which also bounds how long a token logged out on another server
+ * keeps working here. When the cache is full, the entry closest to expiring is evicted.
+ * Every entry lives for the same time, so entries expire in the order they were
+ * written, and a queue of writes finds that entry without scanning the map or taking a
+ * global lock. Writes whose entry has since been replaced or removed are skipped when
+ * they reach the head, and swept out if they come to outnumber the entries.
+ * <p>
+ * Invalidating a token leaves a marker behind for one time-to-live, so a request that
+ * read the token from the DAO just before logout cannot put it back into the cache.
+ * Clearing drops the markers too, so it starts a new generation instead: a put carries
+ * the generation it read the token in, and one from before the last clear is refused.
+ */
+public class AuthCache {
+
+    /**
+     * A cached token, or an invalidation marker when auth is null
+     */
+    private record Entry(AuthData auth, long expiresAt) {
+    }
+
+    /**
+     * An entry as it was written, in the order of writes
+     */
+    private record Written(String authToken, Entry entry) {
+    }
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Written> writeOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger written = new AtomicInteger();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final AtomicLong generation = new AtomicLong();
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public AuthCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, System::currentTimeMillis);
+    }
+
+    AuthCache(int maxEntries, long ttlMillis, LongSupplier clock) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the cached auth data for the token, or null if it is not cached or expired
+     */
+    public AuthData get(String authToken) {
+        Entry entry = entries.get(authToken);
+        if (entry == null || entry.auth() == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entry.expiresAt() <= clock.getAsLong()) {
+            entries.remove(authToken, entry);
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.auth();
+    }
+
+    /**
+     * @return the current generation, to be read before the token is looked up or created
+     * and handed back to {@link #put}
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Caches a token found valid, unless it has been invalidated or the cache cleared since
+     *
+     * @param generation the {@link #generation()} read before the token was looked up
+     */
+    public void put(AuthData auth, long generation) {
+        if (generation != this.generation.get()) {
+            return;
+        }
+        if (entries.size() >= maxEntries && !entries.containsKey(auth.authToken())) {
+            evictOne();
+        }
+        long now = clock.getAsLong();
+        var entry = new Entry(auth, now + ttlMillis);
+        Entry stored = entries.compute(auth.authToken(), (token, old) -> {
+            if (old != null && old.auth() == null && old.expiresAt() > now) {
+                return old;
+            }
+            return entry;
+        });
+        if (stored != entry) {
+            return;
+        }
+        if (generation != this.generation.get()) {
+            // cleared while this was going in; clear() may already have passed this token
+            entries.remove(auth.authToken(), entry);
+            return;
+        }
+        recordWrite(auth.authToken(), entry);
+    }
+
+    public void invalidate(String authToken) {
+        if (entries.size() >= maxEntries && !entries.containsKey(authToken)) {
+            evictOne();
+        }
+        var marker = new Entry(null, clock.getAsLong() + ttlMillis);
+        entries.put(authToken, marker);
+        recordWrite(authToken, marker);
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+        sweep();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public long evictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Evicts the live entry written longest ago, which is the one closest to expiring
+     */
+    private void evictOne() {
+        Written oldest;
+        while ((oldest = writeOrder.poll()) != null) {
+            written.decrementAndGet();
+            if (entries.remove(oldest.authToken(), oldest.entry())) {
+                evictions.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private void recordWrite(String authToken, Entry entry) {
+        writeOrder.add(new Written(authToken, entry));
+        if (written.incrementAndGet() > 2 * maxEntries) {
+            sweep();
+        }
+    }
+
+    /**
+     * Drops writes whose entry has been replaced or removed; with more than twice as many
+     * writes queued as the cache holds, at least half are such, so this runs rarely
+     */
+    private void sweep() {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Iterator<Written> iterator = writeOrder.iterator();
+            while (iterator.hasNext()) {
+                Written write = iterator.next();
+                if (entries.get(write.authToken()) != write.entry()) {
+                    iterator.remove();
+                    written.decrementAndGet();
+                }
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+}
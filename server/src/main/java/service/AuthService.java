@@ -0,0 +1,149 @@
+package service;
+
+import dataaccess.AuthDAO;
+import dataaccess.DataAccessException;
+import model.AuthData;
+
+import java.util.UUID;
+
+/**
+ * Creates, checks and removes auth tokens.
+ * <p>
+ * By default tokens are opaque UUIDs stored through the {@link AuthDAO}, with recently
+ * used ones kept in an {@link AuthCache} so authenticated requests usually skip the
+ * database. In {@link TokenMode#SIGNED} mode tokens are issued and checked by
+ * {@link SignedTokens} instead and the auth table is not used at all.
+ */
+public class AuthService {
+
+    /**
+     * How auth tokens are issued and checked
+     */
+    public enum TokenMode {
+        /**
+         * Random tokens stored in the auth table
+         */
+        OPAQUE,
+        /**
+         * Self-contained HMAC-signed tokens checked without the database
+         */
+        SIGNED;
+
+        /**
+         * Reads the mode from the {@code chess.auth.tokens} system property
+         * ("opaque" or "signed"), defaulting to OPAQUE
+         */
+        public static TokenMode fromSystemProperty() {
+            return valueOf(System.getProperty("chess.auth.tokens", "opaque").trim().toUpperCase());
+        }
+    }
+
+    private final AuthDAO authDAO;
+    private final AuthCache cache;
+    private final SignedTokens signedTokens;
+
+    public AuthService(AuthDAO authDAO, AuthCache cache) {
+        this.authDAO = authDAO;
+        this.cache = cache;
+        this.signedTokens = null;
+    }
+
+    public AuthService(SignedTokens signedTokens) {
+        this.authDAO = null;
+        this.cache = null;
+        this.signedTokens = signedTokens;
+    }
+
+    public TokenMode getTokenMode() {
+        return signedTokens == null ? TokenMode.OPAQUE : TokenMode.SIGNED;
+    }
+
+    public AuthData createAuth(String username) throws ResponseException {
+        if (signedTokens != null) {
+            return signedTokens.issue(username);
+        }
+        var auth = new AuthData(UUID.randomUUID().toString(), username);
+        long generation = cache.generation();
+        try {
+            authDAO.createAuth(auth);
+        } catch (DataAccessException ex) {
+            throw ResponseException.serverError(ex);
+        }
+        cache.put(auth, generation);
+        return auth;
+    }
+
+    /**
+     * Looks up the user an auth token belongs to
+     *
+     * @throws ResponseException 401 if the token is missing or not valid
+     */
+    public AuthData authenticate(String authToken) throws ResponseException {
+        if (authToken == null) {
+            throw ResponseException.unauthorized();
+        }
+        if (signedTokens != null) {
+            var auth = signedTokens.verify(authToken);
+            if (auth == null) {
+                throw ResponseException.unauthorized();
+            }
+            return auth;
+        }
+        var auth = cache.get(authToken);
+        if (auth != null) {
+            return auth;
+        }
+        long generation = cache.generation();
+        try {
+            auth = authDAO.getAuth(authToken);
+        } catch (DataAccessException ex) {
+            throw ResponseException.serverError(ex);
+        }
+        if (auth == null) {
+            throw ResponseException.unauthorized();
+        }
+        cache.put(auth, generation);
+        return auth;
+    }
+
+    public void logout(String authToken) throws ResponseException {
+        authenticate(authToken);
+        if (signedTokens != null) {
+            signedTokens.revoke(authToken);
+            return;
+        }
+        try {
+            authDAO.deleteAuth(authToken);
+        } catch (DataAccessException ex) {
+            throw ResponseException.serverError(ex);
+        } finally {
+            cache.invalidate(authToken);
+        }
+    }
+
+    /**
+     * Drops every token held in memory without touching the auth table, for when the
+     * table has already been emptied some other way. Signed tokens are all revoked.
+     */
+    public void clearCached() {
+        if (signedTokens != null) {
+            signedTokens.revokeAll();
+        } else {
+            cache.clear();
+        }
+    }
+
+    public void clear() throws ResponseException {
+        if (signedTokens != null) {
+            signedTokens.revokeAll();
+            return;
+        }
+        try {
+            authDAO.clear();
+        } catch (DataAccessException ex) {
+            throw ResponseException.serverError(ex);
+        } finally {
+            cache.clear();
+        }
+    }
+}
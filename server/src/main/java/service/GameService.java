@@ -0,0 +1,323 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import dataaccess.DataAccessException;
+import dataaccess.GameDAO;
+import model.AuthData;
+import model.GameData;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Creates, lists, joins and plays games. Joins and moves go through
+ * {@link GameDAO#updateGame}, so two players racing for one color, or for one move,
+ * cannot both succeed.
+ */
+public class GameService {
+
+    /**
+     * What a game listing can be narrowed to
+     */
+    public enum ListFilter {
+        /**
+         * Games with a seat free
+         */
+        OPEN,
+        /**
+         * Games the user has a seat in
+         */
+        MINE,
+        /**
+         * Games with both seats taken that are not over
+         */
+        IN_PROGRESS
+    }
+
+    /**
+     * One page of a game listing
+     *
+     * @param modified   false if the listing is still at a version the client has, in
+     *                   which case no games are listed
+     * @param nextCursor where the next page starts, or null if this is the last page
+     * @param version    the listing version the page is at least as new as
+     */
+    public record GamePage(boolean modified, List<GameData> games, String nextCursor, long version) {
+    }
+
+    /**
+     * The most games one page may hold
+     */
+    public static final int MAX_PAGE = 500;
+
+    /**
+     * Carries a refusal out of an update function, which cannot throw checked exceptions
+     */
+    private static class Refused extends RuntimeException {
+        final ResponseException response;
+
+        Refused(ResponseException response) {
+            super(response.getMessage(), null, false, false);
+            this.response = response;
+        }
+    }
+
+    private final GameDAO gameDAO;
+    private final AuthService authService;
+
+    public GameService(GameDAO gameDAO, AuthService authService) {
+        this.gameDAO = gameDAO;
+        this.authService = authService;
+    }
+
+    public int createGame(String authToken, String gameName) throws ResponseException {
+        authService.authenticate(authToken);
+        if (gameName == null || gameName.isBlank()) {
+            throw new ResponseException(400, "Error: bad request");
+        }
+        try {
+            return gameDAO.createGame(gameName);
+        } catch (DataAccessException ex) {
+            throw ResponseException.serverError(ex);
+        }
+    }
+
+    /**
+     * Lists games in ID order, a page at a time. Listed games may have no board.
+     * <p>
+     * The listing version is read before the games, so a page is never older than the
+     * version it reports; a client that passes the version back is told the listing is
+     * unchanged without any games being read.
+     *
+     * @param cursor        where to start, from an earlier page's nextCursor, or null
+     *                      for the first page
+     * @param limit         the most games to list, up to {@link #MAX_PAGE}, or null for
+     *                      every game on one page
+     * @param knownVersions listing versions the client already has
+     * @throws ResponseException 400 if the cursor or limit is not valid, or 401 if the
+     *                           token is not valid
+     */
+    public GamePage listGames(String authToken, String cursor, Integer limit, Set<ListFilter> filters,
+                              Set<Long> knownVersions) throws ResponseException {
+        String username = authService.authenticate(authToken).username();
+        int after;
+        try {
+            after = cursor == null ? 0 : Integer.parseInt(cursor);
+        } catch (NumberFormatException ex) {
+            throw new ResponseException(400, "Error: bad request");
+        }
+        if (after < 0 || limit != null && limit < 1) {
+            throw new ResponseException(400, "Error: bad request");
+        }
+        int pageSize = limit == null ? Integer.MAX_VALUE : Math.min(limit, MAX_PAGE);
+        try {
+            long version = gameDAO.listingVersion();
+            if (knownVersions.contains(version)) {
+                return new GamePage(false, List.of(), null, version);
+            }
+            // one game more than the page says whether there is another page
+            var query = new GameDAO.ListQuery(after, pageSize == Integer.MAX_VALUE ? pageSize : pageSize + 1,
+                    filters.contains(ListFilter.OPEN), filters.contains(ListFilter.MINE) ? username : null,
+                    filters.contains(ListFilter.IN_PROGRESS));
+            List<GameData> games = gameDAO.listGames(query);
+            String nextCursor = null;
+            if (games.size() > pageSize) {
+                games = games.subList(0, pageSize);
+                nextCursor = Integer.toString(games.getLast().gameID());
+            }
+            return new GamePage(true, games, nextCursor, version);
+        } catch (DataAccessException ex) {
+            throw ResponseException.serverError(ex);
+        }
+    }
+
+    /**
+     * @throws ResponseException 400 if the game does not exist, or 401 if the token is
+     *                           not valid
+     */
+    public GameData getGame(String authToken, int gameID) throws ResponseException {
+        authService.authenticate(authToken);
+        return getGame(gameID);
+    }
+
+    /**
+     * Reads a game for a caller that has already authenticated its user, as a websocket
+     * session does on each command. Anyone signed in may watch any game, so who the user
+     * is does not matter here.
+     *
+     * @throws ResponseException 400 if the game does not exist
+     */
+    public GameData getGame(int gameID) throws ResponseException {
+        GameData game;
+        try {
+            game = gameDAO.getGame(gameID);
+        } catch (DataAccessException ex) {
+            throw ResponseException.serverError(ex);
+        }
+        if (game == null) {
+            throw new ResponseException(400, "Error: bad request");
+        }
+        return game;
+    }
+
+    /**
+     * Claims a color in a game for the authenticated user
+     *
+     * @throws ResponseException 400 if the color or game is not valid, 401 if the
+     *                           token is not, or 403 if someone else has the color
+     */
+    public GameData joinGame(String authToken, ChessGame.TeamColor color, int gameID) throws ResponseException {
+        String username = authService.authenticate(authToken).username();
+        if (color == null) {
+            throw new ResponseException(400, "Error: bad request");
+        }
+        return update(gameID, game -> {
+            String current = color == ChessGame.TeamColor.WHITE ? game.whiteUsername() : game.blackUsername();
+            if (current != null) {
+                if (current.equals(username)) {
+                    return game;
+                }
+                throw new Refused(new ResponseException(403, "Error: already taken"));
+            }
+            return color == ChessGame.TeamColor.WHITE ? game.withWhiteUsername(username)
+                    : game.withBlackUsername(username);
+        });
+    }
+
+    /**
+     * Plays a move for the authenticated user, who must hold the color to move
+     *
+     * @throws ResponseException 400 if the move is illegal, the game is over or does not
+     *                           exist, 401 if the token is not valid, or 403 if it is
+     *                           not the user's turn
+     */
+    public GameData makeMove(String authToken, int gameID, ChessMove move) throws ResponseException {
+        return makeMove(authService.authenticate(authToken), gameID, move);
+    }
+
+    /**
+     * Plays a move for a user who has already been authenticated
+     *
+     * @throws ResponseException 400 if the move is illegal, the game is over or does not
+     *                           exist, or 403 if it is not the user's turn
+     */
+    public GameData makeMove(AuthData auth, int gameID, ChessMove move) throws ResponseException {
+        String username = auth.username();
+        return update(gameID, move, game -> {
+            ChessGame chess = game.game();
+            if (chess.isGameOver()) {
+                throw new Refused(new ResponseException(400, "Error: the game is over"));
+            }
+            String mover = chess.getTeamTurn() == ChessGame.TeamColor.WHITE ? game.whiteUsername()
+                    : game.blackUsername();
+            if (!username.equals(mover)) {
+                throw new Refused(new ResponseException(403, "Error: not your turn"));
+            }
+            ChessGame next = chess.copy();
+            try {
+                next.makeMove(move);
+            } catch (InvalidMoveException ex) {
+                throw new Refused(new ResponseException(400, "Error: illegal move"));
+            }
+            ChessGame.TeamColor turn = next.getTeamTurn();
+            if (next.isInCheckmate(turn) || next.isInStalemate(turn)) {
+                next.setGameOver(true);
+            }
+            return game.withGame(next);
+        });
+    }
+
+    /**
+     * Gives up the authenticated user's seat in a game, if they have one
+     *
+     * @throws ResponseException 400 if the game does not exist, or 401 if the token is
+     *                           not valid
+     */
+    public GameData leaveGame(String authToken, int gameID) throws ResponseException {
+        return leaveGame(authService.authenticate(authToken), gameID);
+    }
+
+    /**
+     * Gives up the seat of a user who has already been authenticated, if they have one
+     *
+     * @throws ResponseException 400 if the game does not exist
+     */
+    public GameData leaveGame(AuthData auth, int gameID) throws ResponseException {
+        String username = auth.username();
+        return update(gameID, game -> {
+            GameData left = game;
+            if (username.equals(left.whiteUsername())) {
+                left = left.withWhiteUsername(null);
+            }
+            if (username.equals(left.blackUsername())) {
+                left = left.withBlackUsername(null);
+            }
+            return left;
+        });
+    }
+
+    /**
+     * Ends the game with the authenticated user conceding it
+     *
+     * @throws ResponseException 400 if the game is already over or does not exist, 401 if
+     *                           the token is not valid, or 403 if the user is not playing
+     *                           in it
+     */
+    public GameData resign(String authToken, int gameID) throws ResponseException {
+        return resign(authService.authenticate(authToken), gameID);
+    }
+
+    /**
+     * Ends the game with a user who has already been authenticated conceding it
+     *
+     * @throws ResponseException 400 if the game is already over or does not exist, or 403
+     *                           if the user is not playing in it
+     */
+    public GameData resign(AuthData auth, int gameID) throws ResponseException {
+        String username = auth.username();
+        return update(gameID, game -> {
+            if (!username.equals(game.whiteUsername()) && !username.equals(game.blackUsername())) {
+                throw new Refused(new ResponseException(403, "Error: observers cannot resign"));
+            }
+            if (game.game().isGameOver()) {
+                throw new Refused(new ResponseException(400, "Error: the game is over"));
+            }
+            ChessGame ended = game.game().copy();
+            ended.setGameOver(true);
+            return game.withGame(ended);
+        });
+    }
+
+    public void clear() throws ResponseException {
+        try {
+            gameDAO.clear();
+        } catch (DataAccessException ex) {
+            throw ResponseException.serverError(ex);
+        }
+    }
+
+    private GameData update(int gameID, UnaryOperator<GameData> change) throws ResponseException {
+        return update(gameID, null, change);
+    }
+
+    /**
+     * @param move the move the change plays, or null if it does not play one
+     */
+    private GameData update(int gameID, ChessMove move, UnaryOperator<GameData> change) throws ResponseException {
+        GameData updated;
+        try {
+            updated = move == null ? gameDAO.updateGame(gameID, change) : gameDAO.applyMove(gameID, move, change);
+        } catch (Refused ex) {
+            throw ex.response;
+        } catch (DataAccessException ex) {
+            throw ResponseException.serverError(ex);
+        }
+        if (updated == null) {
+            throw new ResponseException(400, "Error: bad request");
+        }
+        return updated;
+    }
+}
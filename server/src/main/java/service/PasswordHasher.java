@@ -0,0 +1,133 @@
+package service;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs bcrypt on a small dedicated pool of threads.
+ * <p>
+ * A bcrypt hash at a reasonable cost is tens of milliseconds of CPU, so a burst of
+ * logins hashed on request threads would starve every other request. Here at most
+ * {@code threads} hashes run at once, at most {@code queueLimit} more wait their turn,
+ * and anything beyond that is refused straight away with a 503 rather than queued
+ * behind work the client will likely have given up on.
+ */
+public class PasswordHasher {
+
+    /**
+     * A snapshot of the hasher's counters
+     *
+     * @param completed            hashes and checks finished since startup
+     * @param rejected             requests refused because the queue was full
+     * @param queued               requests currently waiting for a thread
+     * @param totalQueueWaitMillis time finished requests spent waiting for a thread
+     * @param totalHashMillis      time finished requests spent in bcrypt
+     */
+    public record Stats(long completed, long rejected, int queued, long totalQueueWaitMillis, long totalHashMillis) {
+
+        public double meanQueueWaitMillis() {
+            return completed == 0 ? 0 : totalQueueWaitMillis / (double) completed;
+        }
+
+        public double meanHashMillis() {
+            return completed == 0 ? 0 : totalHashMillis / (double) completed;
+        }
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final int logRounds;
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalQueueWaitNanos = new AtomicLong();
+    private final AtomicLong totalHashNanos = new AtomicLong();
+
+    public PasswordHasher(int threads, int queueLimit, int logRounds) {
+        this.logRounds = logRounds;
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueLimit), task -> {
+            Thread thread = new Thread(task, "bcrypt-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Builds a hasher from the {@code chess.bcrypt.threads} (default: available
+     * processors), {@code chess.bcrypt.queue} (default: 16 per thread) and
+     * {@code chess.bcrypt.rounds} (default 10) system properties
+     */
+    public static PasswordHasher fromSystemProperties() {
+        int threads = Integer.getInteger("chess.bcrypt.threads", Runtime.getRuntime().availableProcessors());
+        int queue = Integer.getInteger("chess.bcrypt.queue", threads * 16);
+        int rounds = Integer.getInteger("chess.bcrypt.rounds", 10);
+        return new PasswordHasher(threads, queue, rounds);
+    }
+
+    /**
+     * @return a future for the bcrypt hash of the password
+     * @throws ResponseException 503 if too many hashes are already waiting
+     */
+    public CompletableFuture<String> hash(String password) throws ResponseException {
+        return submit(() -> BCrypt.hashpw(password, BCrypt.gensalt(logRounds)));
+    }
+
+    /**
+     * @return a future for whether the password matches the stored hash
+     * @throws ResponseException 503 if too many hashes are already waiting
+     */
+    public CompletableFuture<Boolean> matches(String password, String hashed) throws ResponseException {
+        return submit(() -> BCrypt.checkpw(password, hashed));
+    }
+
+    public Stats stats() {
+        return new Stats(completed.get(), rejected.get(), executor.getQueue().size(),
+                TimeUnit.NANOSECONDS.toMillis(totalQueueWaitNanos.get()),
+                TimeUnit.NANOSECONDS.toMillis(totalHashNanos.get()));
+    }
+
+    /**
+     * Stops accepting work; hashes already queued still finish
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    <T> CompletableFuture<T> submit(Supplier<T> work) throws ResponseException {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long submittedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                long startedAt = System.nanoTime();
+                T value = null;
+                RuntimeException failure = null;
+                try {
+                    value = work.get();
+                } catch (RuntimeException ex) {
+                    failure = ex;
+                }
+                // count before completing, since completing may run the caller's callbacks here
+                totalQueueWaitNanos.addAndGet(startedAt - submittedAt);
+                totalHashNanos.addAndGet(System.nanoTime() - startedAt);
+                completed.incrementAndGet();
+                if (failure == null) {
+                    result.complete(value);
+                } else {
+                    result.completeExceptionally(failure);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            rejected.incrementAndGet();
+            throw new ResponseException(503, "Error: server busy, try again");
+        }
+        return result;
+    }
+}
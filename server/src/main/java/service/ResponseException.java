@@ -0,0 +1,31 @@
+package service;
+
+/**
+ * Indicates a request failed, carrying the HTTP status code to respond with
+ */
+public class ResponseException extends Exception {
+
+    private final int statusCode;
+
+    public ResponseException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public ResponseException(int statusCode, String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = statusCode;
+    }
+
+    public int statusCode() {
+        return statusCode;
+    }
+
+    public static ResponseException unauthorized() {
+        return new ResponseException(401, "Error: unauthorized");
+    }
+
+    public static ResponseException serverError(Exception cause) {
+        return new ResponseException(500, "Error: " + cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,160 @@
+package service;
+
+import model.AuthData;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Issues and checks self-contained auth tokens, so no table lookup is needed to
+ * authenticate a request.
+ * <p>
+ * A token has the form {@code user.issuedAt.expiresAt.nonce.signature}, where user is
+ * the base64url username, the times are epoch milliseconds, and the signature is an
+ * HMAC-SHA256 of everything before it. Any server holding the same key can check a
+ * token. Logged out tokens go into a revocation set, keyed by their signed payload,
+ * until they would have expired anyway; that set, and {@link #revokeAll()}, are local
+ * to this server. A signature must be in the exact unpadded form it was issued in, so
+ * no other spelling of a revoked token gets past the set.
+ */
+public class SignedTokens {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int NONCE_BYTES = 12;
+    private static final int PURGE_INTERVAL = 256;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Mac prototype;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final SecureRandom random = new SecureRandom();
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+    private final AtomicInteger revokesSincePurge = new AtomicInteger();
+    private volatile long notBefore = Long.MIN_VALUE;
+
+    public SignedTokens(byte[] key, long ttlMillis) {
+        this(key, ttlMillis, System::currentTimeMillis);
+    }
+
+    SignedTokens(byte[] key, long ttlMillis, LongSupplier clock) {
+        if (key.length < 32) {
+            throw new IllegalArgumentException("HMAC key must be at least 32 bytes");
+        }
+        try {
+            prototype = Mac.getInstance(ALGORITHM);
+            prototype.init(new SecretKeySpec(key, ALGORITHM));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HmacSHA256 is not available", ex);
+        }
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Builds a SignedTokens from the {@code chess.auth.secret} (base64 key) and
+     * {@code chess.auth.ttlMillis} system properties. Without a secret a random key is
+     * used, so tokens are only good on this server until it restarts.
+     */
+    public static SignedTokens fromSystemProperties() {
+        String secret = System.getProperty("chess.auth.secret");
+        byte[] key;
+        if (secret == null || secret.isBlank()) {
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+        } else {
+            key = Base64.getDecoder().decode(secret.trim());
+        }
+        long ttl = Long.parseLong(System.getProperty("chess.auth.ttlMillis", "86400000"));
+        return new SignedTokens(key, ttl);
+    }
+
+    public AuthData issue(String username) {
+        // never stamp a token earlier than the last revokeAll, even within the same millisecond
+        long now = Math.max(clock.getAsLong(), notBefore);
+        byte[] nonce = new byte[NONCE_BYTES];
+        random.nextBytes(nonce);
+        String payload = ENCODER.encodeToString(username.getBytes(StandardCharsets.UTF_8))
+                + '.' + now + '.' + (now + ttlMillis) + '.' + ENCODER.encodeToString(nonce);
+        return new AuthData(payload + '.' + ENCODER.encodeToString(sign(payload)), username);
+    }
+
+    /**
+     * @return the auth data the token stands for, or null if it is malformed, forged,
+     * expired or revoked
+     */
+    public AuthData verify(String token) {
+        int signatureStart = token.lastIndexOf('.');
+        if (signatureStart < 0) {
+            return null;
+        }
+        String payload = token.substring(0, signatureStart);
+        String[] fields = payload.split("\\.", -1);
+        if (fields.length != 4) {
+            return null;
+        }
+        try {
+            String signatureField = token.substring(signatureStart + 1);
+            byte[] signature = DECODER.decode(signatureField);
+            // the decoder also takes padding and stray low bits in the last character
+            if (!ENCODER.encodeToString(signature).equals(signatureField)
+                    || !MessageDigest.isEqual(signature, sign(payload))) {
+                return null;
+            }
+            long issuedAt = Long.parseLong(fields[1]);
+            long expiresAt = Long.parseLong(fields[2]);
+            if (expiresAt <= clock.getAsLong() || issuedAt < notBefore || revoked.containsKey(payload)) {
+                return null;
+            }
+            return new AuthData(token, new String(DECODER.decode(fields[0]), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Refuses the token from now until it expires. The token must already have passed
+     * {@link #verify(String)}.
+     */
+    public void revoke(String token) {
+        String payload = token.substring(0, token.lastIndexOf('.'));
+        String[] fields = payload.split("\\.");
+        revoked.put(payload, Long.parseLong(fields[2]));
+        if (revokesSincePurge.incrementAndGet() >= PURGE_INTERVAL) {
+            revokesSincePurge.set(0);
+            long now = clock.getAsLong();
+            revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        }
+    }
+
+    /**
+     * Refuses every token issued so far
+     */
+    public void revokeAll() {
+        notBefore = clock.getAsLong() + 1;
+        revoked.clear();
+    }
+
+    public int revokedCount() {
+        return revoked.size();
+    }
+
+    private byte[] sign(String payload) {
+        Mac mac;
+        try {
+            // Mac is not thread-safe; cloning the initialised prototype skips the key setup
+            mac = (Mac) prototype.clone();
+        } catch (CloneNotSupportedException ex) {
+            throw new IllegalStateException("HmacSHA256 provider does not support cloning", ex);
+        }
+        return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,114 @@
+package service;
+
+import dataaccess.DataAccessException;
+import dataaccess.UserDAO;
+import model.AuthData;
+import model.UserData;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Registers and logs in users.
+ * <p>
+ * Both operations hash a password, which is handed to the {@link PasswordHasher} pool.
+ * The returned futures finish on a virtual thread rather than a hashing thread, so the
+ * database writes that follow never hold up the next hash. A future that fails does so
+ * with a {@link CompletionException} wrapping a {@link ResponseException}.
+ */
+public class UserService {
+
+    private static final Executor AFTER_HASH = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final UserDAO userDAO;
+    private final AuthService authService;
+    private final PasswordHasher hasher;
+
+    public UserService(UserDAO userDAO, AuthService authService, PasswordHasher hasher) {
+        this.userDAO = userDAO;
+        this.authService = authService;
+        this.hasher = hasher;
+    }
+
+    /**
+     * @throws ResponseException 400 if a field is missing, 403 if the username is
+     *                           taken, or 503 if the hasher is saturated
+     */
+    public CompletableFuture<AuthData> register(UserData user) throws ResponseException {
+        if (user == null || isBlank(user.username()) || isBlank(user.password()) || isBlank(user.email())) {
+            throw new ResponseException(400, "Error: bad request");
+        }
+        // check before hashing so a taken name does not cost a bcrypt round
+        if (getUser(user.username()) != null) {
+            throw new ResponseException(403, "Error: already taken");
+        }
+        return hasher.hash(user.password()).thenApplyAsync(hashed -> {
+            try {
+                userDAO.createUser(new UserData(user.username(), hashed, user.email()));
+                return authService.createAuth(user.username());
+            } catch (DataAccessException ex) {
+                if (getUserOrNull(user.username()) != null) {
+                    // lost a race with another registration of the same name
+                    throw new CompletionException(new ResponseException(403, "Error: already taken"));
+                }
+                throw new CompletionException(ResponseException.serverError(ex));
+            } catch (ResponseException ex) {
+                throw new CompletionException(ex);
+            }
+        }, AFTER_HASH);
+    }
+
+    /**
+     * @throws ResponseException 400 if a field is missing, 401 if there is no such
+     *                           user, or 503 if the hasher is saturated
+     */
+    public CompletableFuture<AuthData> login(String username, String password) throws ResponseException {
+        if (isBlank(username) || isBlank(password)) {
+            throw new ResponseException(400, "Error: bad request");
+        }
+        UserData user = getUser(username);
+        if (user == null) {
+            throw ResponseException.unauthorized();
+        }
+        return hasher.matches(password, user.password()).thenApplyAsync(matches -> {
+            if (!matches) {
+                throw new CompletionException(ResponseException.unauthorized());
+            }
+            try {
+                return authService.createAuth(username);
+            } catch (ResponseException ex) {
+                throw new CompletionException(ex);
+            }
+        }, AFTER_HASH);
+    }
+
+    public void clear() throws ResponseException {
+        try {
+            userDAO.clear();
+        } catch (DataAccessException ex) {
+            throw ResponseException.serverError(ex);
+        }
+    }
+
+    private UserData getUser(String username) throws ResponseException {
+        try {
+            return userDAO.getUser(username);
+        } catch (DataAccessException ex) {
+            throw ResponseException.serverError(ex);
+        }
+    }
+
+    private UserData getUserOrNull(String username) {
+        try {
+            return userDAO.getUser(username);
+        } catch (DataAccessException ex) {
+            return null;
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
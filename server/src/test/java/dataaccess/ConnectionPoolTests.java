@@ -0,0 +1,123 @@
+package dataaccess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ConnectionPoolTests {
+
+    /**
+     * A stand-in for a MySQL connection that only tracks whether it is open and valid
+     */
+    private static class FakeConnection {
+        final AtomicBoolean open = new AtomicBoolean(true);
+        final AtomicBoolean valid = new AtomicBoolean(true);
+        final AtomicBoolean autoCommit = new AtomicBoolean(true);
+        boolean rolledBack;
+
+        Connection proxy() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "close" -> {
+                            open.set(false);
+                            yield null;
+                        }
+                        case "isClosed" -> !open.get();
+                        case "isValid" -> valid.get();
+                        case "getAutoCommit" -> autoCommit.get();
+                        case "setAutoCommit" -> {
+                            autoCommit.set((Boolean) args[0]);
+                            yield null;
+                        }
+                        case "rollback" -> {
+                            rolledBack = true;
+                            yield null;
+                        }
+                        default -> null;
+                    });
+        }
+    }
+
+    private final List<FakeConnection> physical = new ArrayList<>();
+
+    private ConnectionPool newPool(int maxSize, long acquireTimeoutMillis, long maxLifetimeMillis) {
+        return new ConnectionPool(() -> {
+            var fake = new FakeConnection();
+            physical.add(fake);
+            return fake.proxy();
+        }, new ConnectionPool.Settings(maxSize, acquireTimeoutMillis, maxLifetimeMillis, 0, 1));
+    }
+
+    @Test
+    @DisplayName("Closed Connections Are Reused")
+    public void reuse() throws Exception {
+        var pool = newPool(2, 100, 60_000);
+        try (var conn = pool.acquire()) {
+            Assertions.assertFalse(conn.isClosed());
+        }
+        try (var ignored = pool.acquire()) {
+            Assertions.assertEquals(1, physical.size(), "Returned connection was not reused");
+            Assertions.assertTrue(physical.get(0).open.get(), "Pool closed the physical connection");
+        }
+        var stats = pool.stats();
+        Assertions.assertEquals(2, stats.acquired());
+        Assertions.assertEquals(1, stats.idle());
+        Assertions.assertEquals(0, stats.inUse());
+    }
+
+    @Test
+    @DisplayName("Acquire Times Out When Exhausted")
+    public void acquireTimeout() throws Exception {
+        var pool = newPool(1, 50, 60_000);
+        try (var ignored = pool.acquire()) {
+            Assertions.assertThrows(DataAccessException.class, pool::acquire);
+        }
+        Assertions.assertEquals(1, pool.stats().timeouts());
+        Assertions.assertDoesNotThrow(() -> pool.acquire().close(), "Connection was not released after close");
+    }
+
+    @Test
+    @DisplayName("Invalid Connections Are Replaced")
+    public void invalidReplaced() throws Exception {
+        var pool = newPool(1, 100, 60_000);
+        pool.acquire().close();
+        physical.get(0).valid.set(false);
+
+        pool.acquire().close();
+
+        Assertions.assertEquals(2, physical.size(), "Invalid connection was handed out again");
+        Assertions.assertFalse(physical.get(0).open.get(), "Invalid connection was not closed");
+    }
+
+    @Test
+    @DisplayName("Expired Connections Are Retired")
+    public void expiredRetired() throws Exception {
+        var pool = newPool(1, 100, 0);
+        pool.acquire().close();
+        pool.acquire().close();
+
+        Assertions.assertEquals(2, physical.size(), "Connection past its lifetime was reused");
+        Assertions.assertEquals(2, pool.stats().retired());
+    }
+
+    @Test
+    @DisplayName("Open Transaction Is Rolled Back On Return")
+    public void rollbackOnReturn() throws Exception {
+        var pool = newPool(1, 100, 60_000);
+        var conn = pool.acquire();
+        conn.setAutoCommit(false);
+        conn.close();
+
+        Assertions.assertTrue(physical.get(0).rolledBack, "Unfinished transaction was not rolled back");
+        Assertions.assertTrue(physical.get(0).autoCommit.get(), "Auto-commit was not restored");
+        Assertions.assertThrows(SQLException.class, () -> conn.prepareStatement("SELECT 1"),
+                "Closed wrapper still usable");
+    }
+}
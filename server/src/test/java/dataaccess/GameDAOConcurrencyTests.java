@@ -0,0 +1,141 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import model.AuthData;
+import model.GameData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import service.AuthService;
+import service.GameService;
+import service.ResponseException;
+import service.SignedTokens;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hammers joins and moves on a handful of games from many threads at once and checks
+ * that every color and every move is won exactly once
+ */
+public class GameDAOConcurrencyTests {
+
+    private static final int GAMES = 20;
+    private static final int CLIENTS = 2000;
+
+    private GameDAO gameDAO;
+    private AuthService authService;
+    private GameService gameService;
+
+    protected GameDAO newGameDAO() throws DataAccessException {
+        return new MySqlGameDAO();
+    }
+
+    @BeforeEach
+    public void setup() throws Exception {
+        try {
+            gameDAO = newGameDAO();
+        } catch (DataAccessException | RuntimeException ex) {
+            Assumptions.assumeTrue(false, "database not available: " + ex.getMessage());
+        }
+        gameDAO.clear();
+        byte[] key = new byte[32];
+        Arrays.fill(key, (byte) 5);
+        authService = new AuthService(new SignedTokens(key, 60_000));
+        gameService = new GameService(gameDAO, authService);
+    }
+
+    @Test
+    @DisplayName("Each Color Is Claimed Once")
+    public void concurrentJoins() throws Exception {
+        List<Integer> gameIDs = new ArrayList<>();
+        for (int i = 0; i < GAMES; i++) {
+            gameIDs.add(gameDAO.createGame("game" + i));
+        }
+
+        var winners = new ConcurrentHashMap<String, String>();
+        var refused = new AtomicInteger();
+        runTogether(CLIENTS, client -> {
+            String username = "player" + client;
+            AuthData auth = authService.createAuth(username);
+            int gameID = gameIDs.get(client % GAMES);
+            var color = (client / GAMES) % 2 == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            try {
+                gameService.joinGame(auth.authToken(), color, gameID);
+                String previous = winners.putIfAbsent(gameID + "/" + color, username);
+                Assertions.assertNull(previous, "Two players were given " + color + " in game " + gameID);
+            } catch (ResponseException ex) {
+                Assertions.assertEquals(403, ex.statusCode(), ex.getMessage());
+                refused.incrementAndGet();
+            }
+        });
+
+        Assertions.assertEquals(GAMES * 2, winners.size(), "Some colors were never claimed");
+        Assertions.assertEquals(CLIENTS - GAMES * 2, refused.get());
+        for (int gameID : gameIDs) {
+            GameData game = gameDAO.getGame(gameID);
+            Assertions.assertEquals(winners.get(gameID + "/WHITE"), game.whiteUsername());
+            Assertions.assertEquals(winners.get(gameID + "/BLACK"), game.blackUsername());
+        }
+    }
+
+    @Test
+    @DisplayName("A Move Is Applied Once")
+    public void concurrentMoves() throws Exception {
+        int gameID = gameDAO.createGame("race");
+        AuthData white = authService.createAuth("white");
+        AuthData black = authService.createAuth("black");
+        gameService.joinGame(white.authToken(), ChessGame.TeamColor.WHITE, gameID);
+        gameService.joinGame(black.authToken(), ChessGame.TeamColor.BLACK, gameID);
+        var e4 = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+
+        var applied = new AtomicInteger();
+        runTogether(200, client -> {
+            try {
+                gameService.makeMove(white.authToken(), gameID, e4);
+                applied.incrementAndGet();
+            } catch (ResponseException ex) {
+                Assertions.assertEquals(403, ex.statusCode(), ex.getMessage());
+            }
+        });
+
+        Assertions.assertEquals(1, applied.get(), "The same move was played more than once");
+        ChessGame game = gameDAO.getGame(gameID).game();
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        Assertions.assertNotNull(game.getBoard().getPiece(new ChessPosition(4, 5)));
+    }
+
+    private interface Client {
+        void run(int client) throws Exception;
+    }
+
+    private static void runTogether(int clients, Client body) throws Exception {
+        var start = new CountDownLatch(1);
+        var futures = new ArrayList<Future<?>>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                int client = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    body.run(client);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package dataaccess;
+
+public class MemoryGameDAOConcurrencyTests extends GameDAOConcurrencyTests {
+
+    @Override
+    protected GameDAO newGameDAO() {
+        return new MemoryGameDAO();
+    }
+}
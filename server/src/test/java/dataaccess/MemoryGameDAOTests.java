@@ -0,0 +1,143 @@
+package dataaccess;
+
+import model.GameData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class MemoryGameDAOTests {
+
+    @Test
+    @DisplayName("Games Across Many Chunks")
+    public void manyGames() {
+        var dao = new MemoryGameDAO();
+        for (int i = 0; i < 5000; i++) {
+            Assertions.assertEquals(i + 1, dao.createGame("game" + i));
+        }
+
+        Assertions.assertEquals(5000, dao.listGames().size());
+        Assertions.assertEquals("game4999", dao.getGame(5000).gameName());
+        Assertions.assertNull(dao.getGame(5001));
+        Assertions.assertNull(dao.getGame(0));
+        Assertions.assertNull(dao.getGame(-1));
+        Assertions.assertNull(dao.getGame(Integer.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("Concurrent Creates Get Unique IDs")
+    public void concurrentCreates() {
+        var dao = new MemoryGameDAO();
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 10_000; i++) {
+                executor.execute(() -> ids.add(dao.createGame("game")));
+            }
+        }
+        Assertions.assertEquals(10_000, ids.size());
+        Assertions.assertEquals(10_000, dao.listGames().size());
+    }
+
+    @Test
+    @DisplayName("Update Missing Game")
+    public void updateMissing() {
+        var dao = new MemoryGameDAO();
+        Assertions.assertNull(dao.updateGame(1, game -> game.withWhiteUsername("alice")));
+        Assertions.assertNull(dao.updateGame(1 << 20, game -> game.withWhiteUsername("alice")));
+    }
+
+    @Test
+    @DisplayName("Clear Does Not Reuse IDs")
+    public void clear() {
+        var dao = new MemoryGameDAO();
+        int first = dao.createGame("before");
+        dao.clear();
+
+        Assertions.assertTrue(dao.listGames().isEmpty());
+        Assertions.assertNull(dao.getGame(first));
+        int second = dao.createGame("after");
+        Assertions.assertNotEquals(first, second);
+        Set<String> names = new HashSet<>();
+        for (GameData game : dao.listGames()) {
+            names.add(game.gameName());
+        }
+        Assertions.assertEquals(Set.of("after"), names);
+    }
+
+    @Test
+    @DisplayName("Listing Pages Through Games In Order")
+    public void listPages() {
+        var dao = new MemoryGameDAO();
+        for (int i = 0; i < 2500; i++) {
+            dao.createGame("game" + i);
+        }
+        var listed = new HashSet<Integer>();
+        int after = 0;
+        while (true) {
+            List<GameData> page = dao.listGames(new GameDAO.ListQuery(after, 700, false, null, false));
+            if (page.isEmpty()) {
+                break;
+            }
+            for (GameData game : page) {
+                Assertions.assertTrue(game.gameID() > after, "Page went backwards");
+                after = game.gameID();
+                listed.add(after);
+            }
+        }
+        Assertions.assertEquals(2500, listed.size());
+        Assertions.assertTrue(dao.listGames(new GameDAO.ListQuery(Integer.MAX_VALUE, 700, false, null, false)).isEmpty(),
+                "Listing after the last possible ID started over");
+    }
+
+    @Test
+    @DisplayName("Listing Filters")
+    public void listFilters() {
+        var dao = new MemoryGameDAO();
+        int empty = dao.createGame("empty");
+        int half = dao.createGame("half");
+        int full = dao.createGame("full");
+        int over = dao.createGame("over");
+        dao.updateGame(half, game -> game.withWhiteUsername("alice"));
+        dao.updateGame(full, game -> game.withWhiteUsername("bob").withBlackUsername("alice"));
+        dao.updateGame(over, game -> {
+            var chess = game.game().copy();
+            chess.setGameOver(true);
+            return game.withWhiteUsername("bob").withBlackUsername("carol").withGame(chess);
+        });
+
+        Assertions.assertEquals(List.of(empty, half), ids(dao.listGames(new GameDAO.ListQuery(0, 10, true, null, false))));
+        Assertions.assertEquals(List.of(half, full), ids(dao.listGames(new GameDAO.ListQuery(0, 10, false, "alice", false))));
+        Assertions.assertEquals(List.of(full), ids(dao.listGames(new GameDAO.ListQuery(0, 10, false, null, true))));
+        Assertions.assertEquals(List.of(over), ids(dao.listGames(new GameDAO.ListQuery(full, 10, false, "bob", false))));
+    }
+
+    @Test
+    @DisplayName("Listing Version Moves Only When Listings Change")
+    public void listingVersion() {
+        var dao = new MemoryGameDAO();
+        long start = dao.listingVersion();
+        int gameID = dao.createGame("game");
+        long created = dao.listingVersion();
+        Assertions.assertTrue(created > start, "Create did not move the version");
+
+        dao.updateGame(gameID, game -> game.withGame(game.game().copy()));
+        Assertions.assertEquals(created, dao.listingVersion(), "A board change moved the version");
+
+        dao.updateGame(gameID, game -> game.withWhiteUsername("alice"));
+        long joined = dao.listingVersion();
+        Assertions.assertTrue(joined > created, "Join did not move the version");
+
+        dao.clear();
+        Assertions.assertTrue(dao.listingVersion() > joined, "Clear did not move the version");
+    }
+
+    private static List<Integer> ids(List<GameData> games) {
+        return games.stream().map(GameData::gameID).toList();
+    }
+}
@@ -0,0 +1,116 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.notation.Fen;
+import chess.notation.San;
+import model.GameData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MySqlGameDAOTests {
+
+    private static final int SNAPSHOT_INTERVAL = 8;
+
+    private MySqlGameDAO gameDAO;
+
+    @BeforeEach
+    public void setup() throws DataAccessException {
+        try {
+            gameDAO = new MySqlGameDAO(SNAPSHOT_INTERVAL);
+        } catch (DataAccessException | RuntimeException ex) {
+            Assumptions.assumeTrue(false, "database not available: " + ex.getMessage());
+        }
+        gameDAO.clear();
+    }
+
+    @Test
+    @DisplayName("Moves Replay From Latest Snapshot")
+    public void replayFromSnapshot() throws Exception {
+        int gameID = gameDAO.createGame("replay");
+        List<ChessMove> played = new ArrayList<>();
+        var expected = new ChessGame();
+        // knights out and back, then a king's pawn game, crossing several snapshots
+        String[] moves = {"Nf3", "Nf6", "Ng1", "Ng8", "Nf3", "Nf6", "Ng1", "Ng8", "Nc3", "Nc6", "Nb1", "Nb8",
+                "e4", "d5", "exd5", "c6", "dxc6", "Qb6", "cxb7"};
+        for (String san : moves) {
+            ChessMove move = San.parse(expected, san);
+            expected.makeMove(move);
+            played.add(move);
+            gameDAO.applyMove(gameID, move, game -> game.withGame(playOn(game.game(), move)));
+
+            Assertions.assertEquals(Fen.format(expected), Fen.format(gameDAO.getGame(gameID).game()),
+                    "Wrong position after " + san);
+        }
+
+        Assertions.assertEquals(played, gameDAO.moveHistory(gameID));
+        GameData listed = gameDAO.listGames().iterator().next();
+        Assertions.assertEquals(Fen.format(expected), Fen.format(listed.game()));
+    }
+
+    @Test
+    @DisplayName("Join After Moves Keeps Board")
+    public void joinAfterMoves() throws Exception {
+        int gameID = gameDAO.createGame("join");
+        var expected = new ChessGame();
+        for (String san : new String[]{"e4", "e5", "Nf3"}) {
+            ChessMove move = San.parse(expected, san);
+            expected.makeMove(move);
+            gameDAO.applyMove(gameID, move, game -> game.withGame(playOn(game.game(), move)));
+        }
+
+        gameDAO.updateGame(gameID, game -> game.withBlackUsername("bob"));
+
+        GameData game = gameDAO.getGame(gameID);
+        Assertions.assertEquals("bob", game.blackUsername());
+        Assertions.assertEquals(Fen.format(expected), Fen.format(game.game()), "Join replayed or lost moves");
+    }
+
+    @Test
+    @DisplayName("Listing Filters Without Boards")
+    public void listFilters() throws Exception {
+        int open = gameDAO.createGame("open");
+        int full = gameDAO.createGame("full");
+        int over = gameDAO.createGame("over");
+        gameDAO.updateGame(full, game -> game.withWhiteUsername("alice").withBlackUsername("bob"));
+        long joined = gameDAO.listingVersion();
+        gameDAO.updateGame(over, game -> {
+            var chess = game.game().copy();
+            chess.setGameOver(true);
+            return game.withWhiteUsername("bob").withBlackUsername("carol").withGame(chess);
+        });
+        Assertions.assertTrue(gameDAO.listingVersion() > joined, "Game end did not move the version");
+
+        List<GameData> page = gameDAO.listGames(new GameDAO.ListQuery(0, 2, false, null, false));
+        Assertions.assertEquals(List.of(open, full), page.stream().map(GameData::gameID).toList());
+        Assertions.assertEquals(List.of(open),
+                gameDAO.listGames(new GameDAO.ListQuery(0, 10, true, null, false)).stream().map(GameData::gameID).toList());
+        Assertions.assertEquals(List.of(full),
+                gameDAO.listGames(new GameDAO.ListQuery(0, 10, false, null, true)).stream().map(GameData::gameID).toList());
+        Assertions.assertEquals(List.of(over),
+                gameDAO.listGames(new GameDAO.ListQuery(full, 10, false, "bob", false)).stream().map(GameData::gameID).toList());
+    }
+
+    @Test
+    @DisplayName("Snapshot Interval Must Be Positive")
+    public void badSnapshotInterval() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MySqlGameDAO(0));
+    }
+
+    private static ChessGame playOn(ChessGame game, ChessMove move) {
+        ChessGame next = game.copy();
+        try {
+            next.makeMove(move);
+        } catch (InvalidMoveException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return next;
+    }
+}
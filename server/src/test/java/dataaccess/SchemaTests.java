@@ -0,0 +1,51 @@
+package dataaccess;
+
+import model.AuthData;
+import model.UserData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SchemaTests {
+
+    @BeforeEach
+    public void setup() {
+        try {
+            Schema.bootstrap();
+        } catch (DataAccessException | RuntimeException ex) {
+            Assumptions.assumeTrue(false, "database not available: " + ex.getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("Migrations Are Recorded Once")
+    public void migrationsRecorded() throws Exception {
+        Schema.bootstrap();
+        try (var conn = DatabaseManager.getConnection();
+             var statement = conn.prepareStatement("SELECT COUNT(*), MAX(version) FROM schema_version");
+             var rs = statement.executeQuery()) {
+            rs.next();
+            Assertions.assertEquals(Schema.latestVersion(), rs.getInt(1), "A migration was applied twice");
+            Assertions.assertEquals(Schema.latestVersion(), rs.getInt(2));
+        }
+    }
+
+    @Test
+    @DisplayName("Clear All Empties Every Table")
+    public void clearAll() throws Exception {
+        new MySqlUserDAO().createUser(new UserData("alice", "hash", "a@b.c"));
+        new MySqlAuthDAO().createAuth(new AuthData("token", "alice"));
+        var games = new MySqlGameDAO();
+        games.createGame("before");
+
+        Schema.clearAll();
+
+        Assertions.assertNull(new MySqlUserDAO().getUser("alice"));
+        Assertions.assertNull(new MySqlAuthDAO().getAuth("token"));
+        Assertions.assertTrue(games.listGames().isEmpty());
+        Assertions.assertEquals(1, games.createGame("after"), "Game IDs did not restart");
+        Schema.clearAll();
+    }
+}
@@ -0,0 +1,256 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.notation.San;
+import model.GameData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+public class WriteBehindGameDAOTests {
+
+    /**
+     * Keeps written games and moves in memory and records each batch
+     */
+    private static class FakeStore implements BatchGameStore {
+        final Map<Integer, Stored> games = new HashMap<>();
+        final Map<Integer, List<ChessMove>> moveLog = new HashMap<>();
+        final List<List<GameWrite>> batches = new ArrayList<>();
+        boolean failNext;
+        int nextID = 1;
+        long listingVersion;
+
+        @Override
+        public synchronized int createGame(String gameName) {
+            int gameID = nextID++;
+            games.put(gameID, new Stored(new GameData(gameID, null, null, gameName, new ChessGame()), 0, 0, 0));
+            moveLog.put(gameID, new ArrayList<>());
+            listingVersion++;
+            return gameID;
+        }
+
+        @Override
+        public synchronized GameData getGame(int gameID) {
+            Stored stored = games.get(gameID);
+            return stored == null ? null : stored.game();
+        }
+
+        @Override
+        public synchronized Collection<GameData> listGames() {
+            return games.values().stream().map(Stored::game).toList();
+        }
+
+        @Override
+        public synchronized long listingVersion() {
+            return listingVersion;
+        }
+
+        @Override
+        public GameData updateGame(int gameID, UnaryOperator<GameData> update) {
+            throw new UnsupportedOperationException("write-behind should only write in batches");
+        }
+
+        @Override
+        public synchronized void clear() {
+            games.clear();
+            moveLog.clear();
+        }
+
+        @Override
+        public synchronized Stored readStored(int gameID) {
+            return games.get(gameID);
+        }
+
+        @Override
+        public synchronized void writeBatch(List<GameWrite> writes) throws DataAccessException {
+            if (failNext) {
+                failNext = false;
+                throw new DataAccessException("database went away");
+            }
+            batches.add(writes);
+            for (GameWrite write : writes) {
+                if (write.listingChanged()) {
+                    listingVersion++;
+                }
+                List<ChessMove> log = moveLog.get(write.game().gameID());
+                Assertions.assertEquals(write.ply() - write.moves().size(), log.size(), "Moves written out of order");
+                log.addAll(write.moves());
+                games.put(write.game().gameID(), new Stored(write.game(), write.ply(), write.ply(), 0));
+            }
+        }
+
+        synchronized int movesWritten(int gameID) {
+            return moveLog.get(gameID).size();
+        }
+    }
+
+    private final FakeStore store = new FakeStore();
+    private WriteBehindGameDAO gameDAO;
+
+    @AfterEach
+    public void tearDown() throws DataAccessException {
+        if (gameDAO != null) {
+            gameDAO.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Moves Are Written In One Batch")
+    public void batchedMoves() throws Exception {
+        gameDAO = new WriteBehindGameDAO(store, 3_600_000, WriteBehindGameDAO.Durability.ASYNC);
+        int first = gameDAO.createGame("first");
+        int second = gameDAO.createGame("second");
+
+        play(first, "e4", "e5", "Nf3");
+        play(second, "d4");
+        Assertions.assertEquals(0, store.movesWritten(first), "Move written before the flush");
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, gameDAO.getGame(first).game().getTeamTurn());
+        Assertions.assertEquals(2, gameDAO.pending());
+
+        gameDAO.flush();
+
+        Assertions.assertEquals(1, store.batches.size());
+        Assertions.assertEquals(3, store.movesWritten(first));
+        Assertions.assertEquals(1, store.movesWritten(second));
+        Assertions.assertEquals(0, gameDAO.pending());
+    }
+
+    @Test
+    @DisplayName("Game End And Joins Are Written Immediately")
+    public void syncForGameEnd() throws Exception {
+        gameDAO = new WriteBehindGameDAO(store, 3_600_000, WriteBehindGameDAO.Durability.ASYNC);
+        int gameID = gameDAO.createGame("fools mate");
+
+        gameDAO.updateGame(gameID, game -> game.withWhiteUsername("alice"));
+        Assertions.assertEquals("alice", store.getGame(gameID).whiteUsername());
+
+        play(gameID, "f3", "e5", "g4");
+        Assertions.assertEquals(0, store.movesWritten(gameID));
+        play(gameID, "Qh4#");
+        Assertions.assertEquals(4, store.movesWritten(gameID), "Checkmate was not written straight away");
+    }
+
+    @Test
+    @DisplayName("Sync Mode Writes Every Move")
+    public void syncMode() throws Exception {
+        gameDAO = new WriteBehindGameDAO(store, 3_600_000, WriteBehindGameDAO.Durability.SYNC);
+        int gameID = gameDAO.createGame("sync");
+
+        play(gameID, "e4");
+        Assertions.assertEquals(1, store.movesWritten(gameID));
+        play(gameID, "c5");
+        Assertions.assertEquals(2, store.movesWritten(gameID));
+    }
+
+    @Test
+    @DisplayName("Failed Batch Is Retried")
+    public void failedBatchRetried() throws Exception {
+        gameDAO = new WriteBehindGameDAO(store, 3_600_000, WriteBehindGameDAO.Durability.ASYNC);
+        int gameID = gameDAO.createGame("retry");
+        play(gameID, "e4", "e5");
+
+        store.failNext = true;
+        Assertions.assertThrows(DataAccessException.class, gameDAO::flush);
+        Assertions.assertNotNull(gameDAO.lastFailure());
+        play(gameID, "Nf3");
+        gameDAO.flush();
+
+        Assertions.assertNull(gameDAO.lastFailure());
+        Assertions.assertEquals(3, store.movesWritten(gameID));
+    }
+
+    @Test
+    @DisplayName("Failed Join Is Not Written Later")
+    public void failedJoinRolledBack() throws Exception {
+        gameDAO = new WriteBehindGameDAO(store, 3_600_000, WriteBehindGameDAO.Durability.ASYNC);
+        int gameID = gameDAO.createGame("rollback");
+        play(gameID, "e4");
+
+        store.failNext = true;
+        Assertions.assertThrows(DataAccessException.class,
+                () -> gameDAO.updateGame(gameID, game -> game.withWhiteUsername("alice")));
+        Assertions.assertNull(gameDAO.getGame(gameID).whiteUsername(), "Failed join is still cached");
+
+        gameDAO.flush();
+        Assertions.assertNull(store.getGame(gameID).whiteUsername(), "Failed join was written later");
+        Assertions.assertEquals(1, store.movesWritten(gameID), "Move queued before the join was lost");
+    }
+
+    @Test
+    @DisplayName("Failed Game-Ending Move Is Taken Back")
+    public void failedMateRolledBack() throws Exception {
+        gameDAO = new WriteBehindGameDAO(store, 3_600_000, WriteBehindGameDAO.Durability.ASYNC);
+        int gameID = gameDAO.createGame("rollback mate");
+        play(gameID, "f3", "e5", "g4");
+
+        store.failNext = true;
+        Assertions.assertThrows(DataAccessException.class, () -> play(gameID, "Qh4#"));
+        Assertions.assertFalse(gameDAO.getGame(gameID).game().isGameOver(), "Failed mate is still cached");
+
+        gameDAO.flush();
+        Assertions.assertEquals(3, store.movesWritten(gameID));
+        play(gameID, "Qh4#");
+        Assertions.assertEquals(4, store.movesWritten(gameID));
+        Assertions.assertTrue(store.getGame(gameID).game().isGameOver());
+    }
+
+    @Test
+    @DisplayName("Background Flush And Close")
+    public void backgroundFlushAndClose() throws Exception {
+        gameDAO = new WriteBehindGameDAO(store, 5, WriteBehindGameDAO.Durability.ASYNC);
+        int gameID = gameDAO.createGame("background");
+        play(gameID, "e4");
+        for (int i = 0; i < 200 && store.movesWritten(gameID) == 0; i++) {
+            Thread.sleep(5);
+        }
+        Assertions.assertEquals(1, store.movesWritten(gameID), "Background flush never ran");
+
+        play(gameID, "e5");
+        gameDAO.close();
+        Assertions.assertEquals(2, store.movesWritten(gameID), "Close did not flush");
+        Assertions.assertThrows(DataAccessException.class, () -> play(gameID, "Nf3"));
+    }
+
+    @Test
+    @DisplayName("Joins Move The Listing Version And Moves Do Not")
+    public void listingVersion() throws Exception {
+        gameDAO = new WriteBehindGameDAO(store, 3_600_000, WriteBehindGameDAO.Durability.ASYNC);
+        int gameID = gameDAO.createGame("listed");
+        long created = gameDAO.listingVersion();
+
+        play(gameID, "e4");
+        gameDAO.flush();
+        Assertions.assertEquals(created, gameDAO.listingVersion(), "A move moved the version");
+
+        gameDAO.updateGame(gameID, game -> game.withBlackUsername("bob"));
+        Assertions.assertTrue(gameDAO.listingVersion() > created, "Join did not move the version");
+    }
+
+    private void play(int gameID, String... moves) throws DataAccessException {
+        for (String san : moves) {
+            ChessMove move = San.parse(gameDAO.getGame(gameID).game(), san);
+            gameDAO.applyMove(gameID, move, game -> {
+                ChessGame next = game.game().copy();
+                try {
+                    next.makeMove(move);
+                } catch (InvalidMoveException ex) {
+                    throw new IllegalStateException(ex);
+                }
+                // as GameService does, so the end of the game is seen
+                ChessGame.TeamColor turn = next.getTeamTurn();
+                next.setGameOver(next.isInCheckmate(turn) || next.isInStalemate(turn));
+                return game.withGame(next);
+            });
+        }
+    }
+}
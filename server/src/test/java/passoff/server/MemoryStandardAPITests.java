@@ -0,0 +1,19 @@
+package passoff.server;
+
+import org.junit.jupiter.api.AfterAll;
+
+/**
+ * Runs the standard API tests against a server using in-memory storage
+ */
+public class MemoryStandardAPITests extends StandardAPITests {
+
+    static {
+        // set before StandardAPITests.init creates the server
+        System.setProperty("chess.server.storage", "memory");
+    }
+
+    @AfterAll
+    static void restoreStorage() {
+        System.clearProperty("chess.server.storage");
+    }
+}
@@ -0,0 +1,19 @@
+package passoff.server;
+
+import org.junit.jupiter.api.AfterAll;
+
+/**
+ * Runs the websocket tests against a server using in-memory storage
+ */
+public class MemoryWebSocketTests extends WebSocketTests {
+
+    static {
+        // set before WebSocketTests.init creates the server
+        System.setProperty("chess.server.storage", "memory");
+    }
+
+    @AfterAll
+    static void restoreStorage() {
+        System.clearProperty("chess.server.storage");
+    }
+}
@@ -0,0 +1,97 @@
+package server;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares throughput and latency of the two {@link Server.ExecutionMode}s under a
+ * blocking workload.
+ * <p>
+ * Each request is served by a handler that sleeps, standing in for a JDBC round trip or
+ * a bcrypt hash. With more concurrent clients than Jetty has platform threads, the
+ * platform pool queues requests while the virtual mode keeps serving them. The servers
+ * use in-memory storage, so no database is needed and none is measured.
+ * <p>
+ * Run with {@code mvn -pl server test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=server.ExecutionModeLoadBenchmark -Dexec.args="clients seconds blockMillis"}
+ */
+public class ExecutionModeLoadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int blockMillis = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+
+        System.out.printf("%d clients, %d s per mode, handlers block %d ms%n", clients, seconds, blockMillis);
+        for (Server.ExecutionMode mode : Server.ExecutionMode.values()) {
+            System.out.println(run(mode, clients, seconds, blockMillis));
+        }
+    }
+
+    private static String run(Server.ExecutionMode mode, int clients, int seconds, int blockMillis) throws Exception {
+        Server server = new Server(mode, Server.Storage.MEMORY);
+        server.javalin().get("/benchmark/block", ctx -> {
+            Thread.sleep(blockMillis);
+            ctx.result("ok");
+        });
+        int port = server.run(0);
+
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/benchmark/block"))
+                .timeout(Duration.ofSeconds(30)).build();
+
+        long[] latencies = new long[clients * seconds * (1000 / Math.max(blockMillis, 1) + 1)];
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                workers.execute(() -> {
+                    while (System.nanoTime() < end) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                failed.incrementAndGet();
+                                continue;
+                            }
+                        }
+                        catch (Exception e) {
+                            failed.incrementAndGet();
+                            continue;
+                        }
+                        int slot = completed.getAndIncrement();
+                        if (slot < latencies.length) {
+                            latencies[slot] = System.nanoTime() - start;
+                        }
+                    }
+                });
+            }
+        }
+        finally {
+            server.stop();
+        }
+
+        int count = Math.min(completed.get(), latencies.length);
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return String.format("%-8s %8.0f req/s  p50 %6.1f ms  p99 %6.1f ms  failed %d", mode,
+                completed.get() / (double) seconds, percentile(sorted, 0.50), percentile(sorted, 0.99), failed.get());
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,325 @@
+package server;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the HTTP endpoints at fixed arrival rates and reports throughput and latency
+ * for each.
+ * <p>
+ * The load is open-loop: each endpoint has a schedule of when its requests are due, and
+ * a request is sent when it is due whether or not earlier ones have come back, the way
+ * independent users would. Latency is measured from when a request was due rather than
+ * when it was sent, so a server that falls behind is charged for the queueing it causes
+ * instead of quietly being sent less work.
+ * <p>
+ * Before the clock starts, a pool of users is registered and logged in and some games
+ * are created, so listing and joining have something to work with. Register and login
+ * add to the tokens that logout spends, and create adds the seats that join fills; a
+ * request with nothing to work on is counted as skipped.
+ * <p>
+ * The server is started in-process, with the storage chosen by
+ * {@code chess.server.storage} ("memory" or "mysql") and the threads by
+ * {@code chess.server.threads}, unless {@code chess.load.url} names a server that is
+ * already running. Either way the database is cleared first. Registering and logging in
+ * hash passwords, so {@code chess.bcrypt.rounds} decides what those two cost.
+ * <p>
+ * Run with {@code mvn -pl server test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=server.HttpLoadGenerator -Dexec.args="seconds rates [results.json]"}, where
+ * rates is a comma-separated list such as {@code register=20,login=20,create=50,list=500,join=50,logout=20};
+ * endpoints left out are not driven
+ */
+public class HttpLoadGenerator {
+
+    private enum Endpoint {
+        REGISTER,
+        LOGIN,
+        CREATE,
+        LIST,
+        JOIN,
+        LOGOUT
+    }
+
+    /**
+     * What one endpoint did during the run, for the JSON results
+     */
+    private record EndpointResult(double rate, long sent, long ok, long failed, long skipped, double throughput,
+                                  LatencyHistogram.Summary latency) {
+    }
+
+    private record Results(String url, String storage, String threads, int seconds,
+                           Map<Endpoint, EndpointResult> endpoints) {
+    }
+
+    private record Seat(int gameID, String color) {
+    }
+
+    private static final Gson GSON = new Gson();
+    private static final String DEFAULT_RATES = "register=20,login=20,create=50,list=500,join=50,logout=20";
+    private static final String PASSWORD = "password";
+    private static final int SEED_USERS = 200;
+    private static final int SEED_GAMES = 500;
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        Map<Endpoint, Double> rates = parseRates(args.length > 1 ? args[1] : DEFAULT_RATES);
+        Path output = args.length > 2 ? Path.of(args[2]) : null;
+
+        String url = System.getProperty("chess.load.url");
+        Server server = null;
+        if (url == null) {
+            server = new Server();
+            url = "http://localhost:" + server.run(0);
+        }
+        Results results;
+        try {
+            var load = new HttpLoadGenerator(url);
+            load.seed();
+            System.out.printf("%s, %d s at %s%n", url, seconds, rates);
+            results = new Results(url, server == null ? "remote" : server.getStorage().name(),
+                    server == null ? "remote" : server.getExecutionMode().name(), seconds, load.run(rates, seconds));
+        } finally {
+            if (server != null) {
+                if (server.getDatabasePoolStats() != null) {
+                    System.out.println(server.getDatabasePoolStats());
+                }
+                server.stop();
+            }
+        }
+
+        results.endpoints().forEach((endpoint, result) -> System.out.printf(
+                "%-8s %8.1f/s  ok %7d  failed %5d  skipped %5d  %s%n", endpoint, result.throughput(), result.ok(),
+                result.failed(), result.skipped(), result.latency()));
+        if (output != null) {
+            Files.writeString(output, new GsonBuilder().setPrettyPrinting().serializeSpecialFloatingPointValues()
+                    .create().toJson(results));
+            System.out.println("Wrote " + output);
+        }
+    }
+
+    private static Map<Endpoint, Double> parseRates(String spec) {
+        var rates = new LinkedHashMap<Endpoint, Double>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected endpoint=rate, got " + entry);
+            }
+            double rate = Double.parseDouble(parts[1].trim());
+            if (rate > 0) {
+                rates.put(Endpoint.valueOf(parts[0].trim().toUpperCase()), rate);
+            }
+        }
+        return rates;
+    }
+
+    private final String url;
+    private final HttpClient http = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    private final String prefix = "http" + Long.toString(System.nanoTime(), 36);
+    private final AtomicInteger users = new AtomicInteger();
+    private final List<String> seedUsers = new ArrayList<>();
+    private final List<String> seedTokens = new ArrayList<>();
+    private final ConcurrentLinkedQueue<String> spareTokens = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Seat> openSeats = new ConcurrentLinkedQueue<>();
+
+    private HttpLoadGenerator(String url) {
+        this.url = url;
+    }
+
+    /**
+     * Clears the database and sets up the users and games the run works on
+     */
+    private void seed() throws Exception {
+        call("DELETE", "/db", null, null);
+        try (ExecutorService setup = Executors.newFixedThreadPool(16)) {
+            var registered = new ArrayList<Future<String[]>>();
+            for (int i = 0; i < SEED_USERS; i++) {
+                registered.add(setup.submit(() -> {
+                    String username = newUsername();
+                    return new String[] {username, register(username)};
+                }));
+            }
+            for (Future<String[]> user : registered) {
+                seedUsers.add(user.get()[0]);
+                seedTokens.add(user.get()[1]);
+            }
+            var created = new ArrayList<Future<?>>();
+            for (int i = 0; i < SEED_GAMES; i++) {
+                created.add(setup.submit(() -> createGame(randomSeedToken())));
+            }
+            for (Future<?> game : created) {
+                game.get();
+            }
+        }
+    }
+
+    private Map<Endpoint, EndpointResult> run(Map<Endpoint, Double> rates, int seconds) throws InterruptedException {
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        var drivers = new LinkedHashMap<Endpoint, Driver>();
+        rates.forEach((endpoint, rate) -> drivers.put(endpoint, new Driver(endpoint, rate)));
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            var schedulers = new ArrayList<Thread>();
+            for (Driver driver : drivers.values()) {
+                schedulers.add(Thread.ofPlatform().name("load-" + driver.endpoint).start(
+                        () -> driver.schedule(requests, start, end)));
+            }
+            for (Thread scheduler : schedulers) {
+                scheduler.join();
+            }
+        }
+        double elapsed = (end - start) / 1e9;
+        var results = new LinkedHashMap<Endpoint, EndpointResult>();
+        drivers.forEach((endpoint, driver) -> results.put(endpoint, new EndpointResult(driver.rate,
+                driver.sent.get(), driver.ok.get(), driver.failed.get(), driver.skipped.get(),
+                driver.ok.get() / elapsed, driver.latencies.summary())));
+        return results;
+    }
+
+    /**
+     * Sends one endpoint's requests on schedule
+     */
+    private class Driver {
+        final Endpoint endpoint;
+        final double rate;
+        final LatencyHistogram latencies = new LatencyHistogram();
+        final AtomicLong sent = new AtomicLong();
+        final AtomicLong ok = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong skipped = new AtomicLong();
+
+        Driver(Endpoint endpoint, double rate) {
+            this.endpoint = endpoint;
+            this.rate = rate;
+        }
+
+        void schedule(ExecutorService requests, long start, long end) {
+            double intervalNanos = 1e9 / rate;
+            for (long i = 0; ; i++) {
+                long due = start + (long) (i * intervalNanos);
+                if (due >= end) {
+                    return;
+                }
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                sent.incrementAndGet();
+                requests.execute(() -> send(due));
+            }
+        }
+
+        private void send(long due) {
+            try {
+                if (!perform(endpoint)) {
+                    skipped.incrementAndGet();
+                    return;
+                }
+                ok.incrementAndGet();
+                latencies.record(System.nanoTime() - due);
+            } catch (IOException | RuntimeException ex) {
+                failed.incrementAndGet();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return false if there was nothing for the request to work on
+     */
+    private boolean perform(Endpoint endpoint) throws IOException, InterruptedException {
+        switch (endpoint) {
+            case REGISTER -> spareTokens.add(register(newUsername()));
+            case LOGIN -> {
+                var login = new JsonObject();
+                login.addProperty("username", seedUsers.get(ThreadLocalRandom.current().nextInt(seedUsers.size())));
+                login.addProperty("password", PASSWORD);
+                spareTokens.add(call("POST", "/session", null, login).get("authToken").getAsString());
+            }
+            case CREATE -> createGame(randomSeedToken());
+            case LIST -> call("GET", "/game", randomSeedToken(), null);
+            case JOIN -> {
+                Seat seat = openSeats.poll();
+                if (seat == null) {
+                    return false;
+                }
+                var join = new JsonObject();
+                join.addProperty("playerColor", seat.color());
+                join.addProperty("gameID", seat.gameID());
+                call("PUT", "/game", randomSeedToken(), join);
+            }
+            case LOGOUT -> {
+                String token = spareTokens.poll();
+                if (token == null) {
+                    return false;
+                }
+                call("DELETE", "/session", token, null);
+            }
+        }
+        return true;
+    }
+
+    private String newUsername() {
+        return prefix + "-" + users.incrementAndGet();
+    }
+
+    private String register(String username) throws IOException, InterruptedException {
+        var user = new JsonObject();
+        user.addProperty("username", username);
+        user.addProperty("password", PASSWORD);
+        user.addProperty("email", username + "@example.com");
+        return call("POST", "/user", null, user).get("authToken").getAsString();
+    }
+
+    private Void createGame(String authToken) throws IOException, InterruptedException {
+        var create = new JsonObject();
+        create.addProperty("gameName", prefix);
+        int gameID = call("POST", "/game", authToken, create).get("gameID").getAsInt();
+        openSeats.add(new Seat(gameID, "WHITE"));
+        openSeats.add(new Seat(gameID, "BLACK"));
+        return null;
+    }
+
+    private String randomSeedToken() {
+        return seedTokens.get(ThreadLocalRandom.current().nextInt(seedTokens.size()));
+    }
+
+    private JsonObject call(String method, String path, String authToken, JsonObject body)
+            throws IOException, InterruptedException {
+        var request = HttpRequest.newBuilder(URI.create(url + path)).timeout(Duration.ofSeconds(30))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(GSON.toJson(body)));
+        if (authToken != null) {
+            request.header("authorization", authToken);
+        }
+        HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException(method + " " + path + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return GSON.fromJson(response.body(), JsonObject.class);
+    }
+}
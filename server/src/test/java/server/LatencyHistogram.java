@@ -0,0 +1,93 @@
+package server;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts latencies in log-linear buckets, the way HdrHistogram does, so any number of
+ * samples fits in a fixed few kilobytes and percentiles stay within two percent of the
+ * truth from a microsecond up to hours.
+ * <p>
+ * Values are kept in microseconds. Below 128 each value has a bucket of its own; above
+ * that, every power of two is split into 64 buckets, so a bucket is never wider than
+ * 1/64 of the values in it. Recording is a couple of atomic increments and is safe from
+ * any number of threads.
+ */
+public class LatencyHistogram {
+
+    /**
+     * Percentiles in milliseconds
+     */
+    public record Summary(long count, double mean, double p50, double p90, double p99, double p999, double max) {
+
+        @Override
+        public String toString() {
+            return String.format("n %d  mean %.2f  p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  max %.2f ms",
+                    count, mean, p50, p90, p99, p999, max);
+        }
+    }
+
+    private static final int SUB_BUCKETS = 64;
+    // enough for 2^40 microseconds, about twelve days
+    private static final int BUCKETS = 2 * SUB_BUCKETS + 34 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1_000);
+        counts.incrementAndGet(index(micros));
+        total.incrementAndGet();
+        sum.addAndGet(micros);
+        max.accumulateAndGet(micros, Math::max);
+    }
+
+    public long count() {
+        return total.get();
+    }
+
+    /**
+     * @return the latency in milliseconds that the given fraction of samples were at or
+     * below, to within the width of its bucket
+     */
+    public double percentile(double fraction) {
+        long count = total.get();
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestIn(i), max.get()) / 1_000.0;
+            }
+        }
+        return max.get() / 1_000.0;
+    }
+
+    public Summary summary() {
+        long count = total.get();
+        return new Summary(count, count == 0 ? Double.NaN : sum.get() / 1_000.0 / count, percentile(0.50),
+                percentile(0.90), percentile(0.99), percentile(0.999), max.get() / 1_000.0);
+    }
+
+    private static int index(long micros) {
+        if (micros < 2 * SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - 6;
+        return Math.min(BUCKETS - 1, (shift + 1) * SUB_BUCKETS + (int) (micros >>> shift) - SUB_BUCKETS);
+    }
+
+    private static long highestIn(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,333 @@
+package server;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import jakarta.websocket.ClientEndpointConfig;
+import jakarta.websocket.ContainerProvider;
+import jakarta.websocket.Endpoint;
+import jakarta.websocket.EndpointConfig;
+import jakarta.websocket.MessageHandler;
+import jakarta.websocket.Session;
+import jakarta.websocket.WebSocketContainer;
+import websocket.commands.ConnectCommand;
+import websocket.commands.MakeMoveCommand;
+import websocket.messages.LoadGameMessage;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds how many concurrent websocket games a server can carry before move latency
+ * degrades.
+ * <p>
+ * Each simulated game has two players and some observers, each on a websocket of its
+ * own. Players answer every board on which it is their turn with a random legal move
+ * after a short think, and a finished game is replaced by a new one, so the load holds
+ * steady for the whole step. Every LOAD_GAME that follows a move is timed from when the
+ * move's MAKE_MOVE was sent, across all of the game's sessions, into a
+ * {@link LatencyHistogram}. A session more than a think behind is timed from the next
+ * move and looks faster than it is; the coalesced and dropped counts show when that
+ * happens.
+ * <p>
+ * The game counts are run in turn, each on a fresh in-process server, unless
+ * {@code chess.load.url} names a server that is already running. The in-process server
+ * keeps games in memory unless {@code -Dchess.server.storage=mysql} asks for the
+ * database, and its threads are chosen by {@code chess.server.threads}. Registering the
+ * users hashes a password each, so {@code -Dchess.bcrypt.rounds=4} makes setup much
+ * quicker.
+ * <p>
+ * Run with {@code mvn -pl server test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=server.WebSocketLoadGenerator
+ * -Dexec.args="gameCounts observers seconds thinkMillis"}, where gameCounts is a
+ * comma-separated list such as {@code 10,100,1000}
+ */
+public class WebSocketLoadGenerator {
+
+    private static final Gson GSON = new Gson();
+    private static final int SETUP_THREADS = 16;
+
+    public static void main(String[] args) throws Exception {
+        String[] gameCounts = (args.length > 0 ? args[0] : "10,100,500").split(",");
+        int observers = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int thinkMillis = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+
+        System.out.printf("%d observers per game, %d s per step, players think %d ms%n", observers, seconds,
+                thinkMillis);
+        for (String games : gameCounts) {
+            System.out.println(run(Integer.parseInt(games.trim()), observers, seconds, thinkMillis));
+        }
+    }
+
+    private static String run(int games, int observers, int seconds, int thinkMillis) throws Exception {
+        String url = System.getProperty("chess.load.url");
+        Server server = null;
+        if (url == null) {
+            server = new Server(Server.ExecutionMode.fromSystemProperty(), Server.Storage.valueOf(
+                    System.getProperty("chess.server.storage", "memory").trim().toUpperCase()));
+            url = "http://localhost:" + server.run(0);
+        }
+        var step = new Step(url, thinkMillis);
+        var simulated = new ArrayList<SimulatedGame>();
+        try {
+            try (ExecutorService setup = Executors.newFixedThreadPool(SETUP_THREADS)) {
+                var pending = new ArrayList<Future<SimulatedGame>>();
+                for (int i = 0; i < games; i++) {
+                    pending.add(setup.submit(() -> step.newGame(observers)));
+                }
+                for (Future<SimulatedGame> game : pending) {
+                    simulated.add(game.get());
+                }
+            }
+            for (SimulatedGame game : simulated) {
+                game.connectAll();
+            }
+            // let the opening boards go out before timing anything
+            Thread.sleep(500);
+            step.measuring = true;
+            long start = System.nanoTime();
+            Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+            step.measuring = false;
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            step.running = false;
+
+            String serverStats = "";
+            if (server != null) {
+                var stats = server.getWebSocketStats();
+                serverStats = String.format("  coalesced %d dropped %d disconnected %d", stats.coalesced(),
+                        stats.dropped(), stats.disconnected());
+            }
+            return String.format("%5d games %6d sessions %8.0f moves/s  %s  errors %d  finished %d%s", games,
+                    games * (2 + observers), step.moves.get() / elapsed, step.latencies.summary(),
+                    step.errors.get(), step.finished.get(), serverStats);
+        } finally {
+            step.running = false;
+            for (SimulatedGame game : simulated) {
+                game.closeAll();
+            }
+            if (server != null) {
+                server.stop();
+            }
+        }
+    }
+
+    /**
+     * Everything shared by the games of one step
+     */
+    private static class Step {
+        final String url;
+        final int thinkMillis;
+        final String prefix = "load" + Long.toString(System.nanoTime(), 36);
+        final AtomicInteger users = new AtomicInteger();
+        final HttpClient http = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        final WebSocketContainer container = ContainerProvider.getWebSocketContainer();
+        final LatencyHistogram latencies = new LatencyHistogram();
+        final AtomicLong moves = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong finished = new AtomicLong();
+        volatile boolean measuring;
+        volatile boolean running = true;
+
+        Step(String url, int thinkMillis) {
+            this.url = url;
+            this.thinkMillis = thinkMillis;
+        }
+
+        SimulatedGame newGame(int observers) throws Exception {
+            var game = new SimulatedGame(this);
+            game.white = new Participant(game, register(), ChessGame.TeamColor.WHITE);
+            game.black = new Participant(game, register(), ChessGame.TeamColor.BLACK);
+            for (int i = 0; i < observers; i++) {
+                game.observers.add(new Participant(game, register(), null));
+            }
+            game.gameID = createAndJoin(game.white.authToken, game.black.authToken);
+            for (Participant participant : game.participants()) {
+                participant.session = container.connectToServer(participant,
+                        ClientEndpointConfig.Builder.create().build(), URI.create(url.replaceFirst("^http", "ws") + "/ws"));
+            }
+            return game;
+        }
+
+        int createAndJoin(String whiteToken, String blackToken) throws IOException, InterruptedException {
+            var create = new JsonObject();
+            create.addProperty("gameName", prefix);
+            int gameID = call("POST", "/game", whiteToken, create).get("gameID").getAsInt();
+            join(whiteToken, "WHITE", gameID);
+            join(blackToken, "BLACK", gameID);
+            return gameID;
+        }
+
+        private String register() throws IOException, InterruptedException {
+            var user = new JsonObject();
+            user.addProperty("username", prefix + "-" + users.incrementAndGet());
+            user.addProperty("password", "password");
+            user.addProperty("email", "load@example.com");
+            return call("POST", "/user", null, user).get("authToken").getAsString();
+        }
+
+        private void join(String authToken, String color, int gameID) throws IOException, InterruptedException {
+            var join = new JsonObject();
+            join.addProperty("playerColor", color);
+            join.addProperty("gameID", gameID);
+            call("PUT", "/game", authToken, join);
+        }
+
+        private JsonObject call(String method, String path, String authToken, JsonObject body)
+                throws IOException, InterruptedException {
+            var request = HttpRequest.newBuilder(URI.create(url + path)).timeout(Duration.ofSeconds(60))
+                    .method(method, HttpRequest.BodyPublishers.ofString(GSON.toJson(body)));
+            if (authToken != null) {
+                request.header("authorization", authToken);
+            }
+            HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException(method + " " + path + " failed: " + response.body());
+            }
+            return GSON.fromJson(response.body(), JsonObject.class);
+        }
+    }
+
+    private static class SimulatedGame {
+        final Step step;
+        final List<Participant> observers = new ArrayList<>();
+        Participant white;
+        Participant black;
+        volatile int gameID;
+        /**
+         * When the last move was sent, or 0 while there is no move to time
+         */
+        volatile long moveSentAt;
+
+        SimulatedGame(Step step) {
+            this.step = step;
+        }
+
+        List<Participant> participants() {
+            var all = new ArrayList<Participant>(List.of(white, black));
+            all.addAll(observers);
+            return all;
+        }
+
+        void connectAll() {
+            for (Participant participant : participants()) {
+                participant.send(new ConnectCommand(participant.authToken, gameID, false));
+            }
+        }
+
+        /**
+         * Carries on in a new game once this one is over, on the thread of the white
+         * player that noticed
+         */
+        void restart() {
+            step.finished.incrementAndGet();
+            moveSentAt = 0;
+            try {
+                gameID = step.createAndJoin(white.authToken, black.authToken);
+            } catch (Exception ex) {
+                step.errors.incrementAndGet();
+                return;
+            }
+            connectAll();
+        }
+
+        void closeAll() {
+            for (Participant participant : participants()) {
+                try {
+                    if (participant.session != null) {
+                        participant.session.close();
+                    }
+                } catch (IOException ex) {
+                    // already gone
+                }
+            }
+        }
+    }
+
+    /**
+     * One websocket session: a player when it has a color, otherwise an observer
+     */
+    private static class Participant extends Endpoint {
+        final SimulatedGame game;
+        final String authToken;
+        final ChessGame.TeamColor color;
+        Session session;
+
+        Participant(SimulatedGame game, String authToken, ChessGame.TeamColor color) {
+            this.game = game;
+            this.authToken = authToken;
+            this.color = color;
+        }
+
+        @Override
+        public void onOpen(Session session, EndpointConfig config) {
+            session.addMessageHandler(String.class, (MessageHandler.Whole<String>) this::onMessage);
+        }
+
+        private void onMessage(String text) {
+            long received = System.nanoTime();
+            if (text.contains("\"ERROR\"")) {
+                game.step.errors.incrementAndGet();
+                return;
+            }
+            if (!text.contains("\"LOAD_GAME\"")) {
+                return;
+            }
+            long sentAt = game.moveSentAt;
+            if (sentAt != 0 && game.step.measuring) {
+                game.step.latencies.record(received - sentAt);
+            }
+            if (color == null || !game.step.running) {
+                return;
+            }
+            ChessGame board = GSON.fromJson(text, LoadGameMessage.class).getGame();
+            if (board.isGameOver()) {
+                if (color == ChessGame.TeamColor.WHITE) {
+                    Thread.startVirtualThread(game::restart);
+                }
+            } else if (board.getTeamTurn() == color) {
+                Thread.startVirtualThread(() -> move(board));
+            }
+        }
+
+        private void move(ChessGame board) {
+            try {
+                Thread.sleep(game.step.thinkMillis);
+            } catch (InterruptedException ex) {
+                return;
+            }
+            List<ChessMove> moves = new ArrayList<>(board.allValidMoves(color));
+            if (moves.isEmpty() || !game.step.running) {
+                return;
+            }
+            ChessMove move = moves.get(ThreadLocalRandom.current().nextInt(moves.size()));
+            game.moveSentAt = System.nanoTime();
+            send(new MakeMoveCommand(authToken, game.gameID, move));
+            if (game.step.measuring) {
+                game.step.moves.incrementAndGet();
+            }
+        }
+
+        synchronized void send(Object command) {
+            try {
+                session.getBasicRemote().sendText(GSON.toJson(command));
+            } catch (IOException | RuntimeException ex) {
+                game.step.errors.incrementAndGet();
+            }
+        }
+    }
+}
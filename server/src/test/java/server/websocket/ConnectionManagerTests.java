@@ -0,0 +1,145 @@
+package server.websocket;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ConnectionManagerTests {
+
+    private final ConnectionManager connections = new ConnectionManager();
+
+    @Test
+    @DisplayName("Sessions Join With Their Role")
+    public void roles() {
+        connections.add(1, "white", ConnectionManager.Role.WHITE, false, false);
+        connections.add(1, "black", ConnectionManager.Role.BLACK, false, false);
+        connections.add(1, "watcher", ConnectionManager.Role.OBSERVER, true, false);
+
+        Assertions.assertEquals(3, connections.connections(1).size());
+        var watcher = connections.connection(1, "watcher");
+        Assertions.assertEquals(ConnectionManager.Role.OBSERVER, watcher.role());
+        Assertions.assertTrue(watcher.moveDeltas());
+        Assertions.assertNull(connections.connection(2, "watcher"));
+    }
+
+    @Test
+    @DisplayName("Reconnecting Replaces And Moving Leaves The Old Game")
+    public void reconnectAndMove() {
+        connections.add(1, "a", ConnectionManager.Role.OBSERVER, false, false);
+        connections.add(1, "a", ConnectionManager.Role.WHITE, true, false);
+        Assertions.assertEquals(1, connections.connections(1).size(), "Reconnecting added a second entry");
+        Assertions.assertEquals(ConnectionManager.Role.WHITE, connections.connection(1, "a").role());
+
+        connections.add(2, "a", ConnectionManager.Role.OBSERVER, false, false);
+        Assertions.assertTrue(connections.connections(1).isEmpty(), "Session still in the game it moved out of");
+        Assertions.assertEquals(1, connections.games(), "Emptied game was not dropped");
+        Assertions.assertEquals(Integer.valueOf(2), connections.remove("a"));
+        Assertions.assertNull(connections.remove("a"));
+        Assertions.assertEquals(0, connections.games());
+    }
+
+    @Test
+    @DisplayName("Broadcast List Is A Snapshot")
+    public void snapshot() {
+        connections.add(1, "a", ConnectionManager.Role.WHITE, false, false);
+        var before = connections.connections(1);
+
+        connections.add(1, "b", ConnectionManager.Role.BLACK, false, false);
+        connections.remove("a");
+
+        Assertions.assertEquals(List.of("a"), before.stream().map(ConnectionManager.Connection::sessionId).toList());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> before.remove(0));
+    }
+
+    @Test
+    @DisplayName("Concurrent Joins And Leaves")
+    public void concurrentChurn() throws Exception {
+        int threads = 8;
+        int sessionsPerThread = 2_000;
+        var start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                for (int i = 0; i < sessionsPerThread; i++) {
+                    String sessionId = thread + "-" + i;
+                    connections.add(i % 4, sessionId, ConnectionManager.Role.OBSERVER, false, false);
+                    // every thread also keeps one session per game for good
+                    if (i >= 4) {
+                        connections.remove(sessionId);
+                    }
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        for (int game = 0; game < 4; game++) {
+            Assertions.assertEquals(threads, connections.connections(game).size(), "Game " + game + " lost sessions");
+        }
+        for (int t = 0; t < threads; t++) {
+            for (int game = 0; game < 4; game++) {
+                connections.remove(t + "-" + game);
+            }
+        }
+        Assertions.assertEquals(0, connections.games(), "Empty games were not dropped");
+    }
+
+    @Test
+    @DisplayName("Leaving While Joining Leaves Nothing Behind")
+    public void removeDuringAdd() throws Exception {
+        // a crowded game makes each join's copy long enough to leave during
+        for (int i = 0; i < 500; i++) {
+            connections.add(1, "crowd" + i, ConnectionManager.Role.OBSERVER, false, false);
+        }
+        int rounds = 2_000;
+        var round = new CyclicBarrier(2);
+        var leaving = new AtomicBoolean();
+        var joined = new AtomicBoolean();
+        Thread leaver = Thread.ofPlatform().start(() -> {
+            try {
+                for (int i = 0; i < rounds; i++) {
+                    round.await(5, TimeUnit.SECONDS);
+                    // the close handler, racing the join
+                    while (!joined.get()) {
+                        connections.remove("s" + i);
+                        leaving.set(true);
+                    }
+                    round.await(5, TimeUnit.SECONDS);
+                }
+            } catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+        for (int i = 0; i < rounds; i++) {
+            joined.set(false);
+            leaving.set(false);
+            round.await(5, TimeUnit.SECONDS);
+            while (!leaving.get()) {
+                Thread.onSpinWait();
+            }
+            connections.add(1, "s" + i, ConnectionManager.Role.OBSERVER, false, false);
+            joined.set(true);
+            round.await(5, TimeUnit.SECONDS);
+            // the connect path's cleanup once it sees the socket already closed
+            connections.remove("s" + i);
+            Assertions.assertNull(connections.connection(1, "s" + i), "Session left behind in round " + i);
+        }
+        leaver.join();
+        Assertions.assertEquals(500, connections.connections(1).size());
+    }
+}
@@ -0,0 +1,129 @@
+package server.websocket;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class GameActorsTests {
+
+    private GameActors actors;
+
+    @AfterEach
+    public void tearDown() {
+        actors.shutdown();
+    }
+
+    @Test
+    @DisplayName("Each Game Runs Its Tasks In Order, One At A Time")
+    public void orderedPerGame() throws Exception {
+        // a small shared pool, so drains have to take turns and hand threads back
+        actors = new GameActors(Executors.newFixedThreadPool(2), 10_000);
+        int games = 8;
+        int tasksPerGame = 2_000;
+        List<List<Integer>> seen = new ArrayList<>();
+        List<AtomicInteger> running = new ArrayList<>();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        var done = new CountDownLatch(games * tasksPerGame);
+        for (int game = 0; game < games; game++) {
+            seen.add(Collections.synchronizedList(new ArrayList<>()));
+            running.add(new AtomicInteger());
+        }
+        for (int i = 0; i < tasksPerGame; i++) {
+            for (int game = 0; game < games; game++) {
+                int gameID = game;
+                int sequence = i;
+                Assertions.assertTrue(actors.submit(gameID, () -> {
+                    if (running.get(gameID).incrementAndGet() != 1) {
+                        overlapped.set(true);
+                    }
+                    seen.get(gameID).add(sequence);
+                    running.get(gameID).decrementAndGet();
+                    done.countDown();
+                }));
+            }
+        }
+
+        Assertions.assertTrue(done.await(10, TimeUnit.SECONDS), "Not every task ran");
+        Assertions.assertFalse(overlapped.get(), "Two tasks for one game ran at once");
+        for (List<Integer> sequence : seen) {
+            for (int i = 0; i < tasksPerGame; i++) {
+                Assertions.assertEquals(i, sequence.get(i).intValue(), "Tasks for a game ran out of order");
+            }
+        }
+        awaitIdle();
+        Assertions.assertEquals(games * tasksPerGame, actors.stats().completed());
+    }
+
+    @Test
+    @DisplayName("A Blocked Game Does Not Hold Up Others")
+    public void gamesIndependent() throws Exception {
+        actors = new GameActors(Executors.newVirtualThreadPerTaskExecutor(), 16);
+        var release = new CountDownLatch(1);
+        var otherRan = new CountDownLatch(1);
+        actors.submit(1, () -> await(release));
+
+        actors.submit(2, otherRan::countDown);
+
+        Assertions.assertTrue(otherRan.await(5, TimeUnit.SECONDS), "Game 2 waited behind game 1");
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Full Mailbox Refuses Tasks")
+    public void boundedMailbox() throws Exception {
+        actors = new GameActors(Executors.newVirtualThreadPerTaskExecutor(), 3);
+        var release = new CountDownLatch(1);
+        var ran = new AtomicInteger();
+        Assertions.assertTrue(actors.submit(1, () -> await(release)));
+        Assertions.assertTrue(actors.submit(1, ran::incrementAndGet));
+        Assertions.assertTrue(actors.submit(1, ran::incrementAndGet));
+
+        Assertions.assertFalse(actors.submit(1, ran::incrementAndGet), "Full mailbox took another task");
+        Assertions.assertTrue(actors.submit(2, ran::incrementAndGet), "Another game's mailbox was refused");
+        Assertions.assertEquals(1, actors.stats().rejected());
+
+        release.countDown();
+        awaitIdle();
+        Assertions.assertEquals(3, ran.get());
+    }
+
+    @Test
+    @DisplayName("Idle Games Drop Their Mailbox")
+    public void idleRetired() throws Exception {
+        actors = new GameActors(Executors.newVirtualThreadPerTaskExecutor(), 16);
+        for (int game = 0; game < 100; game++) {
+            actors.submit(game, () -> { });
+        }
+        awaitIdle();
+        Assertions.assertEquals(0, actors.stats().active(), "Finished games kept their mailbox");
+
+        var ran = new CountDownLatch(1);
+        Assertions.assertTrue(actors.submit(5, ran::countDown));
+        Assertions.assertTrue(ran.await(5, TimeUnit.SECONDS), "Game did not run after its mailbox was dropped");
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (actors.stats().active() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
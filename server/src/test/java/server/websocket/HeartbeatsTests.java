@@ -0,0 +1,106 @@
+package server.websocket;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HeartbeatsTests {
+
+    /**
+     * A session that answers its pings, or not
+     */
+    private static class FakeProbe implements Heartbeats.Probe {
+        final boolean answers;
+        final AtomicInteger pings = new AtomicInteger();
+        final CountDownLatch reaped = new CountDownLatch(1);
+
+        FakeProbe(boolean answers) {
+            this.answers = answers;
+        }
+
+        @Override
+        public void ping(Runnable answered) {
+            pings.incrementAndGet();
+            if (answers) {
+                answered.run();
+            }
+        }
+
+        @Override
+        public void reap() {
+            reaped.countDown();
+        }
+    }
+
+    private Heartbeats heartbeats;
+
+    @AfterEach
+    public void tearDown() {
+        heartbeats.shutdown();
+    }
+
+    @Test
+    @DisplayName("Silent Session Is Reaped")
+    public void reapSilent() throws Exception {
+        heartbeats = new Heartbeats(new Heartbeats.Settings(20, 2));
+        var silent = new FakeProbe(false);
+        heartbeats.register("silent", silent);
+
+        Assertions.assertTrue(silent.reaped.await(5, TimeUnit.SECONDS), "Session was never reaped");
+        Assertions.assertEquals(2, silent.pings.get(), "Pinged after missing too many heartbeats");
+        Assertions.assertEquals(1, heartbeats.stats().reaped());
+        Assertions.assertEquals(0, heartbeats.stats().sessions());
+    }
+
+    @Test
+    @DisplayName("Answering Session Is Kept")
+    public void keepAnswering() throws Exception {
+        heartbeats = new Heartbeats(new Heartbeats.Settings(20, 2));
+        var answering = new FakeProbe(true);
+        heartbeats.register("answering", answering);
+
+        Assertions.assertFalse(answering.reaped.await(300, TimeUnit.MILLISECONDS), "Answering session was reaped");
+        Assertions.assertTrue(answering.pings.get() >= 5, "Only pinged " + answering.pings.get() + " times");
+    }
+
+    @Test
+    @DisplayName("Messages Count As Answers")
+    public void touchKeepsAlive() throws Exception {
+        heartbeats = new Heartbeats(new Heartbeats.Settings(20, 2));
+        var chatty = new FakeProbe(false);
+        heartbeats.register("chatty", chatty);
+
+        long until = System.currentTimeMillis() + 300;
+        while (System.currentTimeMillis() < until) {
+            heartbeats.touch("chatty");
+            Thread.sleep(5);
+        }
+        Assertions.assertEquals(1, chatty.reaped.getCount(), "Session that kept sending was reaped");
+    }
+
+    @Test
+    @DisplayName("Idle Timeout Covers Every Heartbeat A Session May Miss")
+    public void idleTimeout() {
+        heartbeats = new Heartbeats(new Heartbeats.Settings(30_000, 3));
+        Assertions.assertEquals(Duration.ofSeconds(90), heartbeats.settings().idleTimeout());
+    }
+
+    @Test
+    @DisplayName("Closed Session Is No Longer Pinged")
+    public void removeStops() throws Exception {
+        heartbeats = new Heartbeats(new Heartbeats.Settings(20, 2));
+        var closed = new FakeProbe(false);
+        heartbeats.register("closed", closed);
+        heartbeats.remove("closed");
+
+        Thread.sleep(200);
+        Assertions.assertEquals(0, closed.pings.get());
+        Assertions.assertEquals(1, closed.reaped.getCount(), "Closed session was reaped");
+    }
+}
@@ -0,0 +1,214 @@
+package server.websocket;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import websocket.messages.ServerMessage;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static websocket.messages.ServerMessage.ServerMessageType.ERROR;
+import static websocket.messages.ServerMessage.ServerMessageType.LOAD_GAME;
+import static websocket.messages.ServerMessage.ServerMessageType.MOVE_MADE;
+import static websocket.messages.ServerMessage.ServerMessageType.NOTIFICATION;
+
+public class OutboundQueuesTests {
+
+    /**
+     * Records what it is sent, optionally stalling until released the way a client on
+     * a bad connection would
+     */
+    private static class FakeSink implements OutboundQueues.Sink {
+        final List<String> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch release;
+        final CountDownLatch firstSendStarted = new CountDownLatch(1);
+        volatile int closedWith;
+
+        FakeSink(boolean stalled) {
+            release = new CountDownLatch(stalled ? 1 : 0);
+        }
+
+        @Override
+        public void send(OutboundQueues.Frame frame) {
+            firstSendStarted.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(frame.text());
+        }
+
+        @Override
+        public void ping() {
+            received.add("ping");
+        }
+
+        @Override
+        public void close(int statusCode, String reason) {
+            closedWith = statusCode;
+        }
+    }
+
+    private OutboundQueues queues;
+
+    @AfterEach
+    public void tearDown() {
+        queues.shutdown();
+    }
+
+    private void newQueues(int capacity, int maxDrops) {
+        queues = new OutboundQueues(new OutboundQueues.Settings(capacity, true, true, maxDrops),
+                Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    private static OutboundQueues.Frame frame(ServerMessage.ServerMessageType type, String text) {
+        return OutboundQueues.Frame.text(type, text);
+    }
+
+    /**
+     * Opens a stalled session and sends it one frame, which its writer then sits on
+     */
+    private FakeSink stalledSession(String sessionId) throws InterruptedException {
+        var sink = new FakeSink(true);
+        queues.open(sessionId, sink);
+        queues.send(sessionId, frame(NOTIFICATION, "first"));
+        Assertions.assertTrue(sink.firstSendStarted.await(5, TimeUnit.SECONDS));
+        return sink;
+    }
+
+    private static void awaitReceived(FakeSink sink, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (sink.received.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    @DisplayName("Frames Arrive In Order")
+    public void inOrder() throws Exception {
+        newQueues(1_000, 0);
+        var sink = new FakeSink(false);
+        queues.open("a", sink);
+        for (int i = 0; i < 500; i++) {
+            queues.send("a", frame(MOVE_MADE, Integer.toString(i)));
+        }
+        awaitReceived(sink, 500);
+        for (int i = 0; i < 500; i++) {
+            Assertions.assertEquals(Integer.toString(i), sink.received.get(i));
+        }
+        Assertions.assertEquals(500, queues.stats().sent());
+    }
+
+    @Test
+    @DisplayName("Slow Session Does Not Hold Up Others")
+    public void slowIsolated() throws Exception {
+        newQueues(16, 16);
+        var slow = stalledSession("slow");
+        var fast = new FakeSink(false);
+        queues.open("fast", fast);
+
+        queues.send("slow", frame(LOAD_GAME, "board"));
+        queues.send("fast", frame(LOAD_GAME, "board"));
+
+        awaitReceived(fast, 1);
+        Assertions.assertEquals(List.of("board"), fast.received, "Fast session waited behind the slow one");
+        Assertions.assertEquals(1, queues.depth("slow"));
+        slow.release.countDown();
+    }
+
+    @Test
+    @DisplayName("Newer Board Replaces One Still Waiting")
+    public void coalesceBoards() throws Exception {
+        newQueues(16, 16);
+        var sink = stalledSession("a");
+        queues.send("a", frame(LOAD_GAME, "board 1"));
+        queues.send("a", frame(NOTIFICATION, "note"));
+        queues.send("a", frame(LOAD_GAME, "board 2"));
+        queues.send("a", frame(LOAD_GAME, "board 3"));
+
+        sink.release.countDown();
+        awaitReceived(sink, 3);
+        Assertions.assertEquals(List.of("first", "note", "board 3"), sink.received);
+        Assertions.assertEquals(2, queues.stats().coalesced());
+    }
+
+    @Test
+    @DisplayName("Full Queue Drops Oldest Notification")
+    public void dropNotifications() throws Exception {
+        newQueues(2, 16);
+        var sink = stalledSession("a");
+        queues.send("a", frame(NOTIFICATION, "note 1"));
+        queues.send("a", frame(NOTIFICATION, "note 2"));
+        queues.send("a", frame(MOVE_MADE, "move"));
+
+        Assertions.assertEquals(1, queues.stats().dropped());
+        Assertions.assertEquals(2, queues.stats().maxQueued());
+        sink.release.countDown();
+        awaitReceived(sink, 3);
+        Assertions.assertEquals(List.of("first", "note 2", "move"), sink.received);
+    }
+
+    @Test
+    @DisplayName("Session With Nothing To Drop Is Disconnected")
+    public void disconnectWhenFull() throws Exception {
+        newQueues(2, 16);
+        var sink = stalledSession("a");
+        queues.send("a", frame(MOVE_MADE, "move 1"));
+        queues.send("a", frame(ERROR, "error"));
+        queues.send("a", frame(MOVE_MADE, "move 2"));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (sink.closedWith == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        Assertions.assertEquals(OutboundQueues.TOO_SLOW, sink.closedWith);
+        Assertions.assertEquals(1, queues.stats().disconnected());
+        Assertions.assertEquals(0, queues.depth("a"), "Disconnected session kept its frames");
+
+        queues.send("a", frame(MOVE_MADE, "move 3"));
+        sink.release.countDown();
+        Thread.sleep(50);
+        Assertions.assertEquals(List.of("first"), sink.received, "Frames were written after the cut-off");
+    }
+
+    @Test
+    @DisplayName("Too Many Drops Disconnects")
+    public void disconnectAfterDrops() throws Exception {
+        newQueues(1, 1);
+        var sink = stalledSession("a");
+        queues.send("a", frame(NOTIFICATION, "note 1"));
+        queues.send("a", frame(NOTIFICATION, "note 2"));
+        Assertions.assertEquals(0, queues.stats().disconnected(), "Disconnected before reaching the threshold");
+
+        queues.send("a", frame(NOTIFICATION, "note 3"));
+
+        Assertions.assertEquals(2, queues.stats().dropped());
+        Assertions.assertEquals(1, queues.stats().disconnected());
+        sink.release.countDown();
+    }
+
+    @Test
+    @DisplayName("Ping Goes Out Behind Queued Frames")
+    public void pingAfterBacklog() throws Exception {
+        newQueues(16, 16);
+        var sink = stalledSession("a");
+        var pinged = new CountDownLatch(2);
+        queues.send("a", frame(MOVE_MADE, "move"));
+        queues.ping("a", pinged::countDown);
+        queues.ping("a", pinged::countDown);
+
+        Thread.sleep(50);
+        Assertions.assertEquals(2, pinged.getCount(), "Ping was sent past a stalled write");
+        sink.release.countDown();
+        awaitReceived(sink, 3);
+        Thread.sleep(50);
+        Assertions.assertEquals(1, pinged.getCount(), "A second ping was queued behind the first");
+        Assertions.assertEquals(List.of("first", "move", "ping"), sink.received);
+    }
+}
@@ -0,0 +1,176 @@
+package service;
+
+import dataaccess.AuthDAO;
+import dataaccess.DataAccessException;
+import model.AuthData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AuthServiceTests {
+
+    /**
+     * An auth table in memory that counts how often it is read
+     */
+    private static class CountingAuthDAO implements AuthDAO {
+        final Map<String, AuthData> tokens = new HashMap<>();
+        int reads;
+
+        @Override
+        public void createAuth(AuthData auth) {
+            tokens.put(auth.authToken(), auth);
+        }
+
+        @Override
+        public AuthData getAuth(String authToken) throws DataAccessException {
+            reads++;
+            return tokens.get(authToken);
+        }
+
+        @Override
+        public void deleteAuth(String authToken) {
+            tokens.remove(authToken);
+        }
+
+        @Override
+        public void clear() {
+            tokens.clear();
+        }
+    }
+
+    private final AtomicLong now = new AtomicLong();
+    private CountingAuthDAO dao;
+    private AuthCache cache;
+    private AuthService service;
+
+    @BeforeEach
+    public void setup() {
+        dao = new CountingAuthDAO();
+        cache = new AuthCache(2, 1000, now::get);
+        service = new AuthService(dao, cache);
+    }
+
+    @Test
+    @DisplayName("Cached Token Skips DAO")
+    public void cachedToken() throws ResponseException {
+        var auth = service.createAuth("alice");
+
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertEquals(auth, service.authenticate(auth.authToken()));
+        }
+        Assertions.assertEquals(0, dao.reads, "Cached token was read from the DAO");
+        Assertions.assertEquals(5, cache.hits());
+    }
+
+    @Test
+    @DisplayName("Expired Entry Is Reloaded")
+    public void expiredReloaded() throws ResponseException {
+        var auth = service.createAuth("alice");
+        now.addAndGet(1000);
+
+        Assertions.assertEquals(auth, service.authenticate(auth.authToken()));
+        Assertions.assertEquals(1, dao.reads);
+        Assertions.assertEquals(auth, service.authenticate(auth.authToken()));
+        Assertions.assertEquals(1, dao.reads, "Reloaded token was not cached again");
+    }
+
+    @Test
+    @DisplayName("Token From Elsewhere Is Accepted")
+    public void uncachedToken() throws ResponseException {
+        var auth = new AuthData("made-by-another-server", "bob");
+        dao.createAuth(auth);
+
+        Assertions.assertEquals(auth, service.authenticate(auth.authToken()));
+    }
+
+    @Test
+    @DisplayName("Logout Invalidates Cache")
+    public void logout() throws ResponseException {
+        var auth = service.createAuth("alice");
+        service.logout(auth.authToken());
+
+        var ex = Assertions.assertThrows(ResponseException.class, () -> service.authenticate(auth.authToken()));
+        Assertions.assertEquals(401, ex.statusCode());
+    }
+
+    @Test
+    @DisplayName("Stale Put After Logout Is Ignored")
+    public void stalePut() throws ResponseException {
+        var auth = service.createAuth("alice");
+        long readAt = cache.generation();
+        service.logout(auth.authToken());
+
+        // a request that read the token just before logout finishes afterwards
+        cache.put(auth, readAt);
+
+        Assertions.assertNull(cache.get(auth.authToken()), "Logged out token came back");
+    }
+
+    @Test
+    @DisplayName("Clear Empties Cache")
+    public void clear() throws ResponseException {
+        var auth = service.createAuth("alice");
+        service.clear();
+
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertThrows(ResponseException.class, () -> service.authenticate(auth.authToken()));
+    }
+
+    @Test
+    @DisplayName("Stale Put After Clear Is Ignored")
+    public void stalePutAfterClear() throws ResponseException {
+        var auth = service.createAuth("alice");
+        long readAt = cache.generation();
+        service.clear();
+
+        // a request that read the token just before the clear finishes afterwards
+        cache.put(auth, readAt);
+
+        Assertions.assertNull(cache.get(auth.authToken()), "Cleared token came back");
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Cache Stays Bounded")
+    public void bounded() throws ResponseException {
+        for (int i = 0; i < 10; i++) {
+            now.incrementAndGet();
+            service.createAuth("user" + i);
+        }
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertEquals(8, cache.evictions());
+    }
+
+    @Test
+    @DisplayName("Entry Closest To Expiring Is Evicted")
+    public void evictsOldest() {
+        var large = new AuthCache(100, 1000, now::get);
+        for (int i = 0; i < 300; i++) {
+            now.incrementAndGet();
+            large.put(new AuthData("token" + i, "user" + i), large.generation());
+        }
+        Assertions.assertEquals(100, large.size());
+        for (int i = 0; i < 300; i++) {
+            Assertions.assertEquals(i >= 200, large.get("token" + i) != null, "Wrong entry kept for token" + i);
+        }
+    }
+
+    @Test
+    @DisplayName("DAO Failure Is Server Error")
+    public void daoFailure() {
+        var failing = new AuthService(new CountingAuthDAO() {
+            @Override
+            public AuthData getAuth(String authToken) throws DataAccessException {
+                throw new DataAccessException("database is down");
+            }
+        }, cache);
+
+        var ex = Assertions.assertThrows(ResponseException.class, () -> failing.authenticate("token"));
+        Assertions.assertEquals(500, ex.statusCode());
+    }
+}
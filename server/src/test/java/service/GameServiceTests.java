@@ -0,0 +1,89 @@
+package service;
+
+import chess.ChessGame;
+import dataaccess.MemoryGameDAO;
+import model.GameData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+public class GameServiceTests {
+
+    private AuthService authService;
+    private GameService service;
+    private String token;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        byte[] key = new byte[32];
+        Arrays.fill(key, (byte) 5);
+        authService = new AuthService(new SignedTokens(key, 60_000));
+        service = new GameService(new MemoryGameDAO(), authService);
+        token = authService.createAuth("alice").authToken();
+    }
+
+    @Test
+    @DisplayName("Pages Cover Every Game Once")
+    public void pages() throws Exception {
+        for (int i = 0; i < 25; i++) {
+            service.createGame(token, "game" + i);
+        }
+        List<Integer> listed = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var page = service.listGames(token, cursor, 10, Set.of(), Set.of());
+            page.games().forEach(game -> listed.add(game.gameID()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        Assertions.assertEquals(3, pages);
+        Assertions.assertEquals(25, listed.size());
+        Assertions.assertEquals(25, Set.copyOf(listed).size(), "A game was listed twice");
+        Assertions.assertNull(service.listGames(token, null, null, Set.of(), Set.of()).nextCursor(),
+                "Unpaged listing has a next page");
+    }
+
+    @Test
+    @DisplayName("Known Version Is Not Listed Again")
+    public void notModified() throws Exception {
+        service.createGame(token, "lobby");
+        var first = service.listGames(token, null, null, Set.of(), Set.of());
+        Assertions.assertTrue(first.modified());
+
+        var again = service.listGames(token, null, null, Set.of(), Set.of(first.version()));
+        Assertions.assertFalse(again.modified());
+        Assertions.assertTrue(again.games().isEmpty());
+
+        int gameID = service.createGame(token, "another");
+        service.joinGame(token, ChessGame.TeamColor.WHITE, gameID);
+        var changed = service.listGames(token, null, null, EnumSet.of(GameService.ListFilter.MINE),
+                Set.of(first.version()));
+        Assertions.assertTrue(changed.modified());
+        Assertions.assertEquals(List.of(gameID), changed.games().stream().map(GameData::gameID).toList());
+    }
+
+    @Test
+    @DisplayName("Bad Cursor Or Limit")
+    public void badPaging() {
+        for (String cursor : new String[]{"abc", "-1"}) {
+            var ex = Assertions.assertThrows(ResponseException.class,
+                    () -> service.listGames(token, cursor, 10, Set.of(), Set.of()));
+            Assertions.assertEquals(400, ex.statusCode());
+        }
+        var ex = Assertions.assertThrows(ResponseException.class,
+                () -> service.listGames(token, null, 0, Set.of(), Set.of()));
+        Assertions.assertEquals(400, ex.statusCode());
+        ex = Assertions.assertThrows(ResponseException.class,
+                () -> service.listGames("not a token", null, null, Set.of(), Set.of()));
+        Assertions.assertEquals(401, ex.statusCode());
+    }
+}
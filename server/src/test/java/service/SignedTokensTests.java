@@ -0,0 +1,137 @@
+package service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SignedTokensTests {
+
+    private static final byte[] KEY = new byte[32];
+
+    static {
+        Arrays.fill(KEY, (byte) 7);
+    }
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private SignedTokens tokens;
+    private AuthService service;
+
+    @BeforeEach
+    public void setup() {
+        tokens = new SignedTokens(KEY, 1000, now::get);
+        service = new AuthService(tokens);
+    }
+
+    @Test
+    @DisplayName("Issued Token Verifies")
+    public void roundTrip() throws ResponseException {
+        var auth = service.createAuth("alice.o'neil");
+
+        Assertions.assertEquals(AuthService.TokenMode.SIGNED, service.getTokenMode());
+        Assertions.assertEquals(auth, service.authenticate(auth.authToken()));
+        Assertions.assertNotEquals(auth.authToken(), service.createAuth("alice.o'neil").authToken(),
+                "Two logins got the same token");
+    }
+
+    @Test
+    @DisplayName("Token From Another Server With Same Key Verifies")
+    public void sharedKey() {
+        var auth = tokens.issue("bob");
+        var other = new SignedTokens(KEY, 1000, now::get);
+
+        Assertions.assertEquals(auth, other.verify(auth.authToken()));
+    }
+
+    @Test
+    @DisplayName("Forged Token Is Refused")
+    public void forged() {
+        var token = tokens.issue("bob").authToken();
+        String[] parts = token.split("\\.");
+        parts[0] = "YWRtaW4"; // "admin"
+        String tampered = String.join(".", parts);
+
+        Assertions.assertNull(tokens.verify(tampered));
+        Assertions.assertNull(new SignedTokens(new byte[32], 1000, now::get).verify(token), "Wrong key accepted");
+        Assertions.assertNull(tokens.verify("not-a-token"));
+        Assertions.assertNull(tokens.verify("a.b.c.d.e"));
+    }
+
+    @Test
+    @DisplayName("Expired Token Is Refused")
+    public void expired() {
+        var token = tokens.issue("bob").authToken();
+        now.addAndGet(1000);
+
+        Assertions.assertNull(tokens.verify(token));
+    }
+
+    @Test
+    @DisplayName("Logout Revokes Only That Token")
+    public void logout() throws ResponseException {
+        var first = service.createAuth("alice");
+        var second = service.createAuth("alice");
+        service.logout(first.authToken());
+
+        var ex = Assertions.assertThrows(ResponseException.class, () -> service.authenticate(first.authToken()));
+        Assertions.assertEquals(401, ex.statusCode());
+        Assertions.assertEquals(second, service.authenticate(second.authToken()));
+    }
+
+    @Test
+    @DisplayName("Other Spellings Of A Revoked Token Are Refused")
+    public void revokedSpellings() {
+        String token = tokens.issue("alice").authToken();
+        // the last of 43 characters carries two unused bits, so flipping one decodes the same
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        char last = token.charAt(token.length() - 1);
+        String lowBitFlipped = token.substring(0, token.length() - 1) + alphabet.charAt(alphabet.indexOf(last) ^ 1);
+        tokens.revoke(token);
+
+        Assertions.assertNull(tokens.verify(token));
+        Assertions.assertNull(tokens.verify(token + "="), "Padded token got past revocation");
+        Assertions.assertNull(tokens.verify(lowBitFlipped), "Non-canonical token got past revocation");
+    }
+
+    @Test
+    @DisplayName("Revocation Set Drops Expired Tokens")
+    public void revocationPurged() {
+        for (int i = 0; i < 300; i++) {
+            tokens.revoke(tokens.issue("user" + i).authToken());
+        }
+        now.addAndGet(1000);
+        for (int i = 0; i < 300; i++) {
+            tokens.revoke(tokens.issue("user" + i).authToken());
+        }
+        Assertions.assertTrue(tokens.revokedCount() <= 300, "Expired revocations were kept");
+    }
+
+    @Test
+    @DisplayName("Clear Revokes Earlier Tokens")
+    public void clear() throws ResponseException {
+        var before = service.createAuth("alice");
+        service.clear();
+        var after = service.createAuth("alice");
+
+        Assertions.assertThrows(ResponseException.class, () -> service.authenticate(before.authToken()));
+        Assertions.assertEquals(after, service.authenticate(after.authToken()));
+    }
+
+    @Test
+    @DisplayName("Opaque Mode Is Default")
+    public void defaultMode() {
+        System.clearProperty("chess.auth.tokens");
+        Assertions.assertEquals(AuthService.TokenMode.OPAQUE, AuthService.TokenMode.fromSystemProperty());
+        Assertions.assertEquals(AuthService.TokenMode.OPAQUE,
+                new AuthService(null, new AuthCache(1, 1)).getTokenMode());
+    }
+
+    @Test
+    @DisplayName("Short Key Is Rejected")
+    public void shortKey() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new SignedTokens(new byte[16], 1000));
+    }
+}
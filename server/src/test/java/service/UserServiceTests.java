@@ -0,0 +1,135 @@
+package service;
+
+import dataaccess.DataAccessException;
+import dataaccess.UserDAO;
+import model.UserData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+public class UserServiceTests {
+
+    private static class MemoryUserDAO implements UserDAO {
+        final Map<String, UserData> users = new ConcurrentHashMap<>();
+
+        @Override
+        public void createUser(UserData user) throws DataAccessException {
+            if (users.putIfAbsent(user.username(), user) != null) {
+                throw new DataAccessException("duplicate username");
+            }
+        }
+
+        @Override
+        public UserData getUser(String username) {
+            return users.get(username);
+        }
+
+        @Override
+        public void clear() {
+            users.clear();
+        }
+    }
+
+    private MemoryUserDAO userDAO;
+    private PasswordHasher hasher;
+    private AuthService authService;
+    private UserService service;
+
+    @BeforeEach
+    public void setup() {
+        byte[] key = new byte[32];
+        Arrays.fill(key, (byte) 3);
+        userDAO = new MemoryUserDAO();
+        hasher = new PasswordHasher(2, 4, 4);
+        authService = new AuthService(new SignedTokens(key, 60_000));
+        service = new UserService(userDAO, authService, hasher);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        hasher.shutdown();
+    }
+
+    @Test
+    @DisplayName("Register Then Login")
+    public void registerAndLogin() throws Exception {
+        var registered = service.register(new UserData("alice", "hunter2", "a@b.c")).join();
+        Assertions.assertEquals("alice", authService.authenticate(registered.authToken()).username());
+        Assertions.assertNotEquals("hunter2", userDAO.getUser("alice").password(), "Password stored in plain text");
+
+        var loggedIn = service.login("alice", "hunter2").join();
+        Assertions.assertEquals("alice", loggedIn.username());
+
+        var stats = hasher.stats();
+        Assertions.assertEquals(2, stats.completed());
+        Assertions.assertEquals(0, stats.rejected());
+    }
+
+    @Test
+    @DisplayName("Wrong Password Is Unauthorized")
+    public void wrongPassword() throws Exception {
+        service.register(new UserData("alice", "hunter2", "a@b.c")).join();
+
+        var ex = Assertions.assertThrows(CompletionException.class, () -> service.login("alice", "hunter3").join());
+        Assertions.assertEquals(401, ((ResponseException) ex.getCause()).statusCode());
+    }
+
+    @Test
+    @DisplayName("Taken Name Is Refused Before Hashing")
+    public void taken() throws Exception {
+        service.register(new UserData("alice", "hunter2", "a@b.c")).join();
+
+        var ex = Assertions.assertThrows(ResponseException.class,
+                () -> service.register(new UserData("alice", "other", "x@y.z")));
+        Assertions.assertEquals(403, ex.statusCode());
+        Assertions.assertEquals(1, hasher.stats().completed());
+    }
+
+    @Test
+    @DisplayName("Missing Field Is Bad Request")
+    public void badRequest() {
+        var ex = Assertions.assertThrows(ResponseException.class,
+                () -> service.register(new UserData("alice", null, "a@b.c")));
+        Assertions.assertEquals(400, ex.statusCode());
+    }
+
+    @Test
+    @DisplayName("Saturated Hasher Rejects Fast")
+    public void saturated() throws Exception {
+        var release = new CountDownLatch(1);
+        var blockers = new CompletableFuture<?>[6];
+        // two running and four queued fills the hasher
+        for (int i = 0; i < blockers.length; i++) {
+            blockers[i] = hasher.submit(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            });
+        }
+
+        long start = System.nanoTime();
+        var ex = Assertions.assertThrows(ResponseException.class,
+                () -> service.register(new UserData("bob", "pw", "b@c.d")));
+        Assertions.assertEquals(503, ex.statusCode());
+        Assertions.assertTrue(System.nanoTime() - start < 100_000_000L, "Rejection waited for the queue");
+        Assertions.assertEquals(1, hasher.stats().rejected());
+        Assertions.assertEquals(4, hasher.stats().queued());
+
+        release.countDown();
+        CompletableFuture.allOf(blockers).join();
+        Assertions.assertEquals(6, hasher.stats().completed());
+        Assertions.assertNotNull(service.register(new UserData("bob", "pw", "b@c.d")).join());
+    }
+}
@@ -17,6 +17,7 @@ public class ChessGame {
     private TeamColor teamTurn;
     private ChessBoard chessBoard;
     private Collection<ChessPiece> enPassantPieces;
+    private boolean gameOver;
 
     public ChessGame() {
         teamTurn = TeamColor.WHITE;
@@ -25,6 +26,12 @@ public class ChessGame {
         enPassantPieces = new ArrayList<>();
     }
 
+    private ChessGame(TeamColor teamTurn, ChessBoard chessBoard) {
+        this.teamTurn = teamTurn;
+        this.chessBoard = chessBoard;
+        enPassantPieces = new ArrayList<>();
+    }
+
     /**
      * @return Which team's turn it is
      */
@@ -42,6 +49,23 @@ public class ChessGame {
         teamTurn = team;
     }
 
+    /**
+     * @return whether the game has ended, by checkmate, stalemate or resignation;
+     * no more moves may be made once it has
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * Marks the game as ended, or not
+     *
+     * @param gameOver whether the game has ended
+     */
+    public void setGameOver(boolean gameOver) {
+        this.gameOver = gameOver;
+    }
+
     /**
      * Enum identifying the 2 possible teams in a chess game
      */
@@ -158,9 +182,9 @@ public class ChessGame {
         //take position of pawn that moved two
         //is there a pawn to the left or right of it?
         int row = pawnSpot.getRow();
-        int col = pawnSpot.getColumn();
-        if (col + colDirection > 0 && col + colDirection < 9) {
-            ChessPosition neighborPosition = new ChessPosition(row, pawnSpot.getColumn() - colDirection);
+        int neighborCol = pawnSpot.getColumn() - colDirection;
+        if (neighborCol > 0 && neighborCol < 9) {
+            ChessPosition neighborPosition = new ChessPosition(row, neighborCol);
             ChessPiece neighbor = chessBoard.getPiece(neighborPosition);
             if (neighbor != null && neighbor.getPieceType() == ChessPiece.PieceType.PAWN && neighbor.getTeamColor() != chessBoard.getPiece(pawnSpot).getTeamColor()) {
                 neighbor.setEnPassant(true);
@@ -299,9 +323,7 @@ public class ChessGame {
     }
 
     private boolean simulatedMoveResultsInCheck(ChessMove move, ChessPiece piece) {
-        ChessGame simulation;
-        simulation = new ChessGame();
-        simulation.chessBoard = this.copyBoard();
+        ChessGame simulation = new ChessGame(teamTurn, this.copyBoard());
         try {
             simulation.doMoveWithoutChecking(move);
         }
@@ -335,6 +357,51 @@ public class ChessGame {
         return true;
     }
 
+    /**
+     * Gets every valid move for the given team
+     *
+     * @param teamColor which team to get valid moves for
+     * @return Collection of valid moves for all of that team's pieces
+     */
+    public Collection<ChessMove> allValidMoves(TeamColor teamColor) {
+        Collection<ChessMove> allMoves = new ArrayList<>();
+        for (int i = 1; i < 9; i++) {
+            for (int j = 1; j < 9; j++) {
+                ChessPosition position = new ChessPosition(i, j);
+                ChessPiece square = chessBoard.getPiece(position);
+                if (square != null && square.getTeamColor() == teamColor) {
+                    allMoves.addAll(validMoves(position));
+                }
+            }
+        }
+        return allMoves;
+    }
+
+    /**
+     * Makes an independent copy of this game, including the moved and en passant
+     * state of every piece, so moves can be tried on it without touching this game
+     *
+     * @return the copied game
+     */
+    public ChessGame copy() {
+        ChessGame copy = new ChessGame(teamTurn, new ChessBoard());
+        copy.gameOver = gameOver;
+        for (int i = 1; i < 9; i++) {
+            for (int j = 1; j < 9; j++) {
+                ChessPosition position = new ChessPosition(i, j);
+                ChessPiece piece = chessBoard.getPiece(position);
+                if (piece != null) {
+                    ChessPiece newPiece = new ChessPiece(piece);
+                    copy.chessBoard.addPiece(position, newPiece);
+                    if (newPiece.getEnPassant()) {
+                        copy.enPassantPieces.add(newPiece);
+                    }
+                }
+            }
+        }
+        return copy;
+    }
+
     /**
      * Sets this game's chessboard with a given board
      *
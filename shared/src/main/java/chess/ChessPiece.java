@@ -26,6 +26,14 @@ public class ChessPiece {
         this.enPassant = false;
     }
 
+    public ChessPiece(ChessPiece other) {
+        this.pieceColor = other.pieceColor;
+        this.type = other.type;
+        this.hasMoved = other.hasMoved;
+        this.enPassant = other.enPassant;
+        this.enPassantMove = other.enPassantMove;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
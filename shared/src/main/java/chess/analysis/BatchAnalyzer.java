@@ -0,0 +1,136 @@
+package chess.analysis;
+
+import chess.ChessGame;
+import chess.engine.Evaluator;
+import chess.engine.PieceSquareEvaluator;
+import chess.engine.Search;
+import chess.notation.Fen;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Analyzes a long stream of FEN positions in parallel.
+ * <p>
+ * Positions are pulled from the source in batches; each batch is fanned out over a
+ * parallel stream and its reports are handed to the sink in input order before the
+ * next batch is read. Only one batch is ever held in memory, so a file of millions of
+ * positions is processed in constant space.
+ */
+public class BatchAnalyzer {
+
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+
+    private final int batchSize;
+    private final int searchDepth;
+    private final Search search;
+
+    /**
+     * Creates an analyzer that only counts moves and checks, without a search score
+     */
+    public BatchAnalyzer() {
+        this(DEFAULT_BATCH_SIZE, 0);
+    }
+
+    /**
+     * @param batchSize   how many positions to read and analyze at a time
+     * @param searchDepth depth of the engine score to compute, or 0 for no score
+     */
+    public BatchAnalyzer(int batchSize, int searchDepth) {
+        this(batchSize, searchDepth, new PieceSquareEvaluator());
+    }
+
+    /**
+     * @param batchSize   how many positions to read and analyze at a time
+     * @param searchDepth depth of the engine score to compute, or 0 for no score
+     * @param evaluator   scores the leaves of the search; shared by every thread
+     */
+    public BatchAnalyzer(int batchSize, int searchDepth, Evaluator evaluator) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        if (searchDepth < 0) {
+            throw new IllegalArgumentException("searchDepth must not be negative");
+        }
+        this.batchSize = batchSize;
+        this.searchDepth = searchDepth;
+        this.search = new Search(evaluator);
+    }
+
+    /**
+     * Analyzes every position from an iterator, passing reports to the sink in the same
+     * order as the positions. Blank lines are skipped.
+     *
+     * @param fens the positions to analyze, one FEN each
+     * @param sink receives one report per position, always on the calling thread
+     * @return how many positions were analyzed
+     */
+    public long analyze(Iterator<String> fens, Consumer<PositionReport> sink) {
+        long count = 0;
+        List<String> batch = new ArrayList<>(batchSize);
+        while (fens.hasNext()) {
+            String fen = fens.next();
+            if (fen == null || fen.isBlank()) {
+                continue;
+            }
+            batch.add(fen);
+            if (batch.size() == batchSize) {
+                count += runBatch(batch, sink);
+                batch.clear();
+            }
+        }
+        count += runBatch(batch, sink);
+        return count;
+    }
+
+    /**
+     * Analyzes a file with one FEN position per line
+     *
+     * @see #analyze(Iterator, Consumer)
+     */
+    public long analyze(Path file, Consumer<PositionReport> sink) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return analyze(reader.lines().iterator(), sink);
+        }
+    }
+
+    /**
+     * Analyzes a single position on the calling thread
+     *
+     * @param fen the position to analyze
+     * @return the report, with its error set if the FEN could not be read
+     */
+    public PositionReport analyze(String fen) {
+        ChessGame game;
+        try {
+            game = Fen.parse(fen);
+        }
+        catch (IllegalArgumentException e) {
+            return PositionReport.failed(fen, e.getMessage());
+        }
+        ChessGame.TeamColor turn = game.getTeamTurn();
+        int legalMoves = game.allValidMoves(turn).size();
+        boolean inCheck = game.isInCheck(turn);
+        Integer score = null;
+        if (searchDepth > 0) {
+            score = search.score(game, searchDepth);
+        }
+        return new PositionReport(fen, legalMoves, inCheck, score, null);
+    }
+
+    private int runBatch(List<String> batch, Consumer<PositionReport> sink) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<PositionReport> reports = batch.parallelStream().map(this::analyze).toList();
+        reports.forEach(sink);
+        return reports.size();
+    }
+}
@@ -0,0 +1,26 @@
+package chess.analysis;
+
+/**
+ * The result of analyzing one position
+ *
+ * @param fen        the position as it was given
+ * @param legalMoves how many valid moves the team to move has
+ * @param inCheck    whether the team to move is in check
+ * @param score      the search score in centipawns for the team to move, or null if no
+ *                   search was requested or the position could not be read
+ * @param error      why the position could not be analyzed, or null if it was
+ */
+public record PositionReport(String fen, int legalMoves, boolean inCheck, Integer score, String error) {
+
+    public static PositionReport failed(String fen, String error) {
+        return new PositionReport(fen, 0, false, null, error);
+    }
+
+    public boolean isCheckmate() {
+        return error == null && inCheck && legalMoves == 0;
+    }
+
+    public boolean isStalemate() {
+        return error == null && !inCheck && legalMoves == 0;
+    }
+}
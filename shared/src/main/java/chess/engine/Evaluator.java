@@ -0,0 +1,17 @@
+package chess.engine;
+
+import chess.ChessGame;
+
+/**
+ * Scores a chess position without searching any moves
+ */
+public interface Evaluator {
+
+    /**
+     * Scores the game's current position
+     *
+     * @param game the position to score
+     * @return the score in centipawns from the point of view of the team whose turn it is
+     */
+    int evaluate(ChessGame game);
+}
@@ -0,0 +1,41 @@
+package chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * The hidden layer values of an {@link NnueEvaluator} for one position, from white's
+ * and from black's point of view
+ */
+public class NnueAccumulator {
+
+    final short[] white;
+    final short[] black;
+
+    NnueAccumulator(int hiddenSize) {
+        white = new short[hiddenSize];
+        black = new short[hiddenSize];
+    }
+
+    private NnueAccumulator(short[] white, short[] black) {
+        this.white = white;
+        this.black = black;
+    }
+
+    NnueAccumulator copy() {
+        return new NnueAccumulator(white.clone(), black.clone());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        NnueAccumulator that = (NnueAccumulator) o;
+        return Arrays.equals(white, that.white) && Arrays.equals(black, that.black);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(white) + Arrays.hashCode(black);
+    }
+}
@@ -0,0 +1,226 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Scores positions with a small efficiently updatable neural network (NNUE).
+ * <p>
+ * The network has 768 inputs (own/enemy x piece type x square), one hidden layer of
+ * clipped ReLU units kept in an {@link NnueAccumulator} for each point of view, and a
+ * single output. A move only changes two to four inputs, so {@link Search} keeps an
+ * accumulator per node and derives each child's from its parent's with
+ * {@link #update} instead of summing every input again.
+ * <p>
+ * The inner loops run over flat primitive arrays with no branches so the JIT can turn
+ * them into SIMD instructions on its own.
+ * <p>
+ * Weights file layout, all values little-endian: int magic {@link #MAGIC}, int hidden
+ * size H, short[768 * H] input weights grouped by input, short[H] hidden biases,
+ * short[2 * H] output weights (side to move first), int output bias.
+ */
+public class NnueEvaluator implements Evaluator {
+
+    public static final int MAGIC = 0x554E4E43;
+    public static final int INPUTS = 768;
+
+    private static final int QA = 255;
+    private static final int QB = 64;
+    private static final int SCALE = 400;
+
+    private final int hiddenSize;
+    private final short[] inputWeights;
+    private final short[] hiddenBias;
+    private final short[] outputWeights;
+    private final int outputBias;
+
+    public NnueEvaluator(int hiddenSize, short[] inputWeights, short[] hiddenBias, short[] outputWeights, int outputBias) {
+        if (inputWeights.length != INPUTS * hiddenSize || hiddenBias.length != hiddenSize
+                || outputWeights.length != 2 * hiddenSize) {
+            throw new IllegalArgumentException("Weight arrays do not match hidden size " + hiddenSize);
+        }
+        this.hiddenSize = hiddenSize;
+        this.inputWeights = inputWeights;
+        this.hiddenBias = hiddenBias;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+    }
+
+    /**
+     * Loads a network from a weights file
+     *
+     * @throws IOException if the file cannot be read or is not a weights file
+     */
+    public static NnueEvaluator load(Path weightsFile) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(weightsFile), 1 << 16)) {
+            DataInputStream data = new DataInputStream(in);
+            if (readIntLe(data) != MAGIC) {
+                throw new IOException("Not an NNUE weights file: " + weightsFile);
+            }
+            int hiddenSize = readIntLe(data);
+            if (hiddenSize < 1 || hiddenSize > 4096) {
+                throw new IOException("Bad hidden size " + hiddenSize + " in " + weightsFile);
+            }
+            short[] inputWeights = readShortsLe(data, INPUTS * hiddenSize);
+            short[] hiddenBias = readShortsLe(data, hiddenSize);
+            short[] outputWeights = readShortsLe(data, 2 * hiddenSize);
+            int outputBias = readIntLe(data);
+            return new NnueEvaluator(hiddenSize, inputWeights, hiddenBias, outputWeights, outputBias);
+        }
+        catch (EOFException e) {
+            throw new IOException("Truncated NNUE weights file: " + weightsFile, e);
+        }
+    }
+
+    /**
+     * Loads a network if the weights file is usable, otherwise falls back to the
+     * piece-square evaluator
+     *
+     * @param weightsFile the weights file, or null to use the fallback
+     */
+    public static Evaluator loadOrDefault(Path weightsFile) {
+        if (weightsFile == null || !Files.isReadable(weightsFile)) {
+            return new PieceSquareEvaluator();
+        }
+        try {
+            return load(weightsFile);
+        }
+        catch (IOException e) {
+            return new PieceSquareEvaluator();
+        }
+    }
+
+    @Override
+    public int evaluate(ChessGame game) {
+        return evaluate(game, refresh(game));
+    }
+
+    /**
+     * Scores a position whose accumulator is already up to date
+     */
+    public int evaluate(ChessGame game, NnueAccumulator accumulator) {
+        boolean whiteToMove = game.getTeamTurn() == ChessGame.TeamColor.WHITE;
+        short[] us = whiteToMove ? accumulator.white : accumulator.black;
+        short[] them = whiteToMove ? accumulator.black : accumulator.white;
+        long sum = 0;
+        for (int i = 0; i < hiddenSize; i++) {
+            sum += Math.min(Math.max(us[i], 0), QA) * outputWeights[i];
+        }
+        for (int i = 0; i < hiddenSize; i++) {
+            sum += Math.min(Math.max(them[i], 0), QA) * outputWeights[hiddenSize + i];
+        }
+        return (int) ((sum + outputBias) * SCALE / (QA * QB));
+    }
+
+    /**
+     * Builds an accumulator from scratch by summing the inputs of every piece
+     */
+    public NnueAccumulator refresh(ChessGame game) {
+        NnueAccumulator accumulator = new NnueAccumulator(hiddenSize);
+        System.arraycopy(hiddenBias, 0, accumulator.white, 0, hiddenSize);
+        System.arraycopy(hiddenBias, 0, accumulator.black, 0, hiddenSize);
+        ChessBoard board = game.getBoard();
+        for (int i = 1; i < 9; i++) {
+            for (int j = 1; j < 9; j++) {
+                ChessPiece piece = board.getPiece(new ChessPosition(i, j));
+                if (piece != null) {
+                    add(accumulator, piece.getTeamColor(), piece.getPieceType(), i, j);
+                }
+            }
+        }
+        return accumulator;
+    }
+
+    /**
+     * Derives the accumulator after a move from the one before it. The parent
+     * accumulator is left unchanged, so undoing the move is just going back to it.
+     *
+     * @param parent the accumulator for the position before the move
+     * @param before the game before the move is made
+     * @param move   a valid move in that game
+     * @return a new accumulator for the position after the move
+     */
+    public NnueAccumulator update(NnueAccumulator parent, ChessGame before, ChessMove move) {
+        NnueAccumulator child = parent.copy();
+        ChessBoard board = before.getBoard();
+        ChessPosition from = move.getStartPosition();
+        ChessPosition to = move.getEndPosition();
+        ChessPiece piece = board.getPiece(from);
+        ChessGame.TeamColor color = piece.getTeamColor();
+
+        sub(child, color, piece.getPieceType(), from.getRow(), from.getColumn());
+        ChessPiece.PieceType endType = move.getPromotionPiece() != null ? move.getPromotionPiece() : piece.getPieceType();
+        add(child, color, endType, to.getRow(), to.getColumn());
+
+        ChessPiece captured = board.getPiece(to);
+        if (captured != null) {
+            sub(child, captured.getTeamColor(), captured.getPieceType(), to.getRow(), to.getColumn());
+        }
+        else if (piece.getPieceType() == ChessPiece.PieceType.PAWN && from.getColumn() != to.getColumn()) {
+            // en passant takes the pawn beside the start square
+            sub(child, before.otherTeam(color), ChessPiece.PieceType.PAWN, from.getRow(), to.getColumn());
+        }
+        if (piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs(to.getColumn() - from.getColumn()) == 2) {
+            boolean kingside = to.getColumn() > from.getColumn();
+            sub(child, color, ChessPiece.PieceType.ROOK, from.getRow(), kingside ? 8 : 1);
+            add(child, color, ChessPiece.PieceType.ROOK, from.getRow(), kingside ? 6 : 4);
+        }
+        return child;
+    }
+
+    private void add(NnueAccumulator accumulator, ChessGame.TeamColor color, ChessPiece.PieceType type, int row, int col) {
+        addRow(accumulator.white, inputIndex(ChessGame.TeamColor.WHITE, color, type, row, col) * hiddenSize);
+        addRow(accumulator.black, inputIndex(ChessGame.TeamColor.BLACK, color, type, row, col) * hiddenSize);
+    }
+
+    private void sub(NnueAccumulator accumulator, ChessGame.TeamColor color, ChessPiece.PieceType type, int row, int col) {
+        subRow(accumulator.white, inputIndex(ChessGame.TeamColor.WHITE, color, type, row, col) * hiddenSize);
+        subRow(accumulator.black, inputIndex(ChessGame.TeamColor.BLACK, color, type, row, col) * hiddenSize);
+    }
+
+    private void addRow(short[] values, int offset) {
+        for (int i = 0; i < hiddenSize; i++) {
+            values[i] += inputWeights[offset + i];
+        }
+    }
+
+    private void subRow(short[] values, int offset) {
+        for (int i = 0; i < hiddenSize; i++) {
+            values[i] -= inputWeights[offset + i];
+        }
+    }
+
+    /**
+     * Numbers an input from one team's point of view: that team's pieces come first,
+     * and black sees the board with its own back row as row 1.
+     */
+    static int inputIndex(ChessGame.TeamColor view, ChessGame.TeamColor color, ChessPiece.PieceType type, int row, int col) {
+        int viewRow = view == ChessGame.TeamColor.WHITE ? row : 9 - row;
+        int square = (viewRow - 1) * 8 + (col - 1);
+        int side = color == view ? 0 : 384;
+        return side + type.ordinal() * 64 + square;
+    }
+
+    private static int readIntLe(DataInputStream data) throws IOException {
+        return Integer.reverseBytes(data.readInt());
+    }
+
+    private static short[] readShortsLe(DataInputStream data, int count) throws IOException {
+        short[] values = new short[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = Short.reverseBytes(data.readShort());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,114 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+
+import java.util.Collection;
+
+/**
+ * Fixed-depth negamax search with alpha-beta pruning.
+ * <p>
+ * Each move is tried on a {@link ChessGame#copy()} of the position, so a search never
+ * changes the game it is given. With an {@link NnueEvaluator}, each node also carries
+ * its network accumulator, updated from the parent's rather than rebuilt. A Search
+ * holds no state between calls and can be shared between threads as long as its
+ * evaluator can.
+ */
+public class Search {
+
+    /**
+     * Score for delivering checkmate right now; mates further away score slightly lower
+     */
+    public static final int MATE_SCORE = 1_000_000;
+
+    private final Evaluator evaluator;
+    private final NnueEvaluator network;
+
+    public Search(Evaluator evaluator) {
+        this.evaluator = evaluator;
+        this.network = evaluator instanceof NnueEvaluator nnue ? nnue : null;
+    }
+
+    /**
+     * Searches the game's position to a fixed depth
+     *
+     * @param game  the position to search
+     * @param depth how many moves (plies) to look ahead
+     * @return the score in centipawns from the point of view of the team whose turn it is
+     */
+    public int score(ChessGame game, int depth) {
+        return negamax(game, refresh(game), depth, -MATE_SCORE - 1, MATE_SCORE + 1, 0);
+    }
+
+    /**
+     * Finds the best move for the team whose turn it is
+     *
+     * @param game  the position to search
+     * @param depth how many moves (plies) to look ahead, at least 1
+     * @return the best move found, or null if the team has no valid moves
+     */
+    public ChessMove bestMove(ChessGame game, int depth) {
+        ChessMove best = null;
+        int alpha = -MATE_SCORE - 1;
+        NnueAccumulator accumulator = refresh(game);
+        for (ChessMove move : game.allValidMoves(game.getTeamTurn())) {
+            ChessGame child = tryMove(game, move);
+            if (child == null) {
+                continue;
+            }
+            int score = -negamax(child, update(accumulator, game, move), Math.max(depth, 1) - 1,
+                    -MATE_SCORE - 1, -alpha, 1);
+            if (best == null || score > alpha) {
+                alpha = score;
+                best = move;
+            }
+        }
+        return best;
+    }
+
+    private int negamax(ChessGame game, NnueAccumulator accumulator, int depth, int alpha, int beta, int ply) {
+        if (depth == 0) {
+            return network != null ? network.evaluate(game, accumulator) : evaluator.evaluate(game);
+        }
+        Collection<ChessMove> moves = game.allValidMoves(game.getTeamTurn());
+        boolean anyMove = false;
+        for (ChessMove move : moves) {
+            ChessGame child = tryMove(game, move);
+            if (child == null) {
+                continue;
+            }
+            anyMove = true;
+            int score = -negamax(child, update(accumulator, game, move), depth - 1, -beta, -alpha, ply + 1);
+            if (score >= beta) {
+                return score;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+        }
+        if (!anyMove) {
+            return game.isInCheck(game.getTeamTurn()) ? -MATE_SCORE + ply : 0;
+        }
+        return alpha;
+    }
+
+    private NnueAccumulator refresh(ChessGame game) {
+        return network != null ? network.refresh(game) : null;
+    }
+
+    private NnueAccumulator update(NnueAccumulator accumulator, ChessGame before, ChessMove move) {
+        return network != null ? network.update(accumulator, before, move) : null;
+    }
+
+    private static ChessGame tryMove(ChessGame game, ChessMove move) {
+        ChessGame child = game.copy();
+        try {
+            child.makeMove(move);
+        }
+        catch (InvalidMoveException e) {
+            return null;
+        }
+        return child;
+    }
+}
@@ -0,0 +1,20 @@
+package chess.match;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.engine.Evaluator;
+import chess.engine.Search;
+
+/**
+ * An engine configuration taking part in a match
+ *
+ * @param name      label used in reports
+ * @param evaluator scores the leaves of the search; shared by every game thread
+ * @param depth     fixed search depth in plies
+ */
+public record EnginePlayer(String name, Evaluator evaluator, int depth) {
+
+    public ChessMove chooseMove(ChessGame game) {
+        return new Search(evaluator).bestMove(game, depth);
+    }
+}
@@ -0,0 +1,185 @@
+package chess.match;
+
+import chess.engine.NnueEvaluator;
+import chess.notation.Fen;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays engine A against engine B in parallel until an SPRT decides or the game limit
+ * is reached.
+ * <p>
+ * Every opening is played once per color, as a pair of games with the colors swapped,
+ * and each game runs on its own ChessGame on a fixed pool of threads, one per core by
+ * default. Once the SPRT decides, games that have not started yet are skipped, and
+ * the results of games still running are not counted.
+ * <p>
+ * The engines search deterministically, so replaying an opening would only repeat a game
+ * already scored and count it again as fresh evidence. A match is therefore limited to
+ * two games per opening, and the openings have to come from a file; use a book with
+ * enough distinct positions for the SPRT to reach a decision.
+ * <p>
+ * Usage: {@code java -cp shared.jar chess.match.MatchRunner --openings FILE [options]}
+ * <pre>
+ *   --openings FILE   one FEN per line, each played once per color (required)
+ *   --games N         maximum number of games, at most two per opening
+ *                     (default: two per opening)
+ *   --depth-a N       search depth of engine A (default 2)
+ *   --depth-b N       search depth of engine B (default 2)
+ *   --weights-a FILE  NNUE weights for engine A (default: piece-square tables)
+ *   --weights-b FILE  NNUE weights for engine B (default: piece-square tables)
+ *   --threads N       worker threads (default: available processors)
+ *   --max-plies N     plies before a game is adjudicated a draw (default 300)
+ *   --elo0 X --elo1 X SPRT hypotheses (default 0 and 10)
+ *   --alpha X --beta X SPRT error rates (default 0.05 and 0.05)
+ * </pre>
+ */
+public class MatchRunner {
+
+    private final EnginePlayer engineA;
+    private final EnginePlayer engineB;
+    private final List<String> openings;
+    private final int maxGames;
+    private final int threads;
+    private final int maxPlies;
+    private final MatchStats stats;
+    private final PrintStream log;
+
+    public MatchRunner(EnginePlayer engineA, EnginePlayer engineB, List<String> openings, int maxGames,
+                       int threads, int maxPlies, MatchStats stats, PrintStream log) {
+        if (openings.isEmpty()) {
+            throw new IllegalArgumentException("At least one opening is needed");
+        }
+        if (maxGames > 2 * openings.size()) {
+            throw new IllegalArgumentException("Only " + openings.size() + " openings for " + maxGames
+                    + " games; each opening is played once per color");
+        }
+        this.engineA = engineA;
+        this.engineB = engineB;
+        this.openings = openings;
+        this.maxGames = maxGames;
+        this.threads = threads;
+        this.maxPlies = maxPlies;
+        this.stats = stats;
+        this.log = log;
+    }
+
+    /**
+     * Runs the match to completion
+     *
+     * @return the final totals and SPRT state
+     */
+    public MatchStats run() throws InterruptedException {
+        AtomicBoolean decided = new AtomicBoolean(false);
+        AtomicInteger finished = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (int i = 0; i < maxGames; i++) {
+                String opening = openings.get(i / 2);
+                boolean engineAIsWhite = i % 2 == 0;
+                pool.execute(() -> {
+                    if (decided.get()) {
+                        return;
+                    }
+                    double score = playOne(opening, engineAIsWhite);
+                    MatchStats.Decision decision = stats.record(score);
+                    if (finished.incrementAndGet() % 20 == 0) {
+                        log.println(stats);
+                    }
+                    if (decision != MatchStats.Decision.CONTINUE) {
+                        decided.set(true);
+                    }
+                });
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        return stats;
+    }
+
+    private double playOne(String opening, boolean engineAIsWhite) {
+        EnginePlayer white = engineAIsWhite ? engineA : engineB;
+        EnginePlayer black = engineAIsWhite ? engineB : engineA;
+        SelfPlayGame.Outcome outcome = new SelfPlayGame(white, black, maxPlies).play(opening);
+        return switch (outcome) {
+            case DRAW -> 0.5;
+            case WHITE_WINS -> engineAIsWhite ? 1 : 0;
+            case BLACK_WINS -> engineAIsWhite ? 0 : 1;
+        };
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path openingsFile = null;
+        Integer games = null;
+        int depthA = 2;
+        int depthB = 2;
+        Path weightsA = null;
+        Path weightsB = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxPlies = 300;
+        double elo0 = 0;
+        double elo1 = 10;
+        double alpha = 0.05;
+        double beta = 0.05;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--openings" -> openingsFile = Path.of(value);
+                case "--games" -> games = Integer.parseInt(value);
+                case "--depth-a" -> depthA = Integer.parseInt(value);
+                case "--depth-b" -> depthB = Integer.parseInt(value);
+                case "--weights-a" -> weightsA = Path.of(value);
+                case "--weights-b" -> weightsB = Path.of(value);
+                case "--threads" -> threads = Integer.parseInt(value);
+                case "--max-plies" -> maxPlies = Integer.parseInt(value);
+                case "--elo0" -> elo0 = Double.parseDouble(value);
+                case "--elo1" -> elo1 = Double.parseDouble(value);
+                case "--alpha" -> alpha = Double.parseDouble(value);
+                case "--beta" -> beta = Double.parseDouble(value);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        if (openingsFile == null) {
+            throw new IllegalArgumentException("--openings is required");
+        }
+        List<String> openings = new ArrayList<>();
+        for (String line : Files.readAllLines(openingsFile)) {
+            if (!line.isBlank()) {
+                Fen.parse(line);
+                openings.add(line.strip());
+            }
+        }
+        if (games == null) {
+            games = 2 * openings.size();
+        }
+
+        EnginePlayer engineA = new EnginePlayer("A", NnueEvaluator.loadOrDefault(weightsA), depthA);
+        EnginePlayer engineB = new EnginePlayer("B", NnueEvaluator.loadOrDefault(weightsB), depthB);
+        System.out.printf("A: %s depth %d, B: %s depth %d, %d openings, %d threads%n",
+                engineA.evaluator().getClass().getSimpleName(), depthA,
+                engineB.evaluator().getClass().getSimpleName(), depthB, openings.size(), threads);
+
+        MatchStats stats = new MatchRunner(engineA, engineB, openings, games, threads, maxPlies,
+                new MatchStats(elo0, elo1, alpha, beta), System.out).run();
+
+        System.out.println(stats);
+        System.out.println(switch (stats.decision()) {
+            case ACCEPT_H1 -> "SPRT: H1 accepted, A is stronger by at least " + elo1 + " Elo";
+            case ACCEPT_H0 -> "SPRT: H0 accepted, A is not stronger by " + elo1 + " Elo";
+            case CONTINUE -> "SPRT: no decision within " + games + " games";
+        });
+    }
+}
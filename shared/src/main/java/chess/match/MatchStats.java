@@ -0,0 +1,182 @@
+package chess.match;
+
+/**
+ * Running win/draw/loss totals for engine A against engine B, with an Elo estimate and
+ * a sequential probability ratio test (SPRT) between two Elo hypotheses.
+ * <p>
+ * The log-likelihood ratio uses the usual trinomial normal approximation for logistic
+ * Elo. All methods are synchronized so game threads can record results directly.
+ * <p>
+ * The test stops at the first bound it crosses: once it has decided, later results
+ * are ignored, so games that were still running then cannot move the verdict.
+ */
+public class MatchStats {
+
+    /**
+     * Where the SPRT stands
+     */
+    public enum Decision {
+        CONTINUE,
+        ACCEPT_H0,
+        ACCEPT_H1
+    }
+
+    private final double elo0;
+    private final double elo1;
+    private final double lowerBound;
+    private final double upperBound;
+
+    private int wins;
+    private int draws;
+    private int losses;
+    private Decision decision = Decision.CONTINUE;
+
+    /**
+     * @param elo0  Elo difference of the null hypothesis (A is no better than this)
+     * @param elo1  Elo difference of the alternative hypothesis (A is at least this good)
+     * @param alpha chance of accepting H1 when H0 is true
+     * @param beta  chance of accepting H0 when H1 is true
+     */
+    public MatchStats(double elo0, double elo1, double alpha, double beta) {
+        if (elo1 <= elo0) {
+            throw new IllegalArgumentException("elo1 must be greater than elo0");
+        }
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    /**
+     * Records one finished game from engine A's point of view
+     *
+     * @param score 1 for a win, 0.5 for a draw, 0 for a loss
+     * @return the SPRT decision including this game, or the decision already reached,
+     * in which case the game is not counted
+     */
+    public synchronized Decision record(double score) {
+        if (decision != Decision.CONTINUE) {
+            return decision;
+        }
+        if (score == 1) {
+            wins++;
+        }
+        else if (score == 0) {
+            losses++;
+        }
+        else {
+            draws++;
+        }
+        double llr = llr();
+        if (llr >= upperBound) {
+            decision = Decision.ACCEPT_H1;
+        }
+        else if (llr <= lowerBound) {
+            decision = Decision.ACCEPT_H0;
+        }
+        return decision;
+    }
+
+    public synchronized int games() {
+        return wins + draws + losses;
+    }
+
+    public synchronized int wins() {
+        return wins;
+    }
+
+    public synchronized int draws() {
+        return draws;
+    }
+
+    public synchronized int losses() {
+        return losses;
+    }
+
+    /**
+     * @return the log-likelihood ratio of H1 against H0 so far
+     */
+    public synchronized double llr() {
+        int games = games();
+        double variance = variance();
+        if (variance == 0) {
+            // no spread in the results yet, e.g. every game so far was drawn
+            return 0;
+        }
+        double mean = score();
+        double s0 = expectedScore(elo0);
+        double s1 = expectedScore(elo1);
+        return games * (s1 - s0) * (2 * mean - s0 - s1) / (2 * variance);
+    }
+
+    /**
+     * @return the decision at the first bound crossed, or CONTINUE if none has been yet
+     */
+    public synchronized Decision decision() {
+        return decision;
+    }
+
+    /**
+     * @return engine A's average score per game, between 0 and 1
+     */
+    public synchronized double score() {
+        int games = games();
+        return games == 0 ? 0.5 : (wins + 0.5 * draws) / games;
+    }
+
+    /**
+     * @return the Elo difference of engine A over engine B implied by the score
+     */
+    public synchronized double elo() {
+        return eloFromScore(score());
+    }
+
+    /**
+     * @return half the width of the 95% confidence interval around {@link #elo()}
+     */
+    public synchronized double eloErrorMargin() {
+        int games = games();
+        if (games < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double mean = score();
+        double deviation = Math.sqrt(variance() / games);
+        return (eloFromScore(mean + 1.96 * deviation) - eloFromScore(mean - 1.96 * deviation)) / 2;
+    }
+
+    public double lowerBound() {
+        return lowerBound;
+    }
+
+    public double upperBound() {
+        return upperBound;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("games %d  +%d =%d -%d  score %.3f  elo %+.1f +/- %.1f  llr %.2f [%.2f, %.2f]",
+                games(), wins, draws, losses, score(), elo(), eloErrorMargin(), llr(), lowerBound, upperBound);
+    }
+
+    private double variance() {
+        int games = games();
+        if (games == 0) {
+            return 0;
+        }
+        double mean = score();
+        return (wins * sq(1 - mean) + draws * sq(0.5 - mean) + losses * sq(mean)) / games;
+    }
+
+    static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    static double eloFromScore(double score) {
+        double clamped = Math.min(Math.max(score, 1e-6), 1 - 1e-6);
+        return -400 * Math.log10(1 / clamped - 1);
+    }
+
+    private static double sq(double x) {
+        return x * x;
+    }
+}
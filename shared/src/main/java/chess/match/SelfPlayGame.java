@@ -0,0 +1,75 @@
+package chess.match;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.InvalidMoveException;
+import chess.notation.Fen;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Plays one engine-vs-engine game on its own {@link ChessGame}.
+ * <p>
+ * ChessGame does not track draws by rule, so this class adjudicates them: threefold
+ * repetition of a position, 100 plies without a capture or pawn move, or reaching the
+ * ply limit.
+ */
+public class SelfPlayGame {
+
+    /**
+     * How a finished game ended, from white's point of view
+     */
+    public enum Outcome {
+        WHITE_WINS,
+        BLACK_WINS,
+        DRAW
+    }
+
+    private final EnginePlayer white;
+    private final EnginePlayer black;
+    private final int maxPlies;
+
+    public SelfPlayGame(EnginePlayer white, EnginePlayer black, int maxPlies) {
+        this.white = white;
+        this.black = black;
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * Plays the game out from an opening position
+     *
+     * @param openingFen where the game starts
+     * @return how the game ended
+     */
+    public Outcome play(String openingFen) {
+        ChessGame game = Fen.parse(openingFen);
+        Map<String, Integer> seen = new HashMap<>();
+        int quietPlies = 0;
+        for (int ply = 0; ply < maxPlies; ply++) {
+            ChessGame.TeamColor turn = game.getTeamTurn();
+            EnginePlayer mover = turn == ChessGame.TeamColor.WHITE ? white : black;
+            ChessMove move = mover.chooseMove(game);
+            if (move == null) {
+                if (!game.isInCheck(turn)) {
+                    return Outcome.DRAW;
+                }
+                return turn == ChessGame.TeamColor.WHITE ? Outcome.BLACK_WINS : Outcome.WHITE_WINS;
+            }
+            boolean capture = game.getBoard().getPiece(move.getEndPosition()) != null;
+            boolean pawnMove = game.getBoard().getPiece(move.getStartPosition()).getPieceType() == ChessPiece.PieceType.PAWN;
+            try {
+                game.makeMove(move);
+            }
+            catch (InvalidMoveException e) {
+                throw new IllegalStateException(mover.name() + " chose an invalid move " + move, e);
+            }
+            quietPlies = capture || pawnMove ? 0 : quietPlies + 1;
+            if (quietPlies >= 100 || seen.merge(Fen.format(game), 1, Integer::sum) >= 3) {
+                return Outcome.DRAW;
+            }
+        }
+        return Outcome.DRAW;
+    }
+}
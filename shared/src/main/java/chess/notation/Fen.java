@@ -0,0 +1,296 @@
+package chess.notation;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+/**
+ * Reads and writes Forsyth-Edwards Notation (FEN) positions.
+ * <p>
+ * Castling rights are stored on the pieces themselves, so every piece of a parsed
+ * position is marked as moved except a king or rook that still holds a castling right.
+ * The halfmove clock and fullmove number are not tracked by {@link ChessGame}; they are
+ * accepted when parsing and written as "0 1". {@link #fullmoveNumber} reads the fullmove
+ * number back out for numbering moves.
+ */
+public final class Fen {
+
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private Fen() {}
+
+    /**
+     * Builds a game from a FEN string
+     *
+     * @param fen the position to load
+     * @return a game set up at that position with the side to move from the FEN
+     * @throws IllegalArgumentException if the FEN is malformed
+     */
+    public static ChessGame parse(String fen) {
+        if (fen == null) {
+            throw new IllegalArgumentException("FEN is null");
+        }
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 2) {
+            throw new IllegalArgumentException("FEN needs at least placement and side to move: " + fen);
+        }
+        ChessBoard board = parsePlacement(fields[0], fen);
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        switch (fields[1]) {
+            case "w" -> game.setTeamTurn(ChessGame.TeamColor.WHITE);
+            case "b" -> game.setTeamTurn(ChessGame.TeamColor.BLACK);
+            default -> throw new IllegalArgumentException("Bad side to move '" + fields[1] + "': " + fen);
+        }
+
+        String castling = fields.length > 2 ? fields[2] : "-";
+        applyCastlingRights(board, castling, fen);
+
+        if (fields.length > 3 && !fields[3].equals("-")) {
+            applyEnPassantTarget(game, fields[3], fen);
+        }
+        return game;
+    }
+
+    /**
+     * @return the FEN's fullmove number, or 1 if it has none or it is not a positive
+     * number
+     */
+    public static int fullmoveNumber(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 6) {
+            return 1;
+        }
+        try {
+            return Math.max(1, Integer.parseInt(fields[5]));
+        }
+        catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    /**
+     * Writes a game's current position as FEN
+     *
+     * @param game the game to describe
+     * @return the FEN string for the game's position
+     */
+    public static String format(ChessGame game) {
+        StringBuilder fen = new StringBuilder(90);
+        ChessBoard board = game.getBoard();
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(new ChessPosition(row, col));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                fen.append(pieceChar(piece));
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row > 1) {
+                fen.append('/');
+            }
+        }
+        fen.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w " : " b ");
+
+        int castlingStart = fen.length();
+        appendCastlingRight(fen, board, 1, 8, 'K');
+        appendCastlingRight(fen, board, 1, 1, 'Q');
+        appendCastlingRight(fen, board, 8, 8, 'k');
+        appendCastlingRight(fen, board, 8, 1, 'q');
+        if (fen.length() == castlingStart) {
+            fen.append('-');
+        }
+
+        fen.append(' ');
+        ChessPosition target = enPassantTarget(game);
+        if (target == null) {
+            fen.append('-');
+        }
+        else {
+            fen.append(squareName(target));
+        }
+        fen.append(" 0 1");
+        return fen.toString();
+    }
+
+    /**
+     * @return the algebraic name of a square, e.g. "e4"
+     */
+    public static String squareName(ChessPosition position) {
+        return "" + (char) ('a' + position.getColumn() - 1) + (char) ('0' + position.getRow());
+    }
+
+    /**
+     * @return the position named by an algebraic square such as "e4"
+     * @throws IllegalArgumentException if the name is not a square on the board
+     */
+    public static ChessPosition parseSquare(String square) {
+        if (square.length() != 2) {
+            throw new IllegalArgumentException("Bad square: " + square);
+        }
+        int col = square.charAt(0) - 'a' + 1;
+        int row = square.charAt(1) - '0';
+        if (col < 1 || col > 8 || row < 1 || row > 8) {
+            throw new IllegalArgumentException("Bad square: " + square);
+        }
+        return new ChessPosition(row, col);
+    }
+
+    /**
+     * @return the FEN letter for a piece, upper case for white and lower case for black
+     */
+    public static char pieceChar(ChessPiece piece) {
+        char letter = pieceLetter(piece.getPieceType());
+        return piece.getTeamColor() == ChessGame.TeamColor.WHITE ? letter : Character.toLowerCase(letter);
+    }
+
+    /**
+     * @return the upper case letter for a piece type, as used in FEN and SAN
+     */
+    public static char pieceLetter(ChessPiece.PieceType type) {
+        return switch (type) {
+            case KING -> 'K';
+            case QUEEN -> 'Q';
+            case BISHOP -> 'B';
+            case KNIGHT -> 'N';
+            case ROOK -> 'R';
+            case PAWN -> 'P';
+        };
+    }
+
+    /**
+     * @return the piece type named by a letter (either case), or null if it names no piece
+     */
+    public static ChessPiece.PieceType pieceType(char letter) {
+        return switch (Character.toUpperCase(letter)) {
+            case 'K' -> ChessPiece.PieceType.KING;
+            case 'Q' -> ChessPiece.PieceType.QUEEN;
+            case 'B' -> ChessPiece.PieceType.BISHOP;
+            case 'N' -> ChessPiece.PieceType.KNIGHT;
+            case 'R' -> ChessPiece.PieceType.ROOK;
+            case 'P' -> ChessPiece.PieceType.PAWN;
+            default -> null;
+        };
+    }
+
+    private static ChessBoard parsePlacement(String placement, String fen) {
+        ChessBoard board = new ChessBoard();
+        String[] ranks = placement.split("/");
+        if (ranks.length != 8) {
+            throw new IllegalArgumentException("FEN placement needs 8 ranks: " + fen);
+        }
+        for (int i = 0; i < 8; i++) {
+            int row = 8 - i;
+            int col = 1;
+            for (char c : ranks[i].toCharArray()) {
+                if (c >= '1' && c <= '8') {
+                    col += c - '0';
+                    continue;
+                }
+                ChessPiece.PieceType type = pieceType(c);
+                if (type == null || col > 8) {
+                    throw new IllegalArgumentException("Bad rank '" + ranks[i] + "': " + fen);
+                }
+                ChessGame.TeamColor color = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+                ChessPiece piece = new ChessPiece(color, type);
+                piece.moved();
+                board.addPiece(new ChessPosition(row, col), piece);
+                col++;
+            }
+            if (col != 9) {
+                throw new IllegalArgumentException("Rank '" + ranks[i] + "' does not cover 8 squares: " + fen);
+            }
+        }
+        return board;
+    }
+
+    private static void applyCastlingRights(ChessBoard board, String castling, String fen) {
+        if (castling.equals("-")) {
+            return;
+        }
+        for (char c : castling.toCharArray()) {
+            switch (c) {
+                case 'K' -> grantCastlingRight(board, 1, 8, ChessGame.TeamColor.WHITE, fen);
+                case 'Q' -> grantCastlingRight(board, 1, 1, ChessGame.TeamColor.WHITE, fen);
+                case 'k' -> grantCastlingRight(board, 8, 8, ChessGame.TeamColor.BLACK, fen);
+                case 'q' -> grantCastlingRight(board, 8, 1, ChessGame.TeamColor.BLACK, fen);
+                default -> throw new IllegalArgumentException("Bad castling rights '" + castling + "': " + fen);
+            }
+        }
+    }
+
+    static void grantCastlingRight(ChessBoard board, int row, int rookCol, ChessGame.TeamColor color, String fen) {
+        ChessPiece king = board.getPiece(new ChessPosition(row, 5));
+        ChessPiece rook = board.getPiece(new ChessPosition(row, rookCol));
+        if (!isPiece(king, color, ChessPiece.PieceType.KING) || !isPiece(rook, color, ChessPiece.PieceType.ROOK)) {
+            throw new IllegalArgumentException("Castling right without king and rook on their squares: " + fen);
+        }
+        // pieces were all marked as moved while parsing, so give these two fresh copies
+        board.addPiece(new ChessPosition(row, 5), new ChessPiece(color, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(row, rookCol), new ChessPiece(color, ChessPiece.PieceType.ROOK));
+    }
+
+    static void applyEnPassantTarget(ChessGame game, String square, String fen) {
+        ChessPosition target = parseSquare(square);
+        int targetRow = game.getTeamTurn() == ChessGame.TeamColor.WHITE ? 6 : 3;
+        if (target.getRow() != targetRow) {
+            throw new IllegalArgumentException("En passant target " + square + " is not on rank " + targetRow
+                    + " with " + game.getTeamTurn() + " to move: " + fen);
+        }
+        // the pawn that just moved two squares sits one row past the target, away from the side to move
+        int pawnRow = game.getTeamTurn() == ChessGame.TeamColor.WHITE ? target.getRow() - 1 : target.getRow() + 1;
+        ChessPosition pawnSpot = new ChessPosition(pawnRow, target.getColumn());
+        ChessPiece pawn = game.getBoard().getPiece(pawnSpot);
+        if (!isPiece(pawn, game.otherTeam(game.getTeamTurn()), ChessPiece.PieceType.PAWN)) {
+            throw new IllegalArgumentException("En passant target " + square + " has no pawn behind it: " + fen);
+        }
+        game.enPassant(pawnSpot, -1);
+        game.enPassant(pawnSpot, 1);
+    }
+
+    private static void appendCastlingRight(StringBuilder fen, ChessBoard board, int row, int rookCol, char right) {
+        if (hasCastlingRight(board, row, rookCol)) {
+            fen.append(right);
+        }
+    }
+
+    /**
+     * @return whether the king and the rook in the given corner are both unmoved
+     */
+    static boolean hasCastlingRight(ChessBoard board, int row, int rookCol) {
+        ChessPiece king = board.getPiece(new ChessPosition(row, 5));
+        ChessPiece rook = board.getPiece(new ChessPosition(row, rookCol));
+        ChessGame.TeamColor color = row == 1 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        return isPiece(king, color, ChessPiece.PieceType.KING) && !king.getHasMoved()
+                && isPiece(rook, color, ChessPiece.PieceType.ROOK) && !rook.getHasMoved();
+    }
+
+    static ChessPosition enPassantTarget(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        for (int i = 1; i < 9; i++) {
+            for (int j = 1; j < 9; j++) {
+                ChessPiece piece = board.getPiece(new ChessPosition(i, j));
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn() && piece.getEnPassant()
+                        && piece.getEnPassantMove() != null) {
+                    return piece.getEnPassantMove().getEndPosition();
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isPiece(ChessPiece piece, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return piece != null && piece.getTeamColor() == color && piece.getPieceType() == type;
+    }
+}
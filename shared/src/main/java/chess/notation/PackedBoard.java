@@ -0,0 +1,123 @@
+package chess.notation;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+import java.util.Arrays;
+
+/**
+ * Packs a game's position into {@value #SIZE} bytes: one nibble per square, then a
+ * byte of flags and a byte for the en passant file. It holds the same state as a FEN
+ * (pieces, side to move, castling rights and en passant target) plus whether the game
+ * is over, and unpacks the same way {@link Fen#parse} does.
+ * <p>
+ * Squares are numbered as in {@link PackedMove}, two to a byte with the lower-numbered
+ * square in the low nibble. A nibble is 0 for an empty square, or the piece type's
+ * ordinal plus one, with 8 added for black.
+ */
+public final class PackedBoard {
+
+    public static final int SIZE = 34;
+
+    private static final int BLACK = 8;
+    private static final int BLACK_TO_MOVE = 1;
+    private static final int GAME_OVER = 1 << 1;
+    private static final int WHITE_KINGSIDE = 1 << 2;
+    private static final int WHITE_QUEENSIDE = 1 << 3;
+    private static final int BLACK_KINGSIDE = 1 << 4;
+    private static final int BLACK_QUEENSIDE = 1 << 5;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private PackedBoard() {}
+
+    public static byte[] pack(ChessGame game) {
+        byte[] packed = new byte[SIZE];
+        pack(game, packed, 0);
+        return packed;
+    }
+
+    /**
+     * Packs the game into {@value #SIZE} bytes of {@code out} starting at {@code offset},
+     * overwriting whatever they held
+     */
+    public static void pack(ChessGame game, byte[] out, int offset) {
+        ChessBoard board = game.getBoard();
+        // squares are ORed in a nibble at a time
+        Arrays.fill(out, offset, offset + 32, (byte) 0);
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(new ChessPosition(square / 8 + 1, square % 8 + 1));
+            if (piece != null) {
+                int code = piece.getPieceType().ordinal() + 1
+                        + (piece.getTeamColor() == ChessGame.TeamColor.BLACK ? BLACK : 0);
+                out[offset + square / 2] |= (byte) (code << (square % 2) * 4);
+            }
+        }
+        int flags = 0;
+        if (game.getTeamTurn() == ChessGame.TeamColor.BLACK) {
+            flags |= BLACK_TO_MOVE;
+        }
+        if (game.isGameOver()) {
+            flags |= GAME_OVER;
+        }
+        flags |= Fen.hasCastlingRight(board, 1, 8) ? WHITE_KINGSIDE : 0;
+        flags |= Fen.hasCastlingRight(board, 1, 1) ? WHITE_QUEENSIDE : 0;
+        flags |= Fen.hasCastlingRight(board, 8, 8) ? BLACK_KINGSIDE : 0;
+        flags |= Fen.hasCastlingRight(board, 8, 1) ? BLACK_QUEENSIDE : 0;
+        out[offset + 32] = (byte) flags;
+        ChessPosition target = Fen.enPassantTarget(game);
+        out[offset + 33] = (byte) (target == null ? 0 : target.getColumn());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes were not made by {@link #pack}
+     */
+    public static ChessGame unpack(byte[] packed, int offset) {
+        if (packed.length - offset < SIZE) {
+            throw new IllegalArgumentException("Packed board needs " + SIZE + " bytes");
+        }
+        var board = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            int code = packed[offset + square / 2] >>> (square % 2) * 4 & 15;
+            if (code == 0) {
+                continue;
+            }
+            int type = (code & 7) - 1;
+            if (type < 0 || type >= TYPES.length) {
+                throw new IllegalArgumentException("Bad piece code " + code + " on square " + square);
+            }
+            var piece = new ChessPiece((code & BLACK) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE,
+                    TYPES[type]);
+            piece.moved();
+            board.addPiece(new ChessPosition(square / 8 + 1, square % 8 + 1), piece);
+        }
+
+        var game = new ChessGame();
+        game.setBoard(board);
+        int flags = packed[offset + 32];
+        game.setTeamTurn((flags & BLACK_TO_MOVE) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+        game.setGameOver((flags & GAME_OVER) != 0);
+        String description = "packed board";
+        if ((flags & WHITE_KINGSIDE) != 0) {
+            Fen.grantCastlingRight(board, 1, 8, ChessGame.TeamColor.WHITE, description);
+        }
+        if ((flags & WHITE_QUEENSIDE) != 0) {
+            Fen.grantCastlingRight(board, 1, 1, ChessGame.TeamColor.WHITE, description);
+        }
+        if ((flags & BLACK_KINGSIDE) != 0) {
+            Fen.grantCastlingRight(board, 8, 8, ChessGame.TeamColor.BLACK, description);
+        }
+        if ((flags & BLACK_QUEENSIDE) != 0) {
+            Fen.grantCastlingRight(board, 8, 1, ChessGame.TeamColor.BLACK, description);
+        }
+        int enPassantFile = packed[offset + 33];
+        if (enPassantFile != 0) {
+            // the target is behind the pawn that just moved two squares
+            int row = game.getTeamTurn() == ChessGame.TeamColor.WHITE ? 6 : 3;
+            Fen.applyEnPassantTarget(game, Fen.squareName(new ChessPosition(row, enPassantFile)), description);
+        }
+        return game;
+    }
+}
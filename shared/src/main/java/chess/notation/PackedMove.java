@@ -0,0 +1,61 @@
+package chess.notation;
+
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+/**
+ * Packs a move into 15 bits: six for the start square, six for the end square and
+ * three for the promotion piece, small enough for a SMALLINT column or two bytes on
+ * the wire. Squares are numbered 0 (a1) to 63 (h8), rank by rank.
+ */
+public final class PackedMove {
+
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            null,
+            ChessPiece.PieceType.QUEEN,
+            ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.KNIGHT
+    };
+
+    private PackedMove() {}
+
+    public static int pack(ChessMove move) {
+        int promotion = 0;
+        if (move.getPromotionPiece() != null) {
+            promotion = switch (move.getPromotionPiece()) {
+                case QUEEN -> 1;
+                case ROOK -> 2;
+                case BISHOP -> 3;
+                case KNIGHT -> 4;
+                default -> throw new IllegalArgumentException("Cannot promote to " + move.getPromotionPiece());
+            };
+        }
+        return square(move.getStartPosition()) | square(move.getEndPosition()) << 6 | promotion << 12;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value was not made by {@link #pack}
+     */
+    public static ChessMove unpack(int packed) {
+        int promotion = packed >>> 12;
+        if (packed < 0 || promotion >= PROMOTIONS.length) {
+            throw new IllegalArgumentException("Not a packed move: " + packed);
+        }
+        return new ChessMove(position(packed & 63), position(packed >>> 6 & 63), PROMOTIONS[promotion]);
+    }
+
+    private static int square(ChessPosition position) {
+        int row = position.getRow();
+        int col = position.getColumn();
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            throw new IllegalArgumentException("Square off the board: " + position);
+        }
+        return (row - 1) * 8 + col - 1;
+    }
+
+    private static ChessPosition position(int square) {
+        return new ChessPosition(square / 8 + 1, square % 8 + 1);
+    }
+}
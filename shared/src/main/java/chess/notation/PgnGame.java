@@ -0,0 +1,24 @@
+package chess.notation;
+
+import chess.ChessGame;
+import chess.ChessMove;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One game read from a PGN file and replayed
+ *
+ * @param tags          the tag pairs, such as Event, White and Result, in file order
+ * @param moves         the moves that were replayed, in order
+ * @param result        the game termination marker ("1-0", "0-1", "1/2-1/2" or "*")
+ * @param finalPosition the game after the last replayed move
+ * @param error         why replay stopped early, or null if every move was replayed
+ */
+public record PgnGame(Map<String, String> tags, List<ChessMove> moves, String result,
+                      ChessGame finalPosition, String error) {
+
+    public String tag(String name) {
+        return tags.get(name);
+    }
+}
@@ -0,0 +1,295 @@
+package chess.notation;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streams games out of a PGN file one at a time and replays their moves.
+ * <p>
+ * Only the text of the current game is held in memory, so arbitrarily large files can
+ * be read. Splitting the file into games is a cheap line scan; parsing the SAN moves
+ * and replaying them is the expensive part, and {@link #forEachGame(Consumer, int)}
+ * spreads that over all cores one batch of games at a time.
+ */
+public class PgnReader implements Closeable {
+
+    public static final int DEFAULT_BATCH_SIZE = 512;
+
+    private final BufferedReader reader;
+    private String pendingLine;
+
+    public PgnReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader, 1 << 16);
+    }
+
+    /**
+     * Reads the raw text of the next game, tags and movetext included
+     *
+     * @return the game's text, or null at the end of the input
+     */
+    public String nextGameText() throws IOException {
+        StringBuilder game = new StringBuilder(1024);
+        boolean sawMoves = false;
+        String line;
+        while ((line = nextLine()) != null) {
+            if (line.startsWith("%")) {
+                continue;
+            }
+            String trimmed = line.strip();
+            if (trimmed.startsWith("[") && sawMoves) {
+                // a tag after movetext belongs to the next game
+                pendingLine = line;
+                break;
+            }
+            if (!trimmed.isEmpty() && !trimmed.startsWith("[")) {
+                sawMoves = true;
+            }
+            game.append(line).append('\n');
+            if (sawMoves && endsWithResult(trimmed)) {
+                break;
+            }
+        }
+        return game.toString().isBlank() ? null : game.toString();
+    }
+
+    /**
+     * Reads and replays the next game on the calling thread
+     *
+     * @return the game, or null at the end of the input
+     */
+    public PgnGame nextGame() throws IOException {
+        String text = nextGameText();
+        return text == null ? null : parseGame(text);
+    }
+
+    /**
+     * Reads and replays every remaining game on the calling thread
+     *
+     * @param sink receives each game in file order
+     * @return how many games were read
+     */
+    public long forEachGame(Consumer<PgnGame> sink) throws IOException {
+        long count = 0;
+        PgnGame game;
+        while ((game = nextGame()) != null) {
+            sink.accept(game);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Reads every remaining game, replaying each batch of games in parallel.
+     * Games are still handed to the sink in file order, on the calling thread.
+     *
+     * @param sink      receives each game in file order
+     * @param batchSize how many games to read before replaying them together
+     * @return how many games were read
+     */
+    public long forEachGame(Consumer<PgnGame> sink, int batchSize) throws IOException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        long count = 0;
+        List<String> batch = new ArrayList<>(batchSize);
+        String text;
+        while ((text = nextGameText()) != null) {
+            batch.add(text);
+            if (batch.size() == batchSize) {
+                count += replayBatch(batch, sink);
+                batch.clear();
+            }
+        }
+        count += replayBatch(batch, sink);
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Parses one game's text and replays its main line. Comments, variations and
+     * numeric annotation glyphs are skipped. A move that cannot be resolved stops the
+     * replay and is reported through {@link PgnGame#error()}.
+     *
+     * @param text the tags and movetext of a single game
+     * @return the replayed game
+     */
+    public static PgnGame parseGame(String text) {
+        Map<String, String> tags = new LinkedHashMap<>();
+        int i = parseTags(text, tags);
+
+        String fen = tags.get("FEN");
+        ChessGame game;
+        try {
+            game = fen == null ? new ChessGame() : Fen.parse(fen);
+        }
+        catch (IllegalArgumentException e) {
+            return new PgnGame(tags, List.of(), tags.getOrDefault("Result", "*"), new ChessGame(), e.getMessage());
+        }
+
+        List<ChessMove> moves = new ArrayList<>();
+        int moveNumber = fen == null ? 1 : Fen.fullmoveNumber(fen);
+        String result = tags.getOrDefault("Result", "*");
+        String error = null;
+        int length = text.length();
+        int variationDepth = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            }
+            else if (c == '{') {
+                int close = text.indexOf('}', i);
+                i = close < 0 ? length : close + 1;
+            }
+            else if (c == ';') {
+                int newline = text.indexOf('\n', i);
+                i = newline < 0 ? length : newline + 1;
+            }
+            else if (c == '(') {
+                variationDepth++;
+                i++;
+            }
+            else if (c == ')') {
+                variationDepth = Math.max(0, variationDepth - 1);
+                i++;
+            }
+            else {
+                int start = i;
+                while (i < length && !isTokenEnd(text.charAt(i))) {
+                    i++;
+                }
+                String token = text.substring(start, i);
+                if (variationDepth > 0 || error != null || token.startsWith("$")) {
+                    continue;
+                }
+                if (isResult(token)) {
+                    result = token;
+                    continue;
+                }
+                String san = stripMoveNumber(token);
+                if (san.isEmpty()) {
+                    continue;
+                }
+                try {
+                    ChessMove move = San.parse(game, san);
+                    game.makeMove(move);
+                    moves.add(move);
+                    if (game.getTeamTurn() == ChessGame.TeamColor.WHITE) {
+                        moveNumber++;
+                    }
+                }
+                catch (IllegalArgumentException | InvalidMoveException e) {
+                    String number = game.getTeamTurn() == ChessGame.TeamColor.WHITE ? moveNumber + "." : moveNumber + "...";
+                    error = "Move " + number + " " + san + ": " + e.getMessage();
+                }
+            }
+        }
+        return new PgnGame(Collections.unmodifiableMap(tags), Collections.unmodifiableList(moves), result, game, error);
+    }
+
+    private long replayBatch(List<String> batch, Consumer<PgnGame> sink) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<PgnGame> games = batch.parallelStream().map(PgnReader::parseGame).toList();
+        games.forEach(sink);
+        return games.size();
+    }
+
+    private String nextLine() throws IOException {
+        if (pendingLine != null) {
+            String line = pendingLine;
+            pendingLine = null;
+            return line;
+        }
+        return reader.readLine();
+    }
+
+    private static int parseTags(String text, Map<String, String> tags) {
+        int i = 0;
+        int length = text.length();
+        while (i < length) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            if (c != '[') {
+                break;
+            }
+            int lineEnd = text.indexOf('\n', i);
+            if (lineEnd < 0) {
+                lineEnd = length;
+            }
+            parseTag(text.substring(i + 1, lineEnd), tags);
+            i = lineEnd;
+        }
+        return i;
+    }
+
+    private static void parseTag(String tag, Map<String, String> tags) {
+        int space = tag.indexOf(' ');
+        int open = tag.indexOf('"');
+        if (space < 0 || open < 0) {
+            return;
+        }
+        StringBuilder value = new StringBuilder();
+        for (int i = open + 1; i < tag.length(); i++) {
+            char c = tag.charAt(i);
+            if (c == '\\' && i + 1 < tag.length()) {
+                value.append(tag.charAt(++i));
+            }
+            else if (c == '"') {
+                break;
+            }
+            else {
+                value.append(c);
+            }
+        }
+        tags.put(tag.substring(0, space), value.toString());
+    }
+
+    private static String stripMoveNumber(String token) {
+        int i = 0;
+        while (i < token.length() && Character.isDigit(token.charAt(i))) {
+            i++;
+        }
+        if (i == 0 || i == token.length() || token.charAt(i) != '.') {
+            // "0-0" castling starts with a digit but is not a move number
+            return i == token.length() ? "" : token;
+        }
+        while (i < token.length() && token.charAt(i) == '.') {
+            i++;
+        }
+        return token.substring(i);
+    }
+
+    private static boolean isTokenEnd(char c) {
+        return Character.isWhitespace(c) || c == '{' || c == '(' || c == ')' || c == ';';
+    }
+
+    private static boolean isResult(String token) {
+        return token.equals("1-0") || token.equals("0-1") || token.equals("1/2-1/2") || token.equals("*");
+    }
+
+    private static boolean endsWithResult(String line) {
+        int space = line.lastIndexOf(' ');
+        return isResult(line.substring(space + 1)) && !line.contains("{");
+    }
+}
@@ -0,0 +1,170 @@
+package chess.notation;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes games as PGN straight to a {@link Writer}.
+ * <p>
+ * Moves are replayed on a copy of the starting position to work out their SAN, and
+ * each token is written as soon as it is known, with lines wrapped at 80 columns. The
+ * only buffers are one small token builder and char array reused for every move, the
+ * array growing if a token ever outgrows it, so a writer can export any number of games
+ * without building strings for them. A
+ * PgnWriter is not thread safe.
+ */
+public class PgnWriter implements Closeable, Flushable {
+
+    private static final int MAX_LINE = 80;
+    private static final String[] SEVEN_TAG_ROSTER = {"Event", "Site", "Date", "Round", "White", "Black", "Result"};
+    private static final List<String> RESULTS = List.of("1-0", "0-1", "1/2-1/2", "*");
+
+    private final Writer out;
+    private final StringBuilder token = new StringBuilder(16);
+    private char[] tokenChars = new char[32];
+    private int lineLength;
+
+    public PgnWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes UTF-8 PGN to a stream, buffering it
+     */
+    public PgnWriter(OutputStream out) {
+        this(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16));
+    }
+
+    /**
+     * Writes a game that was read from PGN. A result that is not a termination marker,
+     * as a malformed Result tag can leave, is written as "*".
+     */
+    public void write(PgnGame game) throws IOException {
+        String fen = game.tag("FEN");
+        String result = RESULTS.contains(game.result()) ? game.result() : "*";
+        write(game.tags(), fen == null ? new ChessGame() : Fen.parse(fen), game.moves(), result);
+    }
+
+    /**
+     * Writes one game. The seven standard tags are always written first, with "?" for
+     * any that are missing, followed by the rest of the tags in their map order.
+     *
+     * @param tags   tag pairs such as Event, White and Black
+     * @param start  the position the moves start from; it is not changed
+     * @param moves  the moves in order
+     * @param result the termination marker ("1-0", "0-1", "1/2-1/2" or "*")
+     * @throws IllegalArgumentException if the result is not one of those markers, or a
+     *                                  move is not valid when it is played
+     */
+    public void write(Map<String, String> tags, ChessGame start, List<ChessMove> moves, String result) throws IOException {
+        if (!RESULTS.contains(result)) {
+            throw new IllegalArgumentException("Not a game termination marker: " + result);
+        }
+        for (String name : SEVEN_TAG_ROSTER) {
+            String value = name.equals("Result") ? result : tags.get(name);
+            writeTag(name, value == null ? "?" : value);
+        }
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            if (!isRosterTag(tag.getKey())) {
+                writeTag(tag.getKey(), tag.getValue());
+            }
+        }
+        out.write('\n');
+
+        ChessGame game = start.copy();
+        boolean blackFirst = game.getTeamTurn() == ChessGame.TeamColor.BLACK;
+        lineLength = 0;
+        int moveNumber = 1;
+        for (ChessMove move : moves) {
+            token.setLength(0);
+            if (game.getTeamTurn() == ChessGame.TeamColor.WHITE) {
+                token.append(moveNumber).append(". ");
+            }
+            else if (blackFirst) {
+                token.append(moveNumber).append("... ");
+            }
+            blackFirst = false;
+            San.appendMove(token, game, move);
+            try {
+                game.makeMove(move);
+            }
+            catch (InvalidMoveException e) {
+                throw new IllegalArgumentException("Move is not valid: " + move, e);
+            }
+            San.appendSuffix(token, game);
+            if (game.getTeamTurn() == ChessGame.TeamColor.WHITE) {
+                moveNumber++;
+            }
+            writeToken();
+        }
+        token.setLength(0);
+        token.append(result);
+        writeToken();
+        out.write("\n\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeTag(String name, String value) throws IOException {
+        out.write('[');
+        out.write(name);
+        out.write(" \"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+            }
+            out.write(c);
+        }
+        out.write("\"]\n");
+    }
+
+    private void writeToken() throws IOException {
+        if (lineLength > 0) {
+            if (lineLength + 1 + token.length() > MAX_LINE) {
+                out.write('\n');
+                lineLength = 0;
+            }
+            else {
+                out.write(' ');
+                lineLength++;
+            }
+        }
+        if (token.length() > tokenChars.length) {
+            tokenChars = new char[token.length()];
+        }
+        // Writer.append(CharSequence) would make a String of the token
+        token.getChars(0, token.length(), tokenChars, 0);
+        out.write(tokenChars, 0, token.length());
+        lineLength += token.length();
+    }
+
+    private static boolean isRosterTag(String name) {
+        for (String rosterTag : SEVEN_TAG_ROSTER) {
+            if (rosterTag.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
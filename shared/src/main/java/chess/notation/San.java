@@ -0,0 +1,246 @@
+package chess.notation;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+
+/**
+ * Reads and writes Standard Algebraic Notation (SAN) moves such as "Nbd7", "exd5",
+ * "e8=Q+" and "O-O".
+ */
+public final class San {
+
+    private San() {}
+
+    /**
+     * Resolves a SAN move against the valid moves of the team whose turn it is
+     *
+     * @param game the game the move is played in
+     * @param san  the move text; check, mate and annotation suffixes are ignored
+     * @return the matching valid move
+     * @throws IllegalArgumentException if the text is not SAN, or matches no valid move
+     *                                  or more than one
+     */
+    public static ChessMove parse(ChessGame game, String san) {
+        String text = stripSuffixes(san);
+        ChessGame.TeamColor turn = game.getTeamTurn();
+        int homeRow = turn == ChessGame.TeamColor.WHITE ? 1 : 8;
+
+        if (text.equals("O-O") || text.equals("0-0")) {
+            return castle(game, san, homeRow, 7);
+        }
+        if (text.equals("O-O-O") || text.equals("0-0-0")) {
+            return castle(game, san, homeRow, 3);
+        }
+
+        int end = text.length();
+        ChessPiece.PieceType promotion = null;
+        if (end > 0 && "QRBN".indexOf(text.charAt(end - 1)) >= 0 && text.charAt(0) >= 'a' && text.charAt(0) <= 'h') {
+            promotion = Fen.pieceType(text.charAt(end - 1));
+            end--;
+            if (end > 0 && text.charAt(end - 1) == '=') {
+                end--;
+            }
+        }
+        if (end < 2) {
+            throw new IllegalArgumentException("Not a SAN move: " + san);
+        }
+        ChessPosition target = Fen.parseSquare(text.substring(end - 2, end));
+
+        int start = 0;
+        ChessPiece.PieceType type = ChessPiece.PieceType.PAWN;
+        if ("KQRBN".indexOf(text.charAt(0)) >= 0) {
+            type = Fen.pieceType(text.charAt(0));
+            start = 1;
+        }
+        int fromCol = 0;
+        int fromRow = 0;
+        for (int i = start; i < end - 2; i++) {
+            char c = text.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromCol = c - 'a' + 1;
+            }
+            else if (c >= '1' && c <= '8') {
+                fromRow = c - '0';
+            }
+            else if (c != 'x' && c != ':' && c != '-') {
+                throw new IllegalArgumentException("Not a SAN move: " + san);
+            }
+        }
+
+        ChessMove found = null;
+        for (int row = 1; row < 9; row++) {
+            if (fromRow != 0 && row != fromRow) {
+                continue;
+            }
+            for (int col = 1; col < 9; col++) {
+                if (fromCol != 0 && col != fromCol) {
+                    continue;
+                }
+                ChessPosition from = new ChessPosition(row, col);
+                ChessPiece piece = game.getBoard().getPiece(from);
+                if (piece == null || piece.getTeamColor() != turn || piece.getPieceType() != type) {
+                    continue;
+                }
+                ChessMove candidate = new ChessMove(from, target, promotion);
+                // cheap geometric check first; validMoves copies the board for every move it tests
+                boolean reachable = candidate.equals(piece.getEnPassantMove())
+                        || piece.pieceMoves(game.getBoard(), from).contains(candidate);
+                if (reachable && game.validMoves(from).contains(candidate)) {
+                    if (found != null) {
+                        throw new IllegalArgumentException("Ambiguous SAN move: " + san);
+                    }
+                    found = candidate;
+                }
+            }
+        }
+        if (found == null) {
+            throw new IllegalArgumentException("No valid move matches " + san);
+        }
+        return found;
+    }
+
+    /**
+     * Writes a move as SAN, including its check or mate suffix
+     *
+     * @param game the game before the move is made; it is not changed
+     * @param move a valid move for the team whose turn it is
+     * @return the SAN text of the move
+     */
+    public static String format(ChessGame game, ChessMove move) {
+        StringBuilder san = new StringBuilder(8);
+        appendMove(san, game, move);
+        ChessGame after = game.copy();
+        try {
+            after.makeMove(move);
+        }
+        catch (InvalidMoveException e) {
+            throw new IllegalArgumentException("Move is not valid: " + move, e);
+        }
+        appendSuffix(san, after);
+        return san.toString();
+    }
+
+    /**
+     * Appends the SAN text of a move without its check or mate suffix. Only the pieces
+     * that could also reach the target square are examined for disambiguation.
+     *
+     * @param out  where to write the move
+     * @param game the game before the move is made; it is not changed
+     * @param move a valid move for the team whose turn it is
+     */
+    public static void appendMove(StringBuilder out, ChessGame game, ChessMove move) {
+        ChessBoard board = game.getBoard();
+        ChessPosition from = move.getStartPosition();
+        ChessPosition to = move.getEndPosition();
+        ChessPiece piece = board.getPiece(from);
+        if (piece == null) {
+            throw new IllegalArgumentException("No piece to move at " + Fen.squareName(from));
+        }
+        int colChange = to.getColumn() - from.getColumn();
+
+        if (piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs(colChange) == 2) {
+            out.append(colChange > 0 ? "O-O" : "O-O-O");
+            return;
+        }
+
+        boolean capture = board.getPiece(to) != null;
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            if (colChange != 0) {
+                // diagonal pawn moves are always captures, including en passant
+                out.append((char) ('a' + from.getColumn() - 1)).append('x');
+            }
+            appendSquare(out, to);
+            if (move.getPromotionPiece() != null) {
+                out.append('=').append(Fen.pieceLetter(move.getPromotionPiece()));
+            }
+            return;
+        }
+
+        out.append(Fen.pieceLetter(piece.getPieceType()));
+        appendDisambiguation(out, game, piece, from, to);
+        if (capture) {
+            out.append('x');
+        }
+        appendSquare(out, to);
+    }
+
+    /**
+     * Appends "#" if the team whose turn it now is has been checkmated, or "+" if it is
+     * in check
+     *
+     * @param out  where to write the suffix
+     * @param game the game after the move was made
+     */
+    public static void appendSuffix(StringBuilder out, ChessGame game) {
+        ChessGame.TeamColor turn = game.getTeamTurn();
+        if (!game.isInCheck(turn)) {
+            return;
+        }
+        out.append(game.isInCheckmate(turn) ? '#' : '+');
+    }
+
+    private static void appendDisambiguation(StringBuilder out, ChessGame game, ChessPiece piece,
+                                             ChessPosition from, ChessPosition to) {
+        ChessBoard board = game.getBoard();
+        boolean ambiguous = false;
+        boolean sameCol = false;
+        boolean sameRow = false;
+        for (int row = 1; row < 9; row++) {
+            for (int col = 1; col < 9; col++) {
+                if (row == from.getRow() && col == from.getColumn()) {
+                    continue;
+                }
+                ChessPosition other = new ChessPosition(row, col);
+                ChessPiece rival = board.getPiece(other);
+                if (rival == null || rival.getTeamColor() != piece.getTeamColor()
+                        || rival.getPieceType() != piece.getPieceType()) {
+                    continue;
+                }
+                ChessMove rivalMove = new ChessMove(other, to, null);
+                if (rival.pieceMoves(board, other).contains(rivalMove) && game.validMoves(other).contains(rivalMove)) {
+                    ambiguous = true;
+                    sameCol |= col == from.getColumn();
+                    sameRow |= row == from.getRow();
+                }
+            }
+        }
+        if (!ambiguous) {
+            return;
+        }
+        if (!sameCol) {
+            out.append((char) ('a' + from.getColumn() - 1));
+        }
+        else if (!sameRow) {
+            out.append((char) ('0' + from.getRow()));
+        }
+        else {
+            appendSquare(out, from);
+        }
+    }
+
+    private static void appendSquare(StringBuilder out, ChessPosition position) {
+        out.append((char) ('a' + position.getColumn() - 1)).append((char) ('0' + position.getRow()));
+    }
+
+    private static ChessMove castle(ChessGame game, String san, int homeRow, int kingEndCol) {
+        ChessMove move = new ChessMove(new ChessPosition(homeRow, 5), new ChessPosition(homeRow, kingEndCol), null);
+        ChessPiece king = game.getBoard().getPiece(move.getStartPosition());
+        if (king == null || king.getPieceType() != ChessPiece.PieceType.KING || king.getTeamColor() != game.getTeamTurn()
+                || !game.validMoves(move.getStartPosition()).contains(move)) {
+            throw new IllegalArgumentException("Castling is not valid here: " + san);
+        }
+        return move;
+    }
+
+    private static String stripSuffixes(String san) {
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return san.substring(0, end);
+    }
+}
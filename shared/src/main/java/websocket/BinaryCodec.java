@@ -0,0 +1,201 @@
+package websocket;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.notation.Fen;
+import chess.notation.PackedBoard;
+import chess.notation.PackedMove;
+import websocket.commands.ConnectCommand;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ErrorMessage;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveMadeMessage;
+import websocket.messages.NotificationMessage;
+import websocket.messages.ServerMessage;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes commands and server messages as binary websocket frames, for clients that
+ * would rather not build and parse JSON.
+ * <p>
+ * Every frame starts with one byte holding the command or message type's ordinal.
+ * Numbers are big-endian and strings are a two-byte length followed by UTF-8. A command
+ * follows the type with the game ID (four bytes) and the auth token; CONNECT adds a
+ * byte of flags and MAKE_MOVE adds the move as a {@link PackedMove}. LOAD_GAME carries
+ * a {@link PackedBoard}, MOVE_MADE the packed move, its status and the packed board it
+ * led to, and NOTIFICATION and ERROR their text.
+ * <p>
+ * A client that sends CONNECT as a binary frame gets binary frames back on that
+ * connection; the JSON protocol is unchanged for everyone else.
+ */
+public final class BinaryCodec {
+
+    private static final int MOVE_DELTAS = 1;
+
+    private static final UserGameCommand.CommandType[] COMMAND_TYPES = UserGameCommand.CommandType.values();
+    private static final ServerMessage.ServerMessageType[] MESSAGE_TYPES = ServerMessage.ServerMessageType.values();
+    private static final MoveMadeMessage.Status[] STATUSES = MoveMadeMessage.Status.values();
+
+    private BinaryCodec() {}
+
+    public static byte[] encode(UserGameCommand command) {
+        byte[] token = command.getAuthToken() == null ? new byte[0]
+                : command.getAuthToken().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer out = ByteBuffer.allocate(1 + 4 + 2 + token.length + 2);
+        out.put((byte) command.getCommandType().ordinal());
+        out.putInt(command.getGameID());
+        putBytes(out, token);
+        if (command instanceof ConnectCommand connect) {
+            out.put((byte) (connect.wantsMoveDeltas() ? MOVE_DELTAS : 0));
+        } else if (command instanceof MakeMoveCommand makeMove) {
+            out.putShort((short) PackedMove.pack(makeMove.getMove()));
+        }
+        return trimmed(out);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not a command
+     */
+    public static UserGameCommand decodeCommand(byte[] data, int offset, int length) {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(data, offset, length);
+            int type = in.get();
+            if (type < 0 || type >= COMMAND_TYPES.length) {
+                throw new IllegalArgumentException("Unknown command type " + type);
+            }
+            int gameID = in.getInt();
+            String authToken = getString(in);
+            return switch (COMMAND_TYPES[type]) {
+                case CONNECT -> new ConnectCommand(authToken, gameID, (in.get() & MOVE_DELTAS) != 0);
+                case MAKE_MOVE -> new MakeMoveCommand(authToken, gameID, PackedMove.unpack(in.getShort() & 0xffff));
+                default -> new UserGameCommand(COMMAND_TYPES[type], authToken, gameID);
+            };
+        } catch (BufferUnderflowException ex) {
+            throw new IllegalArgumentException("Command frame is too short", ex);
+        }
+    }
+
+    public static byte[] encode(ServerMessage message) {
+        ByteBuffer out;
+        switch (message) {
+            case LoadGameMessage load -> {
+                out = ByteBuffer.allocate(1 + PackedBoard.SIZE);
+                out.put((byte) message.getServerMessageType().ordinal());
+                putBoard(out, load.getGame());
+            }
+            case MoveMadeMessage moveMade -> {
+                out = ByteBuffer.allocate(1 + 2 + 1 + PackedBoard.SIZE);
+                out.put((byte) message.getServerMessageType().ordinal());
+                out.putShort((short) PackedMove.pack(moveMade.getMove()));
+                out.put((byte) moveMade.getStatus().ordinal());
+                putBoard(out, Fen.parse(moveMade.getPosition()));
+            }
+            case NotificationMessage notification -> out = textFrame(message, notification.getMessage());
+            case ErrorMessage error -> out = textFrame(message, error.getErrorMessage());
+            default -> throw new IllegalArgumentException("No binary form for " + message.getClass().getSimpleName());
+        }
+        return trimmed(out);
+    }
+
+    /**
+     * Encodes a LOAD_GAME straight from the game, without building the message
+     */
+    public static byte[] encodeLoadGame(ChessGame game) {
+        byte[] out = new byte[1 + PackedBoard.SIZE];
+        out[0] = (byte) ServerMessage.ServerMessageType.LOAD_GAME.ordinal();
+        PackedBoard.pack(game, out, 1);
+        return out;
+    }
+
+    /**
+     * Encodes a MOVE_MADE straight from the game the move led to, without going
+     * through its FEN
+     */
+    public static byte[] encodeMoveMade(ChessMove move, MoveMadeMessage.Status status, ChessGame after) {
+        byte[] out = new byte[1 + 2 + 1 + PackedBoard.SIZE];
+        out[0] = (byte) ServerMessage.ServerMessageType.MOVE_MADE.ordinal();
+        int packed = PackedMove.pack(move);
+        out[1] = (byte) (packed >>> 8);
+        out[2] = (byte) packed;
+        out[3] = (byte) status.ordinal();
+        PackedBoard.pack(after, out, 4);
+        return out;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not a server message
+     */
+    public static ServerMessage decodeMessage(byte[] data, int offset, int length) {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(data, offset, length);
+            int type = in.get();
+            if (type < 0 || type >= MESSAGE_TYPES.length) {
+                throw new IllegalArgumentException("Unknown message type " + type);
+            }
+            return switch (MESSAGE_TYPES[type]) {
+                case LOAD_GAME -> new LoadGameMessage(getBoard(in));
+                case MOVE_MADE -> {
+                    var move = PackedMove.unpack(in.getShort() & 0xffff);
+                    int status = in.get();
+                    if (status < 0 || status >= STATUSES.length) {
+                        throw new IllegalArgumentException("Unknown move status " + status);
+                    }
+                    yield new MoveMadeMessage(move, Fen.format(getBoard(in)), STATUSES[status]);
+                }
+                case NOTIFICATION -> new NotificationMessage(getString(in));
+                case ERROR -> new ErrorMessage(getString(in));
+            };
+        } catch (BufferUnderflowException ex) {
+            throw new IllegalArgumentException("Message frame is too short", ex);
+        }
+    }
+
+    private static ByteBuffer textFrame(ServerMessage message, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer out = ByteBuffer.allocate(1 + 2 + bytes.length);
+        out.put((byte) message.getServerMessageType().ordinal());
+        putBytes(out, bytes);
+        return out;
+    }
+
+    private static void putBoard(ByteBuffer out, ChessGame game) {
+        PackedBoard.pack(game, out.array(), out.arrayOffset() + out.position());
+        out.position(out.position() + PackedBoard.SIZE);
+    }
+
+    private static ChessGame getBoard(ByteBuffer in) {
+        if (in.remaining() < PackedBoard.SIZE) {
+            throw new BufferUnderflowException();
+        }
+        ChessGame game = PackedBoard.unpack(in.array(), in.arrayOffset() + in.position());
+        in.position(in.position() + PackedBoard.SIZE);
+        return game;
+    }
+
+    private static void putBytes(ByteBuffer out, byte[] bytes) {
+        if (bytes.length > 0xffff) {
+            throw new IllegalArgumentException("String too long for a binary frame");
+        }
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xffff];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] trimmed(ByteBuffer out) {
+        if (out.position() == out.capacity()) {
+            return out.array();
+        }
+        byte[] bytes = new byte[out.position()];
+        System.arraycopy(out.array(), 0, bytes, 0, bytes.length);
+        return bytes;
+    }
+}
@@ -0,0 +1,37 @@
+package websocket.commands;
+
+import java.util.Objects;
+
+/**
+ * A CONNECT command, with the options the client asks for on this connection
+ */
+public class ConnectCommand extends UserGameCommand {
+
+    private final boolean moveDeltas;
+
+    /**
+     * @param moveDeltas whether the client wants MOVE_MADE messages, which it applies
+     *                   to its own copy of the game, instead of a LOAD_GAME per move
+     */
+    public ConnectCommand(String authToken, Integer gameID, boolean moveDeltas) {
+        super(CommandType.CONNECT, authToken, gameID);
+        this.moveDeltas = moveDeltas;
+    }
+
+    public boolean wantsMoveDeltas() {
+        return moveDeltas;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o) || !(o instanceof ConnectCommand that)) {
+            return false;
+        }
+        return moveDeltas == that.moveDeltas;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), moveDeltas);
+    }
+}
@@ -0,0 +1,35 @@
+package websocket.commands;
+
+import chess.ChessMove;
+
+import java.util.Objects;
+
+/**
+ * A MAKE_MOVE command, which carries the move to play
+ */
+public class MakeMoveCommand extends UserGameCommand {
+
+    private final ChessMove move;
+
+    public MakeMoveCommand(String authToken, Integer gameID, ChessMove move) {
+        super(CommandType.MAKE_MOVE, authToken, gameID);
+        this.move = move;
+    }
+
+    public ChessMove getMove() {
+        return move;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o) || !(o instanceof MakeMoveCommand that)) {
+            return false;
+        }
+        return Objects.equals(move, that.move);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), move);
+    }
+}
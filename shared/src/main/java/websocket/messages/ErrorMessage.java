@@ -0,0 +1,33 @@
+package websocket.messages;
+
+import java.util.Objects;
+
+/**
+ * Tells a client its command was refused; the message always starts with "Error"
+ */
+public class ErrorMessage extends ServerMessage {
+
+    private final String errorMessage;
+
+    public ErrorMessage(String errorMessage) {
+        super(ServerMessageType.ERROR);
+        this.errorMessage = errorMessage;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o) || !(o instanceof ErrorMessage that)) {
+            return false;
+        }
+        return Objects.equals(errorMessage, that.errorMessage);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), errorMessage);
+    }
+}
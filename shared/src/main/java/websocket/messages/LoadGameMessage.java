@@ -0,0 +1,35 @@
+package websocket.messages;
+
+import chess.ChessGame;
+
+import java.util.Objects;
+
+/**
+ * Sends a client the whole game, to draw the board from
+ */
+public class LoadGameMessage extends ServerMessage {
+
+    private final ChessGame game;
+
+    public LoadGameMessage(ChessGame game) {
+        super(ServerMessageType.LOAD_GAME);
+        this.game = game;
+    }
+
+    public ChessGame getGame() {
+        return game;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o) || !(o instanceof LoadGameMessage that)) {
+            return false;
+        }
+        return Objects.equals(game, that.game);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), game);
+    }
+}
@@ -0,0 +1,103 @@
+package websocket.messages;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.notation.Fen;
+
+import java.util.Objects;
+
+/**
+ * Tells a client that already has the game which move was just played, instead of
+ * sending the whole board again.
+ * <p>
+ * The client plays the move on its own copy with {@link #applyTo(ChessGame)}, which
+ * checks the result against the position the server reached. If they differ, the
+ * client has missed something and should send CONNECT again to get a fresh LOAD_GAME.
+ */
+public class MoveMadeMessage extends ServerMessage {
+
+    /**
+     * The state of the game after the move, from the side to move's point of view
+     */
+    public enum Status {
+        PLAYING,
+        CHECK,
+        CHECKMATE,
+        STALEMATE
+    }
+
+    private final ChessMove move;
+    private final String position;
+    private final Status status;
+
+    /**
+     * @param move     the move played
+     * @param position the FEN of the position the move led to
+     * @param status   whether the side to move is in check, mated or stalemated
+     */
+    public MoveMadeMessage(ChessMove move, String position, Status status) {
+        super(ServerMessageType.MOVE_MADE);
+        this.move = move;
+        this.position = position;
+        this.status = status;
+    }
+
+    /**
+     * Describes a move that has just been played on a game
+     *
+     * @param move  the move
+     * @param after the game after the move
+     */
+    public static MoveMadeMessage of(ChessMove move, ChessGame after) {
+        ChessGame.TeamColor turn = after.getTeamTurn();
+        Status status = after.isInCheckmate(turn) ? Status.CHECKMATE
+                : after.isInStalemate(turn) ? Status.STALEMATE
+                : after.isInCheck(turn) ? Status.CHECK
+                : Status.PLAYING;
+        return new MoveMadeMessage(move, Fen.format(after), status);
+    }
+
+    public ChessMove getMove() {
+        return move;
+    }
+
+    public String getPosition() {
+        return position;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Plays the move on the client's copy of the game
+     *
+     * @return true if the game now matches the server's position, or false if the move
+     * could not be played or led somewhere else, and the game needs reloading
+     */
+    public boolean applyTo(ChessGame game) {
+        try {
+            game.makeMove(move);
+        } catch (InvalidMoveException ex) {
+            return false;
+        }
+        if (status == Status.CHECKMATE || status == Status.STALEMATE) {
+            game.setGameOver(true);
+        }
+        return Fen.format(game).equals(position);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o) || !(o instanceof MoveMadeMessage that)) {
+            return false;
+        }
+        return Objects.equals(move, that.move) && Objects.equals(position, that.position) && status == that.status;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), move, position, status);
+    }
+}
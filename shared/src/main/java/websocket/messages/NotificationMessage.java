@@ -0,0 +1,33 @@
+package websocket.messages;
+
+import java.util.Objects;
+
+/**
+ * Tells a client something another user did, or that the game changed state
+ */
+public class NotificationMessage extends ServerMessage {
+
+    private final String message;
+
+    public NotificationMessage(String message) {
+        super(ServerMessageType.NOTIFICATION);
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o) || !(o instanceof NotificationMessage that)) {
+            return false;
+        }
+        return Objects.equals(message, that.message);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), message);
+    }
+}
@@ -0,0 +1,84 @@
+package chess.analysis;
+
+import chess.ChessGame;
+import chess.notation.Fen;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class BatchAnalyzerTests {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final String FOOLS_MATE = "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3";
+    private static final String STALEMATE = "7k/5Q2/6K1/8/8/8/8/8 b - - 0 1";
+    private static final String EN_PASSANT = "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3";
+
+    @Test
+    @DisplayName("FEN Round Trip")
+    public void fenRoundTrip() {
+        for (String fen : List.of(Fen.START_POSITION, KIWIPETE, STALEMATE, EN_PASSANT)) {
+            String expected = fen.substring(0, fen.lastIndexOf(' ', fen.lastIndexOf(' ') - 1)) + " 0 1";
+            Assertions.assertEquals(expected, Fen.format(Fen.parse(fen)), "FEN did not survive a round trip");
+        }
+    }
+
+    @Test
+    @DisplayName("FEN Start Position Matches New Game")
+    public void fenStartPosition() {
+        Assertions.assertEquals(new ChessGame(), Fen.parse(Fen.START_POSITION),
+                "Parsed start position did not match a new game");
+    }
+
+    @Test
+    @DisplayName("Malformed FEN")
+    public void malformedFen() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/8/8 w - - 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/8/8/8/8/8/8/8 x - - 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/8/8/8/8/8/8/8 w K - 0 1"));
+    }
+
+    @Test
+    @DisplayName("Move Counts and Statuses")
+    public void moveCountsAndStatuses() {
+        var analyzer = new BatchAnalyzer();
+
+        Assertions.assertEquals(20, analyzer.analyze(Fen.START_POSITION).legalMoves());
+        Assertions.assertEquals(48, analyzer.analyze(KIWIPETE).legalMoves());
+        Assertions.assertEquals(31, analyzer.analyze(EN_PASSANT).legalMoves(), "En passant capture not counted");
+        Assertions.assertTrue(analyzer.analyze(FOOLS_MATE).isCheckmate());
+        Assertions.assertTrue(analyzer.analyze(STALEMATE).isStalemate());
+    }
+
+    @Test
+    @DisplayName("Batch Keeps Input Order")
+    public void batchKeepsOrder() {
+        List<String> fens = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            fens.addAll(List.of(Fen.START_POSITION, KIWIPETE, "not a fen", FOOLS_MATE));
+        }
+        List<PositionReport> reports = Collections.synchronizedList(new ArrayList<>());
+
+        long count = new BatchAnalyzer(7, 0).analyze(fens.iterator(), reports::add);
+
+        Assertions.assertEquals(fens.size(), count);
+        Assertions.assertEquals(fens.size(), reports.size());
+        for (int i = 0; i < fens.size(); i++) {
+            Assertions.assertEquals(fens.get(i), reports.get(i).fen(), "Reports came back out of order");
+        }
+        Assertions.assertNotNull(reports.get(2).error(), "Bad FEN was not reported");
+        Assertions.assertNull(reports.get(0).score(), "Score computed without a search depth");
+    }
+
+    @Test
+    @DisplayName("Search Score Finds Mate")
+    public void searchScoreFindsMate() {
+        var analyzer = new BatchAnalyzer(1, 2);
+        PositionReport report = analyzer.analyze("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        Assertions.assertNotNull(report.score());
+        Assertions.assertTrue(report.score() > 100_000, "Back rank mate in one was not found");
+    }
+}
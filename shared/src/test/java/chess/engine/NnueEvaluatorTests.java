@@ -0,0 +1,94 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.notation.Fen;
+import chess.notation.San;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class NnueEvaluatorTests {
+
+    private static final int HIDDEN = 32;
+
+    @Test
+    @DisplayName("Incremental Accumulator Matches Refresh")
+    public void incrementalMatchesRefresh() throws InvalidMoveException {
+        NnueEvaluator network = randomNetwork(7);
+        // exercises a quiet move, double push, en passant, capture, castling and promotion
+        ChessGame game = Fen.parse("r3k2r/1P6/8/8/5p2/8/4P3/R3K2R w KQkq - 0 1");
+        NnueAccumulator accumulator = network.refresh(game);
+        for (String san : new String[]{"e4", "fxe3", "O-O-O", "O-O", "bxa8=Q", "Rxa8", "Kb1"}) {
+            ChessMove move = San.parse(game, san);
+            accumulator = network.update(accumulator, game, move);
+            game.makeMove(move);
+            Assertions.assertEquals(network.refresh(game), accumulator, "Accumulator drifted after " + san);
+            Assertions.assertEquals(network.evaluate(game), network.evaluate(game, accumulator));
+        }
+    }
+
+    @Test
+    @DisplayName("Search Agrees With And Without Incremental Updates")
+    public void searchAgrees() {
+        NnueEvaluator network = randomNetwork(11);
+        Evaluator refreshOnly = network::evaluate;
+        ChessGame game = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+
+        Assertions.assertEquals(new Search(refreshOnly).score(game, 2), new Search(network).score(game, 2));
+    }
+
+    @Test
+    @DisplayName("Load Weights File")
+    public void loadWeightsFile() throws IOException {
+        Path file = Files.createTempFile("nnue", ".bin");
+        try {
+            writeRandomWeights(file, 3);
+            Evaluator evaluator = NnueEvaluator.loadOrDefault(file);
+            Assertions.assertTrue(evaluator instanceof NnueEvaluator, "Valid weights file was not loaded");
+
+            Files.write(file, new byte[]{1, 2, 3});
+            Assertions.assertThrows(IOException.class, () -> NnueEvaluator.load(file));
+            Assertions.assertTrue(NnueEvaluator.loadOrDefault(file) instanceof PieceSquareEvaluator,
+                    "Bad weights file did not fall back");
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+        Assertions.assertTrue(NnueEvaluator.loadOrDefault(file) instanceof PieceSquareEvaluator,
+                "Missing weights file did not fall back");
+    }
+
+    private static NnueEvaluator randomNetwork(long seed) {
+        Random random = new Random(seed);
+        return new NnueEvaluator(HIDDEN, randomShorts(random, NnueEvaluator.INPUTS * HIDDEN, 64),
+                randomShorts(random, HIDDEN, 64), randomShorts(random, 2 * HIDDEN, 64), random.nextInt(100));
+    }
+
+    private static void writeRandomWeights(Path file, long seed) throws IOException {
+        Random random = new Random(seed);
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(Integer.reverseBytes(NnueEvaluator.MAGIC));
+            out.writeInt(Integer.reverseBytes(HIDDEN));
+            for (int i = 0; i < (NnueEvaluator.INPUTS + 3) * HIDDEN; i++) {
+                out.writeShort(Short.reverseBytes((short) (random.nextInt(128) - 64)));
+            }
+            out.writeInt(Integer.reverseBytes(5));
+        }
+    }
+
+    private static short[] randomShorts(Random random, int count, int bound) {
+        short[] values = new short[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = (short) (random.nextInt(2 * bound) - bound);
+        }
+        return values;
+    }
+}
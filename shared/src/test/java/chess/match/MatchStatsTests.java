@@ -0,0 +1,89 @@
+package chess.match;
+
+import chess.engine.PieceSquareEvaluator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+public class MatchStatsTests {
+
+    @Test
+    @DisplayName("Elo From Score")
+    public void eloFromScore() {
+        Assertions.assertEquals(0, MatchStats.eloFromScore(0.5), 1e-9, "Even score should be 0 Elo");
+        Assertions.assertEquals(100, MatchStats.eloFromScore(MatchStats.expectedScore(100)), 1e-6,
+                "Elo and expected score should invert each other");
+    }
+
+    @Test
+    @DisplayName("SPRT Accepts H1 For Clear Winner")
+    public void sprtAcceptsH1() {
+        MatchStats stats = new MatchStats(0, 10, 0.05, 0.05);
+        MatchStats.Decision decision = MatchStats.Decision.CONTINUE;
+        for (int i = 0; i < 10_000 && decision == MatchStats.Decision.CONTINUE; i++) {
+            decision = stats.record(i % 3 == 0 ? 0 : i % 3 == 1 ? 1 : (i % 2 == 0 ? 1 : 0.5));
+        }
+        Assertions.assertEquals(MatchStats.Decision.ACCEPT_H1, decision);
+        Assertions.assertTrue(stats.elo() > 10, "Winning engine should have a positive Elo estimate");
+    }
+
+    @Test
+    @DisplayName("SPRT Accepts H0 For Even Match")
+    public void sprtAcceptsH0() {
+        MatchStats stats = new MatchStats(0, 10, 0.05, 0.05);
+        MatchStats.Decision decision = MatchStats.Decision.CONTINUE;
+        for (int i = 0; i < 100_000 && decision == MatchStats.Decision.CONTINUE; i++) {
+            decision = stats.record(i % 3 == 0 ? 0 : i % 3 == 1 ? 1 : 0.5);
+        }
+        Assertions.assertEquals(MatchStats.Decision.ACCEPT_H0, decision);
+    }
+
+    @Test
+    @DisplayName("Results After A Decision Are Ignored")
+    public void decisionIsFinal() {
+        MatchStats stats = new MatchStats(0, 10, 0.05, 0.05);
+        MatchStats.Decision decision = MatchStats.Decision.CONTINUE;
+        while (decision == MatchStats.Decision.CONTINUE) {
+            decision = stats.record(1);
+            if (decision == MatchStats.Decision.CONTINUE) {
+                decision = stats.record(0.5);
+            }
+        }
+        Assertions.assertEquals(MatchStats.Decision.ACCEPT_H1, decision);
+        int games = stats.games();
+        double llr = stats.llr();
+
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertEquals(MatchStats.Decision.ACCEPT_H1, stats.record(0));
+        }
+        Assertions.assertEquals(MatchStats.Decision.ACCEPT_H1, stats.decision());
+        Assertions.assertEquals(games, stats.games(), "Games after the decision were counted");
+        Assertions.assertEquals(llr, stats.llr());
+    }
+
+    @Test
+    @DisplayName("Runner Plays Color-Swapped Pairs")
+    public void runnerPlaysPairs() throws InterruptedException {
+        EnginePlayer strong = new EnginePlayer("strong", new PieceSquareEvaluator(), 2);
+        EnginePlayer weak = new EnginePlayer("weak", position -> 0, 1);
+        MatchStats stats = new MatchRunner(strong, weak,
+                List.of("4k3/8/8/8/8/8/3QK3/8 w - - 0 1", "4k3/8/8/8/8/8/3RK3/8 w - - 0 1"), 4, 2, 40,
+                new MatchStats(0, 10, 0.05, 0.05), new PrintStream(OutputStream.nullOutputStream())).run();
+
+        Assertions.assertEquals(4, stats.games());
+        Assertions.assertEquals(0, stats.losses(), "Searching engine lost to one that scores every position 0");
+    }
+
+    @Test
+    @DisplayName("Runner Refuses To Replay Openings")
+    public void runnerRefusesRepeats() {
+        EnginePlayer engine = new EnginePlayer("engine", new PieceSquareEvaluator(), 1);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MatchRunner(engine, engine,
+                List.of("4k3/8/8/8/8/8/3QK3/8 w - - 0 1"), 3, 1, 40, new MatchStats(0, 10, 0.05, 0.05),
+                new PrintStream(OutputStream.nullOutputStream())));
+    }
+}
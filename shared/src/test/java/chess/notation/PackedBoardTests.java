@@ -0,0 +1,67 @@
+package chess.notation;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+public class PackedBoardTests {
+
+    @Test
+    @DisplayName("Every Position Of A Game Round Trips")
+    public void roundTrip() throws InvalidMoveException {
+        PgnGame pgn = PgnReader.parseGame(PgnReaderTests.EN_PASSANT_AND_PROMOTION);
+        Assertions.assertNull(pgn.error());
+
+        var game = new ChessGame();
+        for (ChessMove move : pgn.moves()) {
+            game.makeMove(move);
+            byte[] packed = PackedBoard.pack(game);
+            Assertions.assertEquals(PackedBoard.SIZE, packed.length);
+            Assertions.assertEquals(Fen.format(game), Fen.format(PackedBoard.unpack(packed, 0)),
+                    "Position changed after " + move);
+        }
+    }
+
+    @Test
+    @DisplayName("Unpacked Game Plays On")
+    public void playable() throws InvalidMoveException {
+        // white may take en passant on d6, and both sides may still castle
+        var game = Fen.parse("r3k2r/pppp1ppp/8/3pP3/8/8/PPP2PPP/R3K2R w KQkq d6 0 1");
+        game.setGameOver(true);
+        byte[] packed = new byte[PackedBoard.SIZE + 3];
+        PackedBoard.pack(game, packed, 3);
+
+        ChessGame unpacked = PackedBoard.unpack(packed, 3);
+        Assertions.assertTrue(unpacked.isGameOver());
+        Assertions.assertEquals(Fen.format(game), Fen.format(unpacked));
+        unpacked.makeMove(San.parse(unpacked, "exd6"));
+        unpacked.makeMove(San.parse(unpacked, "O-O-O"));
+        Assertions.assertEquals("2kr3r/pppp1ppp/3P4/8/8/8/PPP2PPP/R3K2R w KQ - 0 1", Fen.format(unpacked));
+    }
+
+    @Test
+    @DisplayName("Bad Bytes Are Rejected")
+    public void badBytes() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> PackedBoard.unpack(new byte[10], 0));
+        byte[] badPiece = PackedBoard.pack(new ChessGame());
+        badPiece[20] = 0x77;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> PackedBoard.unpack(badPiece, 0));
+        byte[] blackNothing = PackedBoard.pack(new ChessGame());
+        blackNothing[20] = 0x08;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> PackedBoard.unpack(blackNothing, 0));
+    }
+
+    @Test
+    @DisplayName("Packing Overwrites A Reused Buffer")
+    public void reusedBuffer() {
+        byte[] buffer = new byte[PackedBoard.SIZE];
+        Arrays.fill(buffer, (byte) -1);
+        PackedBoard.pack(new ChessGame(), buffer, 0);
+        Assertions.assertArrayEquals(PackedBoard.pack(new ChessGame()), buffer);
+    }
+}
@@ -0,0 +1,60 @@
+package chess.notation;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class PackedMoveTests {
+
+    @Test
+    @DisplayName("Every Move Round Trips")
+    public void roundTrip() {
+        ChessPiece.PieceType[] promotions = {null, ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+                ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT};
+        Set<Integer> seen = new HashSet<>();
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                for (ChessPiece.PieceType promotion : promotions) {
+                    var move = new ChessMove(new ChessPosition(from / 8 + 1, from % 8 + 1),
+                            new ChessPosition(to / 8 + 1, to % 8 + 1), promotion);
+                    int packed = PackedMove.pack(move);
+                    Assertions.assertTrue(packed >= 0 && packed <= Short.MAX_VALUE, "Does not fit in a SMALLINT");
+                    Assertions.assertEquals(move, PackedMove.unpack(packed));
+                    Assertions.assertTrue(seen.add(packed), "Two moves packed to " + packed);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Replay From Packed Moves")
+    public void replay() throws InvalidMoveException {
+        PgnGame pgn = PgnReader.parseGame(PgnReaderTests.EN_PASSANT_AND_PROMOTION);
+        Assertions.assertNull(pgn.error());
+
+        var game = new ChessGame();
+        for (ChessMove move : pgn.moves()) {
+            game.makeMove(PackedMove.unpack(PackedMove.pack(move)));
+        }
+        Assertions.assertEquals(Fen.format(pgn.finalPosition()), Fen.format(game));
+    }
+
+    @Test
+    @DisplayName("Bad Values Are Rejected")
+    public void badValues() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> PackedMove.unpack(-1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> PackedMove.unpack(5 << 12));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> PackedMove.pack(
+                new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 1), ChessPiece.PieceType.KING)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> PackedMove.pack(
+                new ChessMove(new ChessPosition(0, 1), new ChessPosition(8, 1), null)));
+    }
+}
@@ -0,0 +1,123 @@
+package chess.notation;
+
+import chess.ChessGame;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PgnReaderTests {
+
+    static final String FISCHER_SPASSKY = """
+            [Event "F/S Return Match"]
+            [Site "Belgrade, Serbia JUG"]
+            [Date "1992.11.04"]
+            [Round "29"]
+            [White "Fischer, Robert J."]
+            [Black "Spassky, Boris V."]
+            [Result "1/2-1/2"]
+
+            1. e4 e5 2. Nf3 Nc6 3. Bb5 a6 {This opening is called the Ruy Lopez.}
+            4. Ba4 Nf6 5. O-O Be7 6. Re1 b5 7. Bb3 d6 8. c3 O-O 9. h3 Nb8 10. d4 Nbd7
+            11. c4 c6 12. cxb5 axb5 13. Nc3 Bb7 14. Bg5 b4 15. Nb1 h6 16. Bh4 c5 17. dxe5
+            Nxe4 18. Bxe7 Qxe7 19. exd6 Qf6 20. Nbd2 Nxd6 21. Nc4 Nxc4 22. Bxc4 Nb6
+            23. Ne5 Rae8 24. Bxf7+ Rxf7 25. Nxf7 Rxe1+ 26. Qxe1 Kxf7 27. Qe3 Qg5 28. Qxg5
+            hxg5 29. b3 Ke6 30. a3 Kd6 31. axb4 cxb4 32. Ra5 Nd5 33. f3 Bc8 34. Kf2 Bf5
+            35. Ra7 g6 36. Ra6+ Kc5 37. Ke1 Nf4 38. g3 Nxh3 39. Kd2 Kb5 40. Rd6 Kc5 41. Ra6
+            Nf2 42. g4 Bd3 43. Re6 1/2-1/2
+            """;
+
+    static final String SCHOLARS_MATE = """
+            [Event "Casual"]
+            [White "A"]
+            [Black "B"]
+            [Result "1-0"]
+
+            1. e4 e5 2. Bc4 (2. Nf3 Nc6) Nc6 3. Qh5 $2 Nf6?? 4. Qxf7# 1-0
+            """;
+
+    static final String EN_PASSANT_AND_PROMOTION = """
+            [Event "Promotion"]
+            [Result "*"]
+
+            1. h4 g5 2. hxg5 h5 3. gxh6 Nf6 4. h7 Ng8 5. hxg8=Q Rxg8 *
+            """;
+
+    @Test
+    @DisplayName("Replay Full Game")
+    public void replayFullGame() throws IOException {
+        PgnGame game = new PgnReader(new StringReader(FISCHER_SPASSKY)).nextGame();
+
+        Assertions.assertNull(game.error(), "Game did not replay: " + game.error());
+        Assertions.assertEquals(85, game.moves().size(), "Wrong number of moves replayed");
+        Assertions.assertEquals("Fischer, Robert J.", game.tag("White"));
+        Assertions.assertEquals("1/2-1/2", game.result());
+        Assertions.assertEquals("8/8/4R1p1/2k3p1/1p4P1/1P1b1P2/3K1n2/8 b - - 0 1", Fen.format(game.finalPosition()),
+                "Replay did not end on the right position");
+    }
+
+    @Test
+    @DisplayName("Skips Variations and Annotations")
+    public void skipsVariations() throws IOException {
+        PgnGame game = new PgnReader(new StringReader(SCHOLARS_MATE)).nextGame();
+
+        Assertions.assertNull(game.error(), "Game did not replay: " + game.error());
+        Assertions.assertEquals(7, game.moves().size());
+        Assertions.assertTrue(game.finalPosition().isInCheckmate(ChessGame.TeamColor.BLACK), "Final position is not mate");
+    }
+
+    @Test
+    @DisplayName("En Passant and Promotion")
+    public void enPassantAndPromotion() throws IOException {
+        PgnGame game = new PgnReader(new StringReader(EN_PASSANT_AND_PROMOTION)).nextGame();
+
+        Assertions.assertNull(game.error(), "Game did not replay: " + game.error());
+        Assertions.assertEquals("rnbqkbr1/pppppp2/8/8/8/8/PPPPPPP1/RNBQKBNR w KQq - 0 1", Fen.format(game.finalPosition()));
+    }
+
+    @Test
+    @DisplayName("Illegal Move Reported")
+    public void illegalMoveReported() throws IOException {
+        PgnGame game = new PgnReader(new StringReader("1. e4 e5 2. Ke3 Nc6 *\n")).nextGame();
+
+        Assertions.assertNotNull(game.error(), "Illegal move was not reported");
+        Assertions.assertTrue(game.error().startsWith("Move 2. Ke3:"), game.error());
+        Assertions.assertEquals(2, game.moves().size(), "Replay should stop at the illegal move");
+    }
+
+    @Test
+    @DisplayName("Illegal Move Numbered From The FEN")
+    public void illegalMoveNumberedFromFen() throws IOException {
+        String pgn = "[FEN \"rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 12\"]\n\n"
+                + "12... e5 13. Nf3 Ke6 *\n";
+        PgnGame game = new PgnReader(new StringReader(pgn)).nextGame();
+
+        Assertions.assertNotNull(game.error(), "Illegal move was not reported");
+        Assertions.assertTrue(game.error().startsWith("Move 13... Ke6:"), game.error());
+    }
+
+    @Test
+    @DisplayName("Parallel Read Keeps File Order")
+    public void parallelReadKeepsOrder() throws IOException {
+        StringBuilder file = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            file.append(FISCHER_SPASSKY).append('\n').append(SCHOLARS_MATE).append('\n')
+                    .append(EN_PASSANT_AND_PROMOTION).append('\n');
+        }
+        List<PgnGame> games = new ArrayList<>();
+
+        long count = new PgnReader(new StringReader(file.toString())).forEachGame(games::add, 8);
+
+        Assertions.assertEquals(60, count);
+        for (int i = 0; i < games.size(); i++) {
+            Assertions.assertNull(games.get(i).error(), "Game " + i + " did not replay: " + games.get(i).error());
+        }
+        Assertions.assertEquals("F/S Return Match", games.get(0).tag("Event"));
+        Assertions.assertEquals("Casual", games.get(31).tag("Event"));
+        Assertions.assertEquals("Promotion", games.get(59).tag("Event"));
+    }
+}
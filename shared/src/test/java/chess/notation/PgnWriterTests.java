@@ -0,0 +1,100 @@
+package chess.notation;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+
+public class PgnWriterTests {
+
+    @Test
+    @DisplayName("SAN Disambiguation")
+    public void sanDisambiguation() {
+        ChessGame game = Fen.parse("1k6/8/8/8/8/8/1R3R2/1K2R3 w - - 0 1");
+        Assertions.assertEquals("Rbd2", San.format(game, move(2, 2, 2, 4)), "Rooks on one rank need the file");
+
+        game = Fen.parse("1k6/8/8/R7/8/8/8/R3K3 w - - 0 1");
+        Assertions.assertEquals("R1a3", San.format(game, move(1, 1, 3, 1)), "Rooks on one file need the rank");
+
+        game = Fen.parse("7k/8/8/8/2Q1Q3/8/2Q5/K7 w - - 0 1");
+        Assertions.assertEquals("Qc4d3", San.format(game, move(4, 3, 3, 4)), "Three queens need the full square");
+    }
+
+    @Test
+    @DisplayName("SAN Special Moves")
+    public void sanSpecialMoves() {
+        ChessGame game = Fen.parse("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        Assertions.assertEquals("O-O", San.format(game, move(1, 5, 1, 7)));
+        Assertions.assertEquals("O-O-O", San.format(game, move(1, 5, 1, 3)));
+
+        game = Fen.parse("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3");
+        Assertions.assertEquals("exf6", San.format(game, move(5, 5, 6, 6)), "En passant is a pawn capture");
+
+        game = Fen.parse("1n4k1/P7/8/8/8/8/8/4K3 w - - 0 1");
+        Assertions.assertEquals("axb8=Q+", San.format(game,
+                new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 2), ChessPiece.PieceType.QUEEN)));
+
+        game = Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        Assertions.assertEquals("Ra8#", San.format(game, move(1, 1, 8, 1)));
+    }
+
+    @Test
+    @DisplayName("En Passant Target Must Be On The Capturing Rank")
+    public void enPassantTargetRank() {
+        // a black pawn behind e3, but it cannot have just moved there two squares
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.parse("4k3/8/8/8/8/8/4p3/4K3 w - e3 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.parse("4k3/4P3/8/8/8/8/8/4K3 b - e6 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.parse("4k3/8/8/8/8/8/8/4K3 w - e8 0 1"));
+    }
+
+    @Test
+    @DisplayName("PGN Round Trip")
+    public void pgnRoundTrip() throws IOException {
+        PgnGame original = new PgnReader(new StringReader(PgnReaderTests.FISCHER_SPASSKY)).nextGame();
+        StringWriter text = new StringWriter();
+
+        new PgnWriter(text).write(original);
+        PgnGame reread = new PgnReader(new StringReader(text.toString())).nextGame();
+
+        Assertions.assertNull(reread.error(), "Written PGN did not replay: " + reread.error());
+        Assertions.assertEquals(original.moves(), reread.moves(), "Moves changed in the round trip");
+        Assertions.assertEquals(original.tags(), reread.tags(), "Tags changed in the round trip");
+        Assertions.assertTrue(text.toString().contains("24. Bxf7+ Rxf7"), "Check suffix missing from SAN");
+        for (String line : text.toString().split("\n")) {
+            Assertions.assertTrue(line.length() <= 80, "Line longer than 80 characters: " + line);
+        }
+    }
+
+    @Test
+    @DisplayName("PGN From Position With Black To Move")
+    public void pgnBlackToMove() throws IOException {
+        ChessGame start = Fen.parse("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+        StringWriter text = new StringWriter();
+
+        new PgnWriter(text).write(Map.of("Event", "Test"), start, List.of(move(7, 5, 5, 5), move(1, 7, 3, 6)), "*");
+
+        Assertions.assertTrue(text.toString().contains("[Site \"?\"]"), "Missing roster tag was not filled in");
+        Assertions.assertTrue(text.toString().contains("1... e5 2. Nf3 *"), "Wrong movetext: " + text);
+    }
+
+    @Test
+    @DisplayName("Result Must Be A Termination Marker")
+    public void badResult() {
+        var writer = new PgnWriter(new StringWriter());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> writer.write(Map.of(), new ChessGame(), List.of(), "white won on time, after a long game"));
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+}
@@ -0,0 +1,96 @@
+package websocket;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.notation.Fen;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import websocket.commands.ConnectCommand;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ErrorMessage;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveMadeMessage;
+import websocket.messages.NotificationMessage;
+import websocket.messages.ServerMessage;
+
+public class BinaryCodecTests {
+
+    private static UserGameCommand roundTrip(UserGameCommand command) {
+        byte[] frame = BinaryCodec.encode(command);
+        return BinaryCodec.decodeCommand(frame, 0, frame.length);
+    }
+
+    private static ServerMessage roundTrip(ServerMessage message) {
+        byte[] frame = BinaryCodec.encode(message);
+        return BinaryCodec.decodeMessage(frame, 0, frame.length);
+    }
+
+    @Test
+    @DisplayName("Commands Round Trip")
+    public void commands() {
+        String token = "b3BhcXVl.1700000000000.1700000060000.AbCd.sig";
+        var move = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 1), ChessPiece.PieceType.QUEEN);
+        UserGameCommand[] commands = {
+                new ConnectCommand(token, 17, true),
+                new ConnectCommand(token, 17, false),
+                new MakeMoveCommand(token, 17, move),
+                new UserGameCommand(UserGameCommand.CommandType.LEAVE, token, 17),
+                new UserGameCommand(UserGameCommand.CommandType.RESIGN, token, Integer.MAX_VALUE),
+        };
+        for (UserGameCommand command : commands) {
+            Assertions.assertEquals(command, roundTrip(command));
+        }
+    }
+
+    @Test
+    @DisplayName("Messages Round Trip")
+    public void messages() throws InvalidMoveException {
+        var game = new ChessGame();
+        var move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        game.makeMove(move);
+
+        var load = (LoadGameMessage) roundTrip(new LoadGameMessage(game));
+        Assertions.assertEquals(Fen.format(game), Fen.format(load.getGame()));
+
+        var delta = MoveMadeMessage.of(move, game);
+        Assertions.assertEquals(delta, roundTrip(delta));
+        byte[] direct = BinaryCodec.encodeMoveMade(move, delta.getStatus(), game);
+        Assertions.assertArrayEquals(BinaryCodec.encode(delta), direct);
+        Assertions.assertArrayEquals(BinaryCodec.encode(new LoadGameMessage(game)), BinaryCodec.encodeLoadGame(game));
+
+        var note = new NotificationMessage("white moved e2 to e4 ♔");
+        Assertions.assertEquals(note, roundTrip(note));
+        var error = new ErrorMessage("Error: not your turn");
+        Assertions.assertEquals(error, roundTrip(error));
+    }
+
+    @Test
+    @DisplayName("Binary Board Is A Fraction Of The JSON")
+    public void smallerThanJson() {
+        var message = new LoadGameMessage(new ChessGame());
+        int jsonSize = new Gson().toJson(message).length();
+        int binarySize = BinaryCodec.encode(message).length;
+        Assertions.assertTrue(binarySize * 20 < jsonSize, binarySize + " bytes against " + jsonSize + " for JSON");
+    }
+
+    @Test
+    @DisplayName("Malformed Frames Are Rejected")
+    public void malformed() {
+        byte[] command = BinaryCodec.encode(new ConnectCommand("token", 1, false));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> BinaryCodec.decodeCommand(command, 0, command.length - 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BinaryCodec.decodeCommand(new byte[]{9}, 0, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BinaryCodec.decodeMessage(new byte[]{0, 1}, 0, 2));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BinaryCodec.decodeMessage(new byte[0], 0, 0));
+        byte[] board = BinaryCodec.encode(new LoadGameMessage(new ChessGame()));
+        board[1] = 0x08;
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> BinaryCodec.decodeMessage(board, 0, board.length));
+    }
+}
@@ -0,0 +1,66 @@
+package websocket.messages;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class MoveMadeMessageTests {
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
+
+    @Test
+    @DisplayName("Client Copy Follows The Server")
+    public void followsServer() throws InvalidMoveException {
+        var server = new ChessGame();
+        var client = new ChessGame();
+        var gson = new Gson();
+        // fool's mate, so the last delta reports checkmate
+        ChessMove[] moves = {move(2, 6, 3, 6), move(7, 5, 5, 5), move(2, 7, 4, 7), move(8, 4, 4, 8)};
+        MoveMadeMessage delta = null;
+        for (ChessMove move : moves) {
+            server.makeMove(move);
+            String frame = gson.toJson(MoveMadeMessage.of(move, server));
+            delta = gson.fromJson(frame, MoveMadeMessage.class);
+            Assertions.assertEquals(ServerMessage.ServerMessageType.MOVE_MADE, delta.getServerMessageType());
+            Assertions.assertTrue(delta.applyTo(client), "Client fell out of step after " + move);
+        }
+        Assertions.assertEquals(server, client);
+        Assertions.assertEquals(MoveMadeMessage.Status.CHECKMATE, delta.getStatus());
+        Assertions.assertTrue(client.isGameOver(), "Checkmate did not end the client's game");
+    }
+
+    @Test
+    @DisplayName("Missed Move Asks For Resync")
+    public void missedMove() throws InvalidMoveException {
+        var server = new ChessGame();
+        var client = new ChessGame();
+        server.makeMove(move(2, 5, 4, 5));
+        ChessMove reply = move(7, 5, 5, 5);
+        server.makeMove(reply);
+
+        // the client never saw white's move, so it cannot play black's reply
+        Assertions.assertFalse(MoveMadeMessage.of(reply, server).applyTo(client));
+    }
+
+    @Test
+    @DisplayName("Delta Is Much Smaller Than The Board")
+    public void smallerThanBoard() throws InvalidMoveException {
+        var game = new ChessGame();
+        ChessMove move = move(2, 5, 4, 5);
+        game.makeMove(move);
+        var gson = new Gson();
+
+        int deltaSize = gson.toJson(MoveMadeMessage.of(move, game)).length();
+        int boardSize = gson.toJson(new LoadGameMessage(game)).length();
+
+        Assertions.assertTrue(deltaSize * 10 < boardSize,
+                "MOVE_MADE was " + deltaSize + " characters against " + boardSize + " for LOAD_GAME");
+    }
+}